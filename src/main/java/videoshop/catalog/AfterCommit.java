@@ -0,0 +1,37 @@
+package videoshop.catalog;
+
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * Defers work on a change of the catalog until the change has been committed. Changes which are rolled back are
+ * never applied, and nobody can observe a derived state ahead of the database.
+ */
+final class AfterCommit {
+
+	private AfterCommit() {}
+
+	/**
+	 * Runs the given action once the current transaction has been committed, or right away outside of a transaction.
+	 *
+	 * @param action must not be {@literal null}.
+	 */
+	static void run(Runnable action) {
+
+		Assert.notNull(action, "Action must not be null!");
+
+		if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+			action.run();
+			return;
+		}
+
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+
+			@Override
+			public void afterCommit() {
+				action.run();
+			}
+		});
+	}
+}
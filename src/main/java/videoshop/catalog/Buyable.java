@@ -5,11 +5,13 @@ import org.springframework.util.Assert;
 
 import javax.money.MonetaryAmount;
 import javax.persistence.Entity;
+import javax.persistence.EntityListeners;
 
 /**
  * Class representing a Buyable Object, which is a Product with a specific type
  */
 @Entity
+@EntityListeners(BuyableListener.class)
 public class Buyable extends Product {
 
     /**
@@ -20,17 +22,30 @@ public class Buyable extends Product {
     }
 
     private BuyableType type;
+    private boolean unlimitedStock;
 
     /**
-     * Create a new instance
+     * Create a new instance kept in stock
      * @param name Name of the Buyable
      * @param price Price of the Buyable
      * @param type Type of the Buyable
      */
     public Buyable(String name, MonetaryAmount price, BuyableType type) {
+        this(name, price, type, false);
+    }
+
+    /**
+     * Create a new instance
+     * @param name Name of the Buyable
+     * @param price Price of the Buyable
+     * @param type Type of the Buyable
+     * @param unlimitedStock Whether the Buyable can be sold without limit, e.g. as it is digital
+     */
+    public Buyable(String name, MonetaryAmount price, BuyableType type, boolean unlimitedStock) {
         super(name, price);
         Assert.notNull(type, "Type must not be null!");
         this.type = type;
+        this.unlimitedStock = unlimitedStock;
     }
 
     @SuppressWarnings("unused")
@@ -45,6 +60,15 @@ public class Buyable extends Product {
         return type;
     }
 
+    /**
+     * Check whether this Buyable can be sold without limit. Such Buyables have no inventory, their order lines are
+     * neither verified against nor taken from any stock.
+     * @return true if the Buyable is never out of stock
+     */
+    public boolean hasUnlimitedStock() {
+        return unlimitedStock;
+    }
+
     /**
      * Check whether this Buyable is either a DVD or a BluRay
      * @return false if this Buyable is a Voucher, else true
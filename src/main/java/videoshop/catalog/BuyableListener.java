@@ -0,0 +1,57 @@
+package videoshop.catalog;
+
+import org.springframework.util.Assert;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * JPA entity listener reporting every change to a {@link Buyable} to the {@link CatalogSearch}, the
+ * {@link GenreFacets} and the {@link CatalogVersions}. Instances are created by Hibernate through Spring, so the
+ * listener can be autowired.
+ * <p>
+ * All of them apply the change after the commit in the order they were told about it. The version is incremented
+ * last, so nothing rendered for the new version can see an index in its old state.
+ */
+class BuyableListener {
+
+	private final CatalogVersions versions;
+	private final CatalogSearch search;
+	private final GenreFacets facets;
+
+	/**
+	 * Creates a new {@link BuyableListener}
+	 *
+	 * @param versions must not be {@literal null}.
+	 * @param search   must not be {@literal null}.
+	 * @param facets   must not be {@literal null}.
+	 */
+	BuyableListener(CatalogVersions versions, CatalogSearch search, GenreFacets facets) {
+
+		Assert.notNull(versions, "CatalogVersions must not be null!");
+		Assert.notNull(search, "CatalogSearch must not be null!");
+		Assert.notNull(facets, "GenreFacets must not be null!");
+
+		this.versions = versions;
+		this.search = search;
+		this.facets = facets;
+	}
+
+	@PostPersist
+	@PostUpdate
+	void saved(Buyable buyable) {
+
+		search.saved(buyable);
+		facets.saved(buyable);
+		versions.changed(buyable.getType());
+	}
+
+	@PostRemove
+	void removed(Buyable buyable) {
+
+		search.removed(buyable);
+		facets.removed(buyable);
+		versions.changed(buyable.getType());
+	}
+}
@@ -0,0 +1,105 @@
+package videoshop.catalog;
+
+import org.salespointframework.catalog.ProductIdentifier;
+import org.springframework.util.Assert;
+import videoshop.catalog.Buyable.BuyableType;
+
+import javax.money.MonetaryAmount;
+
+/**
+ * Read-only view on a {@link Buyable} holding just what a catalog listing shows. Listings are selected column by column
+ * (see {@link ShopCatalog#findListingsByType(BuyableType, org.springframework.data.domain.Sort)}), so neither entities
+ * nor their categories and comments are loaded.
+ */
+public class BuyableListing {
+
+	private final ProductIdentifier id;
+	private final String name;
+	private final MonetaryAmount price;
+	private final BuyableType type;
+	private final String image;
+	private final String genre;
+
+	/**
+	 * Create a new listing of a {@link Disc}
+	 *
+	 * @param id    Identifier of the Disc
+	 * @param name  Name of the Disc
+	 * @param price Price of the Disc
+	 * @param type  Type of the Disc
+	 * @param image Name of the cover image
+	 * @param genre Genre of the Disc
+	 */
+	public BuyableListing(ProductIdentifier id, String name, MonetaryAmount price, BuyableType type, String image,
+						  String genre) {
+		Assert.notNull(id, "Id must not be null!");
+		Assert.notNull(type, "Type must not be null!");
+		this.id = id;
+		this.name = name;
+		this.price = price;
+		this.type = type;
+		this.image = image;
+		this.genre = genre;
+	}
+
+	/**
+	 * Create a new listing of a {@link Buyable} without cover and genre
+	 *
+	 * @param id    Identifier of the Buyable
+	 * @param name  Name of the Buyable
+	 * @param price Price of the Buyable
+	 * @param type  Type of the Buyable
+	 */
+	public BuyableListing(ProductIdentifier id, String name, MonetaryAmount price, BuyableType type) {
+		this(id, name, price, type, null, null);
+	}
+
+	/**
+	 * Create the listing of the given {@link Buyable}
+	 *
+	 * @param buyable must not be {@literal null}.
+	 * @return the listing
+	 */
+	public static BuyableListing of(Buyable buyable) {
+		Assert.notNull(buyable, "Buyable must not be null!");
+		if (buyable instanceof Disc) {
+			Disc disc = (Disc) buyable;
+			return new BuyableListing(disc.getId(), disc.getName(), disc.getPrice(), disc.getType(), disc.getImage(),
+					disc.getGenre());
+		}
+		return new BuyableListing(buyable.getId(), buyable.getName(), buyable.getPrice(), buyable.getType());
+	}
+
+	public ProductIdentifier getId() {
+		return id;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public MonetaryAmount getPrice() {
+		return price;
+	}
+
+	public BuyableType getType() {
+		return type;
+	}
+
+	public String getImage() {
+		return image;
+	}
+
+	public String getGenre() {
+		return genre;
+	}
+
+	/**
+	 * Check whether the listed Buyable is either a DVD or a BluRay
+	 *
+	 * @return false if it is a Voucher, else true
+	 */
+	public boolean isDisc() {
+		return type == BuyableType.BLURAY || type == BuyableType.DVD;
+	}
+}
@@ -0,0 +1,42 @@
+package videoshop.catalog;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+/**
+ * Configures the caches of the catalog listings (see {@link ShopCatalog}) and of their rendered card grids (see
+ * {@link CatalogCards}). The caches are bounded in size, their entries expire after a while in case the catalog is
+ * changed by another instance.
+ * <p>
+ * Evictions are deferred until the transaction writing to the catalog commits. Otherwise a listing read concurrently
+ * before the commit would be cached again with the old state.
+ * <p>
+ * Metrics: Spring Boot registers {@code cache.gets} by result ({@code hit} or {@code miss}), {@code cache.puts},
+ * {@code cache.evictions} and {@code cache.size} tagged with the name of the cache.
+ */
+@Configuration
+@EnableCaching
+class CatalogCacheConfiguration {
+
+	static final long MAXIMUM_SIZE = 100;
+	static final Duration TIME_TO_LIVE = Duration.ofMinutes(10);
+
+	@Bean
+	CacheManager cacheManager() {
+
+		CaffeineCacheManager cacheManager = new CaffeineCacheManager(ShopCatalog.LISTINGS, CatalogCards.CARDS);
+		cacheManager.setCaffeine(Caffeine.newBuilder() //
+				.maximumSize(MAXIMUM_SIZE) //
+				.expireAfterWrite(TIME_TO_LIVE) //
+				.recordStats());
+
+		return new TransactionAwareCacheManagerProxy(cacheManager);
+	}
+}
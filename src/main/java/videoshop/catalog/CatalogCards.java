@@ -0,0 +1,186 @@
+package videoshop.catalog;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.interceptor.SimpleKey;
+import org.springframework.context.ApplicationContext;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.thymeleaf.ITemplateEngine;
+import org.thymeleaf.context.WebContext;
+import org.thymeleaf.spring5.expression.ThymeleafEvaluationContext;
+import videoshop.catalog.Buyable.BuyableType;
+
+import javax.money.MonetaryAmount;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Renders the card grid of a catalog page and caches the resulting HTML per type, page (see {@link #page}),
+ * {@link Locale} and version of the catalog (see {@link CatalogVersions}). Once a {@link Buyable} changes, its type gets a new version and
+ * the grid is rendered again, the outdated entries age out of the {@value #CARDS} cache.
+ */
+@Component
+class CatalogCards {
+
+	static final String CARDS = "catalog.cards";
+	static final String TEMPLATE = "catalog-cards";
+	static final String FRAGMENT = "cards";
+
+	private final CatalogPages pages;
+	private final GenreFacets facets;
+	private final CatalogVersions versions;
+	private final StockLevels stockLevels;
+	private final ITemplateEngine templateEngine;
+	private final ApplicationContext applicationContext;
+	private final Cache cache;
+
+	/**
+	 * Creates a new {@link CatalogCards}
+	 *
+	 * @param pages              must not be {@literal null}.
+	 * @param facets             must not be {@literal null}.
+	 * @param versions           must not be {@literal null}.
+	 * @param stockLevels        must not be {@literal null}.
+	 * @param templateEngine     must not be {@literal null}.
+	 * @param applicationContext must not be {@literal null}.
+	 * @param cacheManager       must not be {@literal null}.
+	 */
+	CatalogCards(CatalogPages pages, GenreFacets facets, CatalogVersions versions, StockLevels stockLevels,
+			ITemplateEngine templateEngine, ApplicationContext applicationContext, CacheManager cacheManager) {
+
+		Assert.notNull(pages, "CatalogPages must not be null!");
+		Assert.notNull(facets, "GenreFacets must not be null!");
+		Assert.notNull(versions, "CatalogVersions must not be null!");
+		Assert.notNull(stockLevels, "StockLevels must not be null!");
+		Assert.notNull(templateEngine, "TemplateEngine must not be null!");
+		Assert.notNull(applicationContext, "ApplicationContext must not be null!");
+		Assert.notNull(cacheManager, "CacheManager must not be null!");
+
+		this.pages = pages;
+		this.facets = facets;
+		this.versions = versions;
+		this.stockLevels = stockLevels;
+		this.templateEngine = templateEngine;
+		this.applicationContext = applicationContext;
+		this.cache = cacheManager.getCache(CARDS);
+
+		Assert.state(cache != null, "Cache " + CARDS + " must be configured!");
+	}
+
+	/**
+	 * Returns the rendered card grid of a page of {@link Buyable}s of the given type (see {@link CatalogPages}),
+	 * including the links to the first and the next page. Discs can be filtered by genres (see {@link GenreFacets}),
+	 * the grid then offers the genres to narrow the selection down further.
+	 *
+	 * @param type     must not be {@literal null}.
+	 * @param genres   normalised keys of the genres to filter discs by, must not be {@literal null}.
+	 * @param price    price of the last voucher on the previous page, {@literal null} for the first page or discs.
+	 * @param after    identifier of the last listing on the previous page, {@literal null} for the first page.
+	 * @param locale   must not be {@literal null}.
+	 * @param request  the current request, must not be {@literal null}.
+	 * @param response the current response, must not be {@literal null}.
+	 * @return the HTML of the grid, never {@literal null}.
+	 */
+	String render(BuyableType type, List<String> genres, MonetaryAmount price, String after, Locale locale,
+			HttpServletRequest request, HttpServletResponse response) {
+
+		Assert.notNull(type, "BuyableType must not be null!");
+		Assert.notNull(genres, "Genres must not be null!");
+		Assert.notNull(locale, "Locale must not be null!");
+		Assert.notNull(request, "Request must not be null!");
+		Assert.notNull(response, "Response must not be null!");
+
+		SimpleKey key = new SimpleKey(type, page(genres, price, after), locale, versions.getVersion(type));
+
+		return cache.get(key, () -> {
+
+			// The HTML is shared between all users, so no session identifier must be encoded into the links
+			WebContext context = new WebContext(request, new HttpServletResponseWrapper(response) {
+
+				@Override
+				public String encodeURL(String url) {
+					return url;
+				}
+			}, request.getServletContext(), locale);
+
+			// Same as ThymeleafView, so ${{…}} formats the prices with the conversion service of Spring MVC
+			context.setVariable(ThymeleafEvaluationContext.THYMELEAF_EVALUATION_CONTEXT_CONTEXT_VARIABLE_NAME,
+					new ThymeleafEvaluationContext(applicationContext,
+							(ConversionService) request.getAttribute(ConversionService.class.getName())));
+			if (type == BuyableType.VOUCHER) {
+				context.setVariable("catalog", pages.findVouchers(price, after));
+				context.setVariable("facets", List.of());
+				context.setVariable("stock", Map.of());
+			} else {
+				Slice<BuyableListing> discs = genres.isEmpty() //
+						? pages.findDiscs(type, after) //
+						: facets.findDiscs(type, genres, after);
+				context.setVariable("catalog", discs);
+				context.setVariable("facets", facets.count(type, genres));
+				// One query for the availability of the whole page
+				context.setVariable("stock", stockLevels.findLevels(discs.stream() //
+						.map(BuyableListing::getId) //
+						.collect(Collectors.toList())));
+			}
+			context.setVariable("genres", genres);
+			context.setVariable("path", path(type));
+
+			return templateEngine.process(TEMPLATE, Set.of(FRAGMENT), context);
+		});
+	}
+
+	/**
+	 * Identifies a page of the catalog by a SHA-256 digest of its filter and position, the same for the cache key and
+	 * the ETag of the page, so different pages can't be mistaken for one another.
+	 *
+	 * @param genres normalised keys of the genres to filter discs by, sorted, must not be {@literal null}.
+	 * @param price  price of the last voucher on the previous page, can be {@literal null}.
+	 * @param after  identifier of the last listing on the previous page, can be {@literal null}.
+	 * @return the digest, encoded as URL-safe Base64 without padding.
+	 */
+	static String page(List<String> genres, MonetaryAmount price, String after) {
+
+		Assert.notNull(genres, "Genres must not be null!");
+
+		String amount = price == null ? "" : price.getCurrency().getCurrencyCode() + " " //
+				+ price.getNumber().numberValue(BigDecimal.class).stripTrailingZeros().toPlainString();
+		// Genres are prefixed by their length, as the keys may contain any character
+		StringBuilder page = new StringBuilder();
+		genres.forEach(genre -> page.append(genre.length()).append(':').append(genre));
+		page.append('\n').append(amount).append('\n').append(after == null ? "" : after);
+
+		try {
+			return Base64.getUrlEncoder().withoutPadding().encodeToString(
+					MessageDigest.getInstance("SHA-256").digest(page.toString().getBytes(StandardCharsets.UTF_8)));
+		} catch (NoSuchAlgorithmException e) {
+			throw new IllegalStateException("SHA-256 must be supported!", e);
+		}
+	}
+
+	private static String path(BuyableType type) {
+
+		switch (type) {
+			case DVD:
+				return "/dvds";
+			case BLURAY:
+				return "/blurays";
+			case VOUCHER:
+			default:
+				return "/vouchers";
+		}
+	}
+}
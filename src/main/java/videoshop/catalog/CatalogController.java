@@ -16,92 +16,173 @@
 package videoshop.catalog;
 
 import org.hibernate.validator.constraints.Range;
+import org.javamoney.moneta.Money;
 import org.salespointframework.inventory.InventoryItem;
 import org.salespointframework.inventory.UniqueInventory;
 import org.salespointframework.inventory.UniqueInventoryItem;
 import org.salespointframework.quantity.Quantity;
 import org.salespointframework.time.BusinessTime;
-import org.springframework.data.domain.Sort;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
 import videoshop.catalog.Buyable.BuyableType;
 
+import javax.money.MonetaryAmount;
+import javax.servlet.http.HttpServletResponse;
 import javax.validation.Valid;
 import javax.validation.constraints.NotEmpty;
-import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
 
 @Controller
 class CatalogController {
 
 	private static final Quantity NONE = Quantity.of(0);
 
-	private final ShopCatalog catalog;
 	private final UniqueInventory<UniqueInventoryItem> inventory;
 	private final BusinessTime businessTime;
+	private final CatalogCards cards;
+	private final CatalogVersions versions;
+	private final DiscReviews reviews;
+	private final CommentWriter commentWriter;
+	private final StockReservations reservations;
 
-	CatalogController(ShopCatalog shopCatalog, UniqueInventory<UniqueInventoryItem> inventory,
-					  BusinessTime businessTime) {
+	CatalogController(UniqueInventory<UniqueInventoryItem> inventory, BusinessTime businessTime, CatalogCards cards,
+					  CatalogVersions versions, DiscReviews reviews, CommentWriter commentWriter,
+					  StockReservations reservations) {
 
-		this.catalog = shopCatalog;
 		this.inventory = inventory;
 		this.businessTime = businessTime;
+		this.cards = cards;
+		this.versions = versions;
+		this.reviews = reviews;
+		this.commentWriter = commentWriter;
+		this.reservations = reservations;
 	}
 
 	@GetMapping("/dvds")
-	String dvdCatalog(Model model) {
+	String dvdCatalog(@RequestParam(value = "genre", required = false) List<String> genres,
+			@RequestParam(value = "after", required = false) String after, Model model, Locale locale,
+			ServletWebRequest request) {
+		return catalogPage(BuyableType.DVD, GenreFacets.keys(genres), null, after, "catalog.dvd.title", model, locale,
+				request);
+	}
 
-		model.addAttribute("catalog", catalog.findByType(BuyableType.DVD));
-		model.addAttribute("title", "catalog.dvd.title");
+	@GetMapping("/blurays")
+	String blurayCatalog(@RequestParam(value = "genre", required = false) List<String> genres,
+			@RequestParam(value = "after", required = false) String after, Model model, Locale locale,
+			ServletWebRequest request) {
+		return catalogPage(BuyableType.BLURAY, GenreFacets.keys(genres), null, after, "catalog.bluray.title", model,
+				locale, request);
+	}
 
-		return "catalog";
+	// Add shop page for vouchers
+	@GetMapping("/vouchers")
+	String vouchers(@RequestParam(value = "price", required = false) String price,
+			@RequestParam(value = "after", required = false) String after, Model model, Locale locale,
+			ServletWebRequest request) {
+		return catalogPage(BuyableType.VOUCHER, List.of(), parsePrice(price), after, "catalog.voucher.title", model,
+				locale, request);
 	}
 
-	@GetMapping("/blurays")
-	String blurayCatalog(Model model) {
+	/**
+	 * Renders a page of the catalog of the given type (see {@link CatalogPages}), discs optionally filtered by genres
+	 * (see {@link GenreFacets}). The page is identified by a strong ETag made up of the version of the catalog, the
+	 * filter and position of the page, the locale and the authorities of the current user, as the latter decide on the
+	 * navigation. If the client already has the current page, {@code 304 Not Modified} is answered without rendering
+	 * anything. Otherwise the card grid is taken from the {@link CatalogCards}.
+	 */
+	private String catalogPage(BuyableType type, List<String> genres, MonetaryAmount price, String after, String title,
+			Model model, Locale locale, ServletWebRequest request) {
 
-		model.addAttribute("catalog", catalog.findByType(BuyableType.BLURAY));
-		model.addAttribute("title", "catalog.bluray.title");
+		HttpServletResponse response = request.getResponse();
+
+		// Revalidate on every request, the page differs by session and language
+		response.setHeader(HttpHeaders.CACHE_CONTROL, CacheControl.noCache().getHeaderValue());
+		response.addHeader(HttpHeaders.VARY, HttpHeaders.COOKIE);
+		response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_LANGUAGE);
+
+		if (request.checkNotModified(etag(type, CatalogCards.page(genres, price, after), locale))) {
+			return null;
+		}
+
+		model.addAttribute("cards", cards.render(type, genres, price, after, locale, request.getRequest(), response));
+		model.addAttribute("title", title);
 
 		return "catalog";
 	}
 
-	// Add shop page for vouchers
-	@GetMapping("/vouchers")
-	String vouchers(Model model) {
-		model.addAttribute("catalog", catalog.findByType(BuyableType.VOUCHER, Sort.by("price").ascending()));
-		model.addAttribute("title", "catalog.voucher.title");
+	/**
+	 * Parses the price of the last voucher on the previous page as handed out in the link to the next page.
+	 *
+	 * @return the price or {@literal null} to start on the first page.
+	 */
+	private static MonetaryAmount parsePrice(String price) {
 
-		return "catalog";
+		if (!StringUtils.hasText(price)) {
+			return null;
+		}
+
+		try {
+			return Money.parse(price);
+		} catch (RuntimeException e) {
+			return null;
+		}
+	}
+
+	private String etag(BuyableType type, String page, Locale locale) {
+
+		Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+		String authorities = authentication == null ? "" : authentication.getAuthorities().stream() //
+				.map(GrantedAuthority::getAuthority) //
+				.sorted() //
+				.collect(Collectors.joining(","));
+
+		return String.format("\"%s-%s-%s-%s-%x\"", type.name().toLowerCase(Locale.ROOT), versions.getVersion(type),
+				page, locale.toLanguageTag(), authorities.hashCode());
 	}
 
 	// (｡◕‿◕｡)
 	// Befindet sich die angesurfte Url in der Form /foo/5 statt /foo?bar=5 so muss man @PathVariable benutzen
 	// Lektüre: http://spring.io/blog/2009/03/08/rest-in-spring-3-mvc/
+	// The comments are shown page by page, only the aggregated rating covers all of them
+	// The stock shown leaves out what is reserved in carts (see StockReservations)
 	@GetMapping("/disc/{disc}")
-	String detail(@PathVariable Disc disc, Model model) {
+	String detail(@PathVariable Disc disc, @RequestParam(value = "commentsBefore", required = false) Long before,
+				  Model model) {
 
 		var quantity = inventory.findByProductIdentifier(disc.getId()) //
 				.map(InventoryItem::getQuantity) //
+				.map(inStock -> Quantity.of(reservations.getAvailable(disc.getId(), inStock))) //
 				.orElse(NONE);
 
 		model.addAttribute("disc", disc);
 		model.addAttribute("quantity", quantity);
 		model.addAttribute("orderable", quantity.isGreaterThan(NONE));
+		model.addAttribute("rating", reviews.findRating(disc.getId()));
+		model.addAttribute("comments", reviews.findComments(disc.getId(), before));
 
 		return "detail";
 	}
 
 	// (｡◕‿◕｡)
 	// Der Katalog bzw die Datenbank "weiß" nicht, dass die Disc mit einem Kommentar versehen wurde,
-	// deswegen wird die update-Methode aufgerufen
+	// deswegen wird der Kommentar einzeln gespeichert und die Bewertung der Disc fortgeschrieben
 	@PostMapping("/disc/{disc}/comments")
 	public String comment(@PathVariable Disc disc, @Valid CommentAndRating payload) {
 
-		disc.addComment(payload.toComment(businessTime.getTime()));
-		catalog.save(disc);
+		commentWriter.write(disc.getId(), payload.getComment(), payload.getRating(), businessTime.getTime());
 
 		return "redirect:/disc/" + disc.getId();
 	}
@@ -118,9 +199,5 @@ class CatalogController {
 
 		@Range(min = 1, max = 5)
 		int getRating();
-
-		default Comment toComment(LocalDateTime time) {
-			return new Comment(getComment(), getRating(), time);
-		}
 	}
 }
@@ -0,0 +1,82 @@
+package videoshop.catalog;
+
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import videoshop.catalog.Buyable.BuyableType;
+
+import javax.money.MonetaryAmount;
+import java.util.List;
+
+/**
+ * Pages of {@link BuyableListing}s for browsing the catalog. Discs are listed newest identifier first (see
+ * {@link ShopCatalog#DEFAULT_SORT}), vouchers by ascending price. Every page is read with a keyset query fetching a
+ * single row more than shown, so a page deep into a large catalog costs the same as the first one.
+ * <p>
+ * Prices are compared in the form they are stored in. A cursor price has to be taken from a listing, so it converts
+ * to exactly the stored value.
+ */
+@Component
+class CatalogPages {
+
+	static final int PAGE_SIZE = 24;
+
+	private final ShopCatalog catalog;
+
+	/**
+	 * Creates a new {@link CatalogPages}
+	 *
+	 * @param catalog must not be {@literal null}.
+	 */
+	CatalogPages(ShopCatalog catalog) {
+
+		Assert.notNull(catalog, "ShopCatalog must not be null!");
+
+		this.catalog = catalog;
+	}
+
+	/**
+	 * Find a page of {@link Disc} listings of the given type.
+	 *
+	 * @param type  must not be {@literal null}.
+	 * @param after identifier of the last listing on the previous page, {@literal null} for the first page.
+	 * @return the page of listings
+	 */
+	Slice<BuyableListing> findDiscs(BuyableType type, String after) {
+
+		Assert.notNull(type, "BuyableType must not be null!");
+
+		Pageable pageable = PageRequest.of(0, PAGE_SIZE + 1);
+
+		return slice(after == null //
+				? catalog.findFirstDiscListings(type, pageable) //
+				: catalog.findDiscListingsAfter(type, after, pageable));
+	}
+
+	/**
+	 * Find a page of {@link Voucher} listings ordered by price.
+	 *
+	 * @param price price of the last listing on the previous page, {@literal null} for the first page.
+	 * @param after identifier of the last listing on the previous page, {@literal null} for the first page.
+	 * @return the page of listings
+	 */
+	Slice<BuyableListing> findVouchers(MonetaryAmount price, String after) {
+
+		Pageable pageable = PageRequest.of(0, PAGE_SIZE + 1);
+
+		return slice(price == null || after == null //
+				? catalog.findFirstBuyableListings(BuyableType.VOUCHER, pageable) //
+				: catalog.findBuyableListingsAfter(BuyableType.VOUCHER, price, after, pageable));
+	}
+
+	private static Slice<BuyableListing> slice(List<BuyableListing> content) {
+
+		boolean hasNext = content.size() > PAGE_SIZE;
+
+		return new SliceImpl<>(hasNext ? content.subList(0, PAGE_SIZE) : content, PageRequest.of(0, PAGE_SIZE),
+				hasNext);
+	}
+}
@@ -0,0 +1,116 @@
+package videoshop.catalog;
+
+import org.salespointframework.catalog.ProductIdentifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import videoshop.catalog.Buyable.BuyableType;
+
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Full-text search over the catalog, backed by an in-memory {@link SearchIndex}. The index is loaded from the
+ * {@link ShopCatalog} once the application is ready and kept up to date by the {@link BuyableListener}, changes are
+ * applied once they have been committed.
+ * <p>
+ * The index is kept per instance, changes made by another instance are not seen until a restart.
+ */
+@Component
+public class CatalogSearch {
+
+	static final int MAX_RESULTS = 50;
+
+	private final ShopCatalog catalog;
+	private final SearchIndex index = new SearchIndex();
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Creates a new {@link CatalogSearch}
+	 *
+	 * @param catalog must not be {@literal null}.
+	 */
+	CatalogSearch(ShopCatalog catalog) {
+
+		Assert.notNull(catalog, "ShopCatalog must not be null!");
+
+		this.catalog = catalog;
+	}
+
+	/**
+	 * Load all listings of the catalog into the index. Changes committed meanwhile wait for the lock and are applied
+	 * afterwards, so they can't be overwritten by an older state.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	void load() {
+
+		lock.writeLock().lock();
+
+		try {
+			for (BuyableType type : BuyableType.values()) {
+				catalog.findListingsByType(type, ShopCatalog.DEFAULT_SORT).forEach(index::add);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Finds the best matching listings for the given query (see {@link SearchIndex}).
+	 *
+	 * @param query must not be {@literal null}.
+	 * @param limit maximum number of listings, at most {@value #MAX_RESULTS}.
+	 * @return the matching listings, best match first, never {@literal null}.
+	 */
+	public List<BuyableListing> search(String query, int limit) {
+
+		Assert.notNull(query, "Query must not be null!");
+
+		lock.readLock().lock();
+
+		try {
+			return index.search(query, Math.min(limit, MAX_RESULTS));
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Index the given {@link Buyable} once the current transaction has been committed.
+	 *
+	 * @param buyable must not be {@literal null}.
+	 */
+	void saved(Buyable buyable) {
+
+		BuyableListing listing = BuyableListing.of(buyable);
+
+		AfterCommit.run(() -> write(() -> index.add(listing)));
+	}
+
+	/**
+	 * Remove the given {@link Buyable} from the index once the current transaction has been committed.
+	 *
+	 * @param buyable must not be {@literal null}.
+	 */
+	void removed(Buyable buyable) {
+
+		Assert.notNull(buyable, "Buyable must not be null!");
+
+		ProductIdentifier id = buyable.getId();
+
+		AfterCommit.run(() -> write(() -> index.remove(id)));
+	}
+
+	private void write(Runnable change) {
+
+		lock.writeLock().lock();
+
+		try {
+			change.run();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+}
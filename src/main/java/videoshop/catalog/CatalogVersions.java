@@ -0,0 +1,82 @@
+package videoshop.catalog;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import videoshop.catalog.Buyable.BuyableType;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps a version of the catalog per {@link BuyableType}, which is incremented once a change to a {@link Buyable} of
+ * that type has been committed (see {@link BuyableListener}). Rendered listings are cached by version (see
+ * {@link CatalogCards}) and the version is part of the ETag of the catalog pages.
+ * <p>
+ * The versions are kept per instance, the epoch tells them apart from the versions handed out before a restart.
+ */
+@Component
+class CatalogVersions {
+
+	private final String epoch = Long.toString(System.currentTimeMillis(), Character.MAX_RADIX);
+	private final Map<BuyableType, AtomicLong> versions = new EnumMap<>(BuyableType.class);
+	private final Cache listings;
+
+	/**
+	 * Creates a new {@link CatalogVersions}
+	 *
+	 * @param cacheManager must not be {@literal null}.
+	 */
+	CatalogVersions(CacheManager cacheManager) {
+
+		Assert.notNull(cacheManager, "CacheManager must not be null!");
+
+		Cache cache = cacheManager.getCache(ShopCatalog.LISTINGS);
+		Assert.state(cache != null, "Cache " + ShopCatalog.LISTINGS + " must be configured!");
+
+		// We're called after the commit already, so the eviction must not be deferred once more
+		this.listings = cache instanceof TransactionAwareCacheDecorator
+				? ((TransactionAwareCacheDecorator) cache).getTargetCache()
+				: cache;
+
+		for (BuyableType type : BuyableType.values()) {
+			versions.put(type, new AtomicLong());
+		}
+	}
+
+	/**
+	 * Returns the current version of the {@link Buyable}s of the given type.
+	 *
+	 * @param type must not be {@literal null}.
+	 * @return the version, never {@literal null}.
+	 */
+	String getVersion(BuyableType type) {
+
+		Assert.notNull(type, "BuyableType must not be null!");
+
+		return epoch + "." + versions.get(type).get();
+	}
+
+	/**
+	 * Records a change to a {@link Buyable} of the given type. Within a transaction the version is only incremented
+	 * once the transaction has been committed, so no page can be rendered with the old state for the new version.
+	 *
+	 * @param type must not be {@literal null}.
+	 */
+	void changed(BuyableType type) {
+
+		Assert.notNull(type, "BuyableType must not be null!");
+
+		AfterCommit.run(() -> increment(type));
+	}
+
+	private void increment(BuyableType type) {
+
+		// Drop the cached listings first, otherwise the new version could be rendered from a stale listing
+		listings.clear();
+		versions.get(type).incrementAndGet();
+	}
+}
@@ -19,17 +19,22 @@ import java.io.Serializable;
 import java.time.LocalDateTime;
 
 import javax.persistence.Entity;
+import javax.persistence.FetchType;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
 import javax.persistence.Table;
 
 // (｡◕‿◕｡)
 // Eigene Entity Klasse um Kommentare für Discs zu speichern
 // Alle JPA Anforderungen erfüllt :)
 // Mit der Table-Annotation kann man u.a. den Name der Tabelle angeben, ansonsten wird der Klassennamen genommen
+// The index serves the comments of a disc newest first (see CommentRepository)
 
 @Entity
-@Table(name = "COMMENTS")
+@Table(name = "COMMENTS", indexes = @Index(name = "COMMENTS_DISC_IDX", columnList = "DISC_ID, ID"))
 public class Comment implements Serializable {
 
 	private static final long serialVersionUID = -7114101035786254953L;
@@ -39,6 +44,11 @@ public class Comment implements Serializable {
 	// werden
 	private @Id @GeneratedValue long id;
 
+	// A comment refers to its disc, so adding one is a single insert that neither loads nor updates the disc
+	@ManyToOne(fetch = FetchType.LAZY, optional = false)
+	@JoinColumn(name = "DISC_ID")
+	private Disc disc;
+
 	private String text;
 	private int rating;
 
@@ -47,8 +57,9 @@ public class Comment implements Serializable {
 	@SuppressWarnings("unused")
 	private Comment() {}
 
-	public Comment(String text, int rating, LocalDateTime dateTime) {
+	public Comment(Disc disc, String text, int rating, LocalDateTime dateTime) {
 
+		this.disc = disc;
 		this.text = text;
 		this.rating = rating;
 		this.date = dateTime;
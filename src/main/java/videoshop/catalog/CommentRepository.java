@@ -0,0 +1,47 @@
+package videoshop.catalog;
+
+import org.salespointframework.catalog.ProductIdentifier;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * Keyset paginated access to the {@link Comment}s of a {@link Disc}, newest first. A page continues strictly before
+ * the identifier of the last comment on the previous page. Comments are only ever inserted.
+ */
+interface CommentRepository extends Repository<Comment, Long> {
+
+	/**
+	 * Insert new comments
+	 *
+	 * @param comments must not be {@literal null}.
+	 * @return the saved comments
+	 */
+	Iterable<Comment> saveAll(Iterable<Comment> comments);
+
+	/**
+	 * Find the newest comments of a disc
+	 *
+	 * @param disc     identifier of the disc
+	 * @param pageable size of the page, must request the first page
+	 * @return the comments, newest first
+	 */
+	@Query("select c from Comment c where c.disc.productIdentifier = :disc order by c.id desc")
+	List<Comment> findFirstPage(@Param("disc") ProductIdentifier disc, Pageable pageable);
+
+	/**
+	 * Find the comments of a disc older than the given one
+	 *
+	 * @param disc     identifier of the disc
+	 * @param before   identifier of the last comment on the previous page
+	 * @param pageable size of the page, must request the first page
+	 * @return the comments, newest first
+	 */
+	@Query("select c from Comment c where c.disc.productIdentifier = :disc and c.id < :before "
+			+ "order by c.id desc")
+	List<Comment> findPageBefore(@Param("disc") ProductIdentifier disc, @Param("before") long before,
+			Pageable pageable);
+}
@@ -0,0 +1,125 @@
+package videoshop.catalog;
+
+import org.salespointframework.catalog.ProductIdentifier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import videoshop.catalog.DiscReviews.PendingComment;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes new {@link Comment}s through the {@link DiscReviews}, either right away or, with
+ * {@code videoshop.comments.write-behind} enabled, queued and inserted in batches in the background. Batching turns a
+ * burst of comments into a few transactions that update every affected {@link DiscRating} once.
+ * The queue is bounded: if it is full, the comment is written by the calling thread, which slows the burst down
+ * instead of losing comments. Queued comments are written on shutdown; if a batch fails, its comments are written one
+ * by one, so only the comments failing on their own are logged and dropped.
+ */
+@Component
+class CommentWriter {
+
+	static final int CAPACITY = 1000;
+	static final int BATCH_SIZE = 100;
+	static final Duration FLUSH_INTERVAL = Duration.ofMillis(200);
+
+	private static final Logger LOG = LoggerFactory.getLogger(CommentWriter.class);
+
+	private final DiscReviews reviews;
+	private final BlockingQueue<PendingComment> queue;
+	private final ScheduledExecutorService flusher;
+
+	/**
+	 * Creates a new {@link CommentWriter}
+	 *
+	 * @param reviews     must not be {@literal null}.
+	 * @param writeBehind  whether comments are queued and written in the background
+	 */
+	CommentWriter(DiscReviews reviews, @Value("${videoshop.comments.write-behind:false}") boolean writeBehind) {
+
+		Assert.notNull(reviews, "DiscReviews must not be null!");
+		this.reviews = reviews;
+		if (writeBehind) {
+			this.queue = new ArrayBlockingQueue<>(CAPACITY);
+			this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+				Thread thread = new Thread(runnable, "comment-writer");
+				thread.setDaemon(true);
+				return thread;
+			});
+			this.flusher.scheduleWithFixedDelay(this::flush, FLUSH_INTERVAL.toMillis(), FLUSH_INTERVAL.toMillis(),
+					TimeUnit.MILLISECONDS);
+		} else {
+			this.queue = null;
+			this.flusher = null;
+		}
+	}
+
+	/**
+	 * Write a comment of a disc
+	 *
+	 * @param disc   identifier of the disc, must not be {@literal null}.
+	 * @param text   text of the comment, must not be {@literal null}.
+	 * @param rating number of stars given
+	 * @param time   time of the comment, must not be {@literal null}.
+	 */
+	void write(ProductIdentifier disc, String text, int rating, LocalDateTime time) {
+		PendingComment comment = new PendingComment(disc, text, rating, time);
+		if (queue == null || !queue.offer(comment)) {
+			reviews.addComments(List.of(comment));
+		}
+	}
+
+	/**
+	 * Write all queued comments in batches of at most {@value #BATCH_SIZE}
+	 */
+	synchronized void flush() {
+		if (queue == null) {
+			return;
+		}
+		List<PendingComment> batch = new ArrayList<>(BATCH_SIZE);
+		while (queue.drainTo(batch, BATCH_SIZE) > 0) {
+			try {
+				reviews.addComments(batch);
+			} catch (RuntimeException e) {
+				LOG.warn("Writing a batch of {} comments failed, writing them one by one", batch.size(), e);
+				batch.forEach(this::writeAlone);
+			}
+			batch.clear();
+		}
+	}
+
+	/**
+	 * Write a single comment of a failed batch, dropping it if it fails on its own
+	 *
+	 * @param comment the comment to write
+	 */
+	private void writeAlone(PendingComment comment) {
+		try {
+			reviews.addComments(List.of(comment));
+		} catch (RuntimeException e) {
+			LOG.error("Dropped a comment on {} that could not be written", comment.getDisc(), e);
+		}
+	}
+
+	/**
+	 * Stop the background writer and write the comments still queued
+	 */
+	@PreDestroy
+	void shutdown() {
+		if (flusher != null) {
+			flusher.shutdown();
+			flush();
+		}
+	}
+}
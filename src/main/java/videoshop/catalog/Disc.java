@@ -17,7 +17,6 @@ package videoshop.catalog;
 
 import org.javamoney.moneta.Money;
 
-import javax.persistence.CascadeType;
 import javax.persistence.Entity;
 import javax.persistence.OneToMany;
 import java.util.ArrayList;
@@ -36,9 +35,9 @@ public class Disc extends Buyable {
 
 	// (｡◕‿◕｡)
 	// Jede Disc besitzt mehrere Kommentare, eine "1 zu n"-Beziehung -> @OneToMany für JPA
-	// cascade gibt an, was mit den Kindelementen (Comment) passieren soll wenn das Parentelement (Disc) mit der Datenbank
-	// "interagiert"
-	@OneToMany(cascade = CascadeType.ALL) //
+	// mappedBy gibt an, dass die Beziehung vom Kommentar verwaltet wird: Kommentare werden einzeln gespeichert
+	// (siehe DiscReviews), die Liste wird nur bei Bedarf geladen und beim Speichern der Disc nicht angefasst
+	@OneToMany(mappedBy = "disc") //
 	private List<Comment> comments = new ArrayList<>();
 
 	@SuppressWarnings("unused")
@@ -56,10 +55,6 @@ public class Disc extends Buyable {
 		return genre;
 	}
 
-	public void addComment(Comment comment) {
-		comments.add(comment);
-	}
-
 	// (｡◕‿◕｡)
 	// Es ist immer sinnvoll sich zu überlegen wie speziell der Rückgabetyp sein sollte
 	// Da sowies nur über die Kommentare iteriert wird, ist ein Iterable<T> das sinnvollste.
@@ -0,0 +1,138 @@
+package videoshop.catalog;
+
+import org.salespointframework.catalog.ProductIdentifier;
+import org.springframework.util.Assert;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Version;
+
+/**
+ * Running aggregate of the ratings given to a {@link Disc} in its {@link Comment}s: their number, sum and histogram.
+ * It is updated together with every comment added (see {@link DiscReviews}), so the detail page doesn't have to read
+ * all comments to show the average rating.
+ */
+@Entity
+public class DiscRating {
+
+	static final int MIN_STARS = 1;
+	static final int MAX_STARS = 5;
+
+	@Id
+	private String id;
+	private long count;
+	private long sum;
+	private long oneStar;
+	private long twoStars;
+	private long threeStars;
+	private long fourStars;
+	private long fiveStars;
+	@Version
+	private Long version;
+
+	/**
+	 * Create an empty rating of a disc
+	 *
+	 * @param disc identifier of the disc, must not be {@literal null}.
+	 */
+	DiscRating(ProductIdentifier disc) {
+		Assert.notNull(disc, "ProductIdentifier must not be null!");
+		this.id = disc.toString();
+	}
+
+	@SuppressWarnings("unused")
+	private DiscRating() { }
+
+	/**
+	 * Add a rating
+	 *
+	 * @param stars number of stars, between {@value #MIN_STARS} and {@value #MAX_STARS}
+	 */
+	void add(int stars) {
+		switch (stars) {
+			case 1:
+				oneStar++;
+				break;
+			case 2:
+				twoStars++;
+				break;
+			case 3:
+				threeStars++;
+				break;
+			case 4:
+				fourStars++;
+				break;
+			case 5:
+				fiveStars++;
+				break;
+			default:
+				throw new IllegalArgumentException("Rating must be between " + MIN_STARS + " and " + MAX_STARS + "!");
+		}
+		count++;
+		sum += stars;
+	}
+
+	public String getId() {
+		return id;
+	}
+
+	/**
+	 * Get the number of ratings
+	 *
+	 * @return number of ratings
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * Get the sum of all ratings
+	 *
+	 * @return sum of the stars given
+	 */
+	public long getSum() {
+		return sum;
+	}
+
+	/**
+	 * Get the average rating
+	 *
+	 * @return average number of stars, 0 if there are no ratings
+	 */
+	public double getAverage() {
+		return count == 0 ? 0 : (double) sum / count;
+	}
+
+	/**
+	 * Get the number of ratings with the given number of stars
+	 *
+	 * @param stars number of stars
+	 * @return number of ratings, 0 for an invalid number of stars
+	 */
+	public long getCount(int stars) {
+		switch (stars) {
+			case 1:
+				return oneStar;
+			case 2:
+				return twoStars;
+			case 3:
+				return threeStars;
+			case 4:
+				return fourStars;
+			case 5:
+				return fiveStars;
+			default:
+				return 0;
+		}
+	}
+
+	/**
+	 * Get the share of the ratings with the given number of stars
+	 *
+	 * @param stars number of stars
+	 * @return share in percent, rounded down
+	 */
+	public int getShare(int stars) {
+		return count == 0 ? 0 : (int) (getCount(stars) * 100 / count);
+	}
+}
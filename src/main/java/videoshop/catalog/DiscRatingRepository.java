@@ -0,0 +1,8 @@
+package videoshop.catalog;
+
+import org.springframework.data.repository.CrudRepository;
+
+/**
+ * Repository to access the {@link DiscRating}s by the identifier of their {@link Disc}.
+ */
+interface DiscRatingRepository extends CrudRepository<DiscRating, String> {}
@@ -0,0 +1,202 @@
+package videoshop.catalog;
+
+import org.salespointframework.catalog.ProductIdentifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+/**
+ * Adds {@link Comment}s to {@link Disc}s and reads them back page by page, newest first.
+ * Adding a comment is a plain insert referring to the disc, neither the disc nor its other comments are loaded.
+ * Every comment updates the {@link DiscRating} of its disc in the same transaction, so the aggregate always matches the
+ * stored comments. Concurrent comments on the same disc collide on the revision of the rating (or on its insertion for
+ * the first one) and are retried. Any other integrity violation, e.g. a comment on a disc removed in the meantime,
+ * fails right away.
+ */
+@Component
+class DiscReviews {
+
+	static final int PAGE_SIZE = 10;
+	static final int MAX_ATTEMPTS = 10;
+
+	private final CommentRepository comments;
+	private final DiscRatingRepository ratings;
+	private final EntityManager entityManager;
+	private final TransactionTemplate transactionTemplate;
+
+	/**
+	 * Creates a new {@link DiscReviews}
+	 *
+	 * @param comments           must not be {@literal null}.
+	 * @param ratings            must not be {@literal null}.
+	 * @param entityManager      must not be {@literal null}.
+	 * @param transactionManager must not be {@literal null}.
+	 */
+	DiscReviews(CommentRepository comments, DiscRatingRepository ratings, EntityManager entityManager,
+				PlatformTransactionManager transactionManager) {
+
+		Assert.notNull(comments, "CommentRepository must not be null!");
+		Assert.notNull(ratings, "DiscRatingRepository must not be null!");
+		Assert.notNull(entityManager, "EntityManager must not be null!");
+		Assert.notNull(transactionManager, "PlatformTransactionManager must not be null!");
+		this.comments = comments;
+		this.ratings = ratings;
+		this.entityManager = entityManager;
+		this.transactionTemplate = new TransactionTemplate(transactionManager);
+	}
+
+	/**
+	 * Add a comment to a disc and count its rating
+	 *
+	 * @param disc   identifier of the disc, must not be {@literal null}.
+	 * @param text   text of the comment, must not be {@literal null}.
+	 * @param rating number of stars given
+	 * @param time   time of the comment, must not be {@literal null}.
+	 * @throws OptimisticLockingFailureException if the rating was changed concurrently on every attempt
+	 */
+	void addComment(ProductIdentifier disc, String text, int rating, LocalDateTime time) {
+		addComments(List.of(new PendingComment(disc, text, rating, time)));
+	}
+
+	/**
+	 * Add several comments in a single transaction. The comments are inserted in one batch and every affected rating
+	 * is updated once.
+	 *
+	 * @param pending must not be {@literal null}.
+	 * @throws OptimisticLockingFailureException if a rating was changed concurrently on every attempt
+	 * @throws DataIntegrityViolationException   if a comment can't be stored at all
+	 */
+	void addComments(List<PendingComment> pending) {
+		Assert.notNull(pending, "PendingComments must not be null!");
+		if (pending.isEmpty()) {
+			return;
+		}
+		for (int attempt = 1; ; attempt++) {
+			List<String> created = new ArrayList<>();
+			try {
+				transactionTemplate.executeWithoutResult(status -> addCommentsOnce(pending, created));
+				return;
+			} catch (OptimisticLockingFailureException e) {
+				if (attempt >= MAX_ATTEMPTS) {
+					throw e;
+				}
+			} catch (DataIntegrityViolationException e) {
+				// Only a first rating inserted concurrently by someone else is worth another attempt
+				if (attempt >= MAX_ATTEMPTS || created.stream().noneMatch(ratings::existsById)) {
+					throw e;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Single attempt to add comments, to be run within a transaction. Every attempt creates new comments, so a failed
+	 * attempt leaves nothing behind.
+	 *
+	 * @param pending comments to be added
+	 * @param created collects the identifiers of the ratings created by the attempt
+	 */
+	private void addCommentsOnce(List<PendingComment> pending, List<String> created) {
+		// A reference only carries the identifier, the disc is not loaded
+		comments.saveAll(pending.stream()
+				.map(comment -> comment.toComment(entityManager.getReference(Disc.class, comment.getDisc())))
+				.collect(Collectors.toList()));
+
+		// Update the ratings in a fixed order, so concurrent batches cannot deadlock
+		Map<String, List<PendingComment>> byDisc = pending.stream()
+				.collect(Collectors.groupingBy(comment -> comment.getDisc().toString(), TreeMap::new,
+						Collectors.toList()));
+		byDisc.forEach((id, discComments) -> {
+			DiscRating rating = ratings.findById(id).orElseGet(() -> {
+				created.add(id);
+				return new DiscRating(discComments.get(0).getDisc());
+			});
+			discComments.forEach(comment -> rating.add(comment.getRating()));
+			ratings.save(rating);
+		});
+	}
+
+	/**
+	 * Find the rating of a disc
+	 *
+	 * @param disc identifier of the disc, must not be {@literal null}.
+	 * @return the rating, empty if the disc has no comments
+	 */
+	DiscRating findRating(ProductIdentifier disc) {
+		Assert.notNull(disc, "ProductIdentifier must not be null!");
+		return ratings.findById(disc.toString()).orElseGet(() -> new DiscRating(disc));
+	}
+
+	/**
+	 * Find a page of comments of a disc, newest first
+	 *
+	 * @param disc   identifier of the disc, must not be {@literal null}.
+	 * @param before identifier of the last comment on the previous page, {@literal null} for the first page
+	 * @return the page of comments
+	 */
+	Slice<Comment> findComments(ProductIdentifier disc, Long before) {
+		Assert.notNull(disc, "ProductIdentifier must not be null!");
+		PageRequest page = PageRequest.of(0, PAGE_SIZE + 1);
+		List<Comment> content = before == null
+				? comments.findFirstPage(disc, page)
+				: comments.findPageBefore(disc, before, page);
+		boolean hasNext = content.size() > PAGE_SIZE;
+		return new SliceImpl<>(hasNext ? content.subList(0, PAGE_SIZE) : content, PageRequest.of(0, PAGE_SIZE),
+				hasNext);
+	}
+
+	/**
+	 * A comment to be added to a disc. It only holds values, so it can be queued and retried.
+	 */
+	static final class PendingComment {
+
+		private final ProductIdentifier disc;
+		private final String text;
+		private final int rating;
+		private final LocalDateTime time;
+
+		/**
+		 * Create a pending comment
+		 *
+		 * @param disc   identifier of the disc, must not be {@literal null}.
+		 * @param text   text of the comment, must not be {@literal null}.
+		 * @param rating number of stars given
+		 * @param time   time of the comment, must not be {@literal null}.
+		 */
+		PendingComment(ProductIdentifier disc, String text, int rating, LocalDateTime time) {
+			Assert.notNull(disc, "ProductIdentifier must not be null!");
+			Assert.notNull(text, "Text must not be null!");
+			Assert.notNull(time, "Time must not be null!");
+			this.disc = disc;
+			this.text = text;
+			this.rating = rating;
+			this.time = time;
+		}
+
+		ProductIdentifier getDisc() {
+			return disc;
+		}
+
+		int getRating() {
+			return rating;
+		}
+
+		Comment toComment(Disc reference) {
+			return new Comment(reference, text, rating, time);
+		}
+	}
+}
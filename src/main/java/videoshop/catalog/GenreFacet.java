@@ -0,0 +1,58 @@
+package videoshop.catalog;
+
+import org.springframework.util.Assert;
+
+import java.util.List;
+
+/**
+ * A genre to filter the discs of the catalog by, together with the number of discs matching it in addition to the
+ * genres already selected.
+ */
+public class GenreFacet {
+
+	private final String key;
+	private final String label;
+	private final int count;
+	private final boolean selected;
+	private final List<String> toggled;
+
+	/**
+	 * Create a new instance
+	 *
+	 * @param key      normalised name of the genre
+	 * @param label    name of the genre as shown
+	 * @param count    number of discs matching the selection including this genre
+	 * @param selected whether this genre is part of the selection
+	 * @param toggled  selection with this genre added or removed
+	 */
+	GenreFacet(String key, String label, int count, boolean selected, List<String> toggled) {
+		Assert.notNull(key, "Key must not be null!");
+		Assert.notNull(label, "Label must not be null!");
+		Assert.notNull(toggled, "Toggled selection must not be null!");
+		this.key = key;
+		this.label = label;
+		this.count = count;
+		this.selected = selected;
+		this.toggled = toggled;
+	}
+
+	public String getKey() {
+		return key;
+	}
+
+	public String getLabel() {
+		return label;
+	}
+
+	public int getCount() {
+		return count;
+	}
+
+	public boolean isSelected() {
+		return selected;
+	}
+
+	public List<String> getToggled() {
+		return toggled;
+	}
+}
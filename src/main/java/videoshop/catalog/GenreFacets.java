@@ -0,0 +1,340 @@
+package videoshop.catalog;
+
+import org.salespointframework.catalog.ProductIdentifier;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import videoshop.catalog.Buyable.BuyableType;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * Facet index over the genres of the {@link Disc}s. {@link Disc#getGenre()} is a slash separated list, every genre in
+ * it is normalised and mapped to the set of discs carrying it. Discs are numbered densely, numbers of removed discs
+ * are reused, so the sets are kept as {@link BitSet}s of about one bit per disc. Filtering by several genres and
+ * counting the discs per genre are intersections of these sets instead of scans of the database. Next to the sets the
+ * disc numbers are kept in the order of {@link ShopCatalog#DEFAULT_SORT}, so a page is found by walking that order
+ * from where the previous page ended until it is full.
+ * <p>
+ * The index is loaded once the application is ready and kept up to date by the {@link BuyableListener}, changes are
+ * applied once they have been committed. It is kept per instance.
+ */
+@Component
+class GenreFacets {
+
+	private final ShopCatalog catalog;
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Map<ProductIdentifier, Integer> numbers = new HashMap<>();
+	private final NavigableMap<String, Integer> sorted = new TreeMap<>();
+	private final List<BuyableListing> listings = new ArrayList<>();
+	private final Deque<Integer> unused = new ArrayDeque<>();
+	private final Map<BuyableType, BitSet> types = new EnumMap<>(BuyableType.class);
+	private final Map<String, BitSet> genres = new TreeMap<>();
+	private final Map<String, String> labels = new HashMap<>();
+
+	/**
+	 * Creates a new {@link GenreFacets}
+	 *
+	 * @param catalog must not be {@literal null}.
+	 */
+	GenreFacets(ShopCatalog catalog) {
+
+		Assert.notNull(catalog, "ShopCatalog must not be null!");
+
+		this.catalog = catalog;
+
+		Arrays.stream(BuyableType.values()).forEach(type -> types.put(type, new BitSet()));
+	}
+
+	/**
+	 * Load all discs of the catalog into the index. Changes committed meanwhile wait for the lock and are applied
+	 * afterwards.
+	 */
+	@EventListener(ApplicationReadyEvent.class)
+	void load() {
+
+		write(() -> {
+			catalog.findListingsByType(BuyableType.DVD, ShopCatalog.DEFAULT_SORT).forEach(this::add);
+			catalog.findListingsByType(BuyableType.BLURAY, ShopCatalog.DEFAULT_SORT).forEach(this::add);
+		});
+	}
+
+	/**
+	 * Returns the normalised keys of the given genres, sorted and without duplicates.
+	 *
+	 * @param genres can be {@literal null}.
+	 * @return the keys, never {@literal null}.
+	 */
+	static List<String> keys(Collection<String> genres) {
+
+		if (genres == null) {
+			return List.of();
+		}
+
+		return genres.stream() //
+				.filter(Objects::nonNull) //
+				.flatMap(genre -> Arrays.stream(genre.split("/"))) //
+				.map(GenreFacets::key) //
+				.filter(key -> !key.isEmpty()) //
+				.distinct() //
+				.sorted() //
+				.collect(Collectors.toList());
+	}
+
+	/**
+	 * Find a page of the listings of the given type carrying all of the given genres, in the order of
+	 * {@link ShopCatalog#DEFAULT_SORT}.
+	 *
+	 * @param type   must not be {@literal null}.
+	 * @param genres normalised keys of the genres (see {@link #keys(Collection)}), must not be {@literal null}.
+	 * @param after  identifier of the last listing on the previous page, {@literal null} for the first page.
+	 * @return the page of listings
+	 */
+	Slice<BuyableListing> findDiscs(BuyableType type, List<String> genres, String after) {
+
+		Assert.notNull(type, "BuyableType must not be null!");
+		Assert.notNull(genres, "Genres must not be null!");
+
+		List<BuyableListing> content = read(() -> {
+
+			BitSet selection = selection(type, genres);
+			List<BuyableListing> page = new ArrayList<>(CatalogPages.PAGE_SIZE + 1);
+
+			// Descending by identifier, starting right after the last listing of the previous page
+			for (int number : (after == null ? sorted : sorted.headMap(after, false)).descendingMap().values()) {
+
+				if (!selection.get(number)) {
+					continue;
+				}
+
+				page.add(listings.get(number));
+
+				if (page.size() > CatalogPages.PAGE_SIZE) {
+					break;
+				}
+			}
+
+			return page;
+		});
+
+		boolean hasNext = content.size() > CatalogPages.PAGE_SIZE;
+
+		return new SliceImpl<>(hasNext ? content.subList(0, CatalogPages.PAGE_SIZE) : content,
+				PageRequest.of(0, CatalogPages.PAGE_SIZE), hasNext);
+	}
+
+	/**
+	 * Returns the genres of the listings of the given type carrying all of the given genres, with the number of those
+	 * listings carrying each of them. Selected genres are always included.
+	 *
+	 * @param type   must not be {@literal null}.
+	 * @param genres normalised keys of the selected genres, must not be {@literal null}.
+	 * @return the facets ordered by their key, never {@literal null}.
+	 */
+	List<GenreFacet> count(BuyableType type, List<String> genres) {
+
+		Assert.notNull(type, "BuyableType must not be null!");
+		Assert.notNull(genres, "Genres must not be null!");
+
+		return read(() -> {
+
+			BitSet selection = selection(type, genres);
+			BitSet intersection = new BitSet();
+			List<GenreFacet> facets = new ArrayList<>();
+
+			genres.stream() //
+					.filter(key -> !this.genres.containsKey(key)) //
+					.forEach(key -> facets.add(facet(key, 0, genres)));
+
+			this.genres.forEach((key, bits) -> {
+
+				intersection.clear();
+				intersection.or(selection);
+				intersection.and(bits);
+
+				int count = intersection.cardinality();
+
+				if (count > 0 || genres.contains(key)) {
+					facets.add(facet(key, count, genres));
+				}
+			});
+
+			facets.sort(Comparator.comparing(GenreFacet::getKey));
+
+			return facets;
+		});
+	}
+
+	/**
+	 * Index the given {@link Buyable} once the current transaction has been committed.
+	 *
+	 * @param buyable must not be {@literal null}.
+	 */
+	void saved(Buyable buyable) {
+
+		BuyableListing listing = BuyableListing.of(buyable);
+
+		AfterCommit.run(() -> write(() -> add(listing)));
+	}
+
+	/**
+	 * Remove the given {@link Buyable} from the index once the current transaction has been committed.
+	 *
+	 * @param buyable must not be {@literal null}.
+	 */
+	void removed(Buyable buyable) {
+
+		Assert.notNull(buyable, "Buyable must not be null!");
+
+		ProductIdentifier id = buyable.getId();
+
+		AfterCommit.run(() -> write(() -> remove(id)));
+	}
+
+	private void add(BuyableListing listing) {
+
+		remove(listing.getId());
+
+		if (!listing.isDisc()) {
+			return;
+		}
+
+		int number = unused.isEmpty() ? listings.size() : unused.pop();
+
+		if (number == listings.size()) {
+			listings.add(listing);
+		} else {
+			listings.set(number, listing);
+		}
+
+		numbers.put(listing.getId(), number);
+		sorted.put(listing.getId().toString(), number);
+		types.get(listing.getType()).set(number);
+
+		for (String label : labels(listing)) {
+			String key = key(label);
+			genres.computeIfAbsent(key, it -> new BitSet()).set(number);
+			labels.putIfAbsent(key, label);
+		}
+	}
+
+	private void remove(ProductIdentifier id) {
+
+		Integer number = numbers.remove(id);
+
+		if (number == null) {
+			return;
+		}
+
+		sorted.remove(id.toString());
+		BuyableListing listing = listings.set(number, null);
+		types.get(listing.getType()).clear(number);
+
+		for (String label : labels(listing)) {
+			String key = key(label);
+			BitSet bits = genres.get(key);
+			if (bits == null) {
+				continue;
+			}
+			bits.clear(number);
+			if (bits.isEmpty()) {
+				genres.remove(key);
+				labels.remove(key);
+			}
+		}
+
+		unused.push(number);
+	}
+
+	private BitSet selection(BuyableType type, List<String> keys) {
+
+		BitSet selection = (BitSet) types.get(type).clone();
+
+		for (String key : keys) {
+			BitSet bits = genres.get(key);
+			if (bits == null) {
+				selection.clear();
+				break;
+			}
+			selection.and(bits);
+		}
+
+		return selection;
+	}
+
+	private GenreFacet facet(String key, int count, List<String> selected) {
+
+		boolean isSelected = selected.contains(key);
+		List<String> toggled = new ArrayList<>(selected);
+
+		if (isSelected) {
+			toggled.remove(key);
+		} else {
+			toggled.add(key);
+			toggled.sort(null);
+		}
+
+		return new GenreFacet(key, labels.getOrDefault(key, key), count, isSelected, toggled);
+	}
+
+	private static List<String> labels(BuyableListing listing) {
+
+		if (listing.getGenre() == null) {
+			return List.of();
+		}
+
+		return Arrays.stream(listing.getGenre().split("/")) //
+				.map(String::trim) //
+				.filter(label -> !label.isEmpty()) //
+				.distinct() //
+				.collect(Collectors.toList());
+	}
+
+	private static String key(String genre) {
+		return genre.trim().toLowerCase(Locale.ROOT);
+	}
+
+	private <T> T read(Supplier<T> query) {
+
+		lock.readLock().lock();
+
+		try {
+			return query.get();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void write(Runnable change) {
+
+		lock.writeLock().lock();
+
+		try {
+			change.run();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+}
@@ -0,0 +1,93 @@
+package videoshop.catalog;
+
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Search page and JSON endpoint on top of the {@link CatalogSearch}.
+ */
+@Controller
+class SearchController {
+
+	static final int DEFAULT_LIMIT = 20;
+
+	private final CatalogSearch search;
+
+	/**
+	 * Creates a new {@link SearchController}
+	 *
+	 * @param search must not be {@literal null}.
+	 */
+	SearchController(CatalogSearch search) {
+
+		Assert.notNull(search, "CatalogSearch must not be null!");
+
+		this.search = search;
+	}
+
+	@GetMapping("/search")
+	String search(@RequestParam(value = "q", defaultValue = "") String query, Model model) {
+
+		model.addAttribute("query", query);
+		model.addAttribute("results", search.search(query, DEFAULT_LIMIT));
+
+		return "search";
+	}
+
+	@GetMapping(path = "/api/search", produces = MediaType.APPLICATION_JSON_VALUE)
+	@ResponseBody
+	List<SearchResult> searchJson(@RequestParam("q") String query,
+			@RequestParam(value = "limit", defaultValue = "" + DEFAULT_LIMIT) int limit) {
+
+		return search.search(query, limit).stream().map(SearchResult::new).collect(Collectors.toList());
+	}
+
+	/**
+	 * A single search result as rendered to JSON.
+	 */
+	static class SearchResult {
+
+		private final BuyableListing listing;
+
+		SearchResult(BuyableListing listing) {
+			this.listing = listing;
+		}
+
+		public String getId() {
+			return listing.getId().toString();
+		}
+
+		public String getName() {
+			return listing.getName();
+		}
+
+		public String getType() {
+			return listing.getType().name();
+		}
+
+		public BigDecimal getPrice() {
+			return listing.getPrice().getNumber().numberValue(BigDecimal.class);
+		}
+
+		public String getCurrency() {
+			return listing.getPrice().getCurrency().getCurrencyCode();
+		}
+
+		public String getImage() {
+			return listing.getImage();
+		}
+
+		public String getGenre() {
+			return listing.getGenre();
+		}
+	}
+}
@@ -0,0 +1,364 @@
+package videoshop.catalog;
+
+import org.salespointframework.catalog.ProductIdentifier;
+import org.springframework.util.Assert;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index over the names and genres of {@link BuyableListing}s.
+ * <p>
+ * Every term maps to the ascending document numbers containing it. A query matches the documents containing every
+ * one of its terms, either exactly, as a prefix or with a single typo (one character inserted, deleted, replaced or
+ * two adjacent ones swapped). Typos are found through the deletion neighbourhood of the terms, so no term has to be
+ * compared to the query one by one. Documents are ranked by the sum of the best match of each query term, matches in
+ * the name counting twice as much as those in the genre.
+ * <p>
+ * Changed documents are added again under a new number, the old number is just marked as removed. Once more numbers
+ * are removed than in use, the index is rebuilt. Instances are not thread-safe, see {@link CatalogSearch}.
+ */
+class SearchIndex {
+
+	static final int EXACT = 4;
+	static final int PREFIX = 2;
+	static final int TYPO = 1;
+	static final int NAME = 2;
+	static final int GENRE = 1;
+	static final int MIN_PREFIX_LENGTH = 2;
+	static final int MIN_TYPO_LENGTH = 4;
+	static final int MAX_EXPANSIONS = 64;
+
+	private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{Nd}]+");
+	private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+
+	private final Map<String, Postings> postings = new HashMap<>();
+	private final NavigableSet<String> terms = new TreeSet<>();
+	private final Map<String, List<String>> deletions = new HashMap<>();
+	private final List<BuyableListing> documents = new ArrayList<>();
+	private final Map<ProductIdentifier, Integer> numbers = new HashMap<>();
+	private int removed;
+
+	/**
+	 * Adds the given listing to the index, replacing an earlier version of it.
+	 *
+	 * @param listing must not be {@literal null}.
+	 */
+	void add(BuyableListing listing) {
+
+		Assert.notNull(listing, "BuyableListing must not be null!");
+
+		remove(listing.getId());
+
+		int number = documents.size();
+		documents.add(listing);
+		numbers.put(listing.getId(), number);
+
+		Map<String, Integer> weights = new HashMap<>();
+		tokenize(listing.getName()).forEach(term -> weights.merge(term, NAME, Math::max));
+		tokenize(listing.getGenre()).forEach(term -> weights.merge(term, GENRE, Math::max));
+		weights.forEach((term, weight) -> postingsOf(term).add(number, weight));
+	}
+
+	/**
+	 * Removes the listing with the given identifier from the index, if present.
+	 *
+	 * @param id must not be {@literal null}.
+	 */
+	void remove(ProductIdentifier id) {
+
+		Assert.notNull(id, "ProductIdentifier must not be null!");
+
+		Integer number = numbers.remove(id);
+
+		if (number == null) {
+			return;
+		}
+
+		documents.set(number, null);
+
+		if (++removed > numbers.size()) {
+			rebuild();
+		}
+	}
+
+	/**
+	 * Returns the number of listings in the index.
+	 *
+	 * @return the number of listings
+	 */
+	int size() {
+		return numbers.size();
+	}
+
+	/**
+	 * Finds the best matching listings for the given query.
+	 *
+	 * @param query must not be {@literal null}.
+	 * @param limit maximum number of listings to return
+	 * @return the matching listings, best match first, never {@literal null}.
+	 */
+	List<BuyableListing> search(String query, int limit) {
+
+		Assert.notNull(query, "Query must not be null!");
+
+		List<List<Match>> matches = tokenize(query).distinct().map(this::matches).collect(Collectors.toList());
+
+		if (matches.isEmpty() || limit <= 0 || matches.stream().anyMatch(List::isEmpty)) {
+			return List.of();
+		}
+
+		// Start with the most selective term, the others only have to be looked up for its documents
+		matches.sort(Comparator.comparingLong(SearchIndex::postingsSize));
+
+		Map<Integer, Integer> scores = new HashMap<>();
+
+		for (Match match : matches.get(0)) {
+			Postings candidates = match.postings;
+			for (int i = 0; i < candidates.size; i++) {
+				if (documents.get(candidates.numbers[i]) != null) {
+					scores.merge(candidates.numbers[i], match.weight * candidates.weights[i], Math::max);
+				}
+			}
+		}
+
+		for (List<Match> term : matches.subList(1, matches.size())) {
+			for (Iterator<Map.Entry<Integer, Integer>> iterator = scores.entrySet().iterator(); iterator.hasNext(); ) {
+				Map.Entry<Integer, Integer> entry = iterator.next();
+				int best = 0;
+				for (Match match : term) {
+					best = Math.max(best, match.score(entry.getKey()));
+				}
+				if (best == 0) {
+					iterator.remove();
+				} else {
+					entry.setValue(entry.getValue() + best);
+				}
+			}
+		}
+
+		return top(scores, limit);
+	}
+
+	/**
+	 * Splits the given text into lower case terms without diacritics.
+	 *
+	 * @param text can be {@literal null}.
+	 * @return the terms, never {@literal null}.
+	 */
+	static Stream<String> tokenize(String text) {
+
+		if (text == null) {
+			return Stream.empty();
+		}
+
+		String normalized = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("");
+
+		return SEPARATORS.splitAsStream(normalized.toLowerCase(Locale.ROOT)).filter(term -> !term.isEmpty());
+	}
+
+	/**
+	 * Checks whether the given terms differ by at most one insertion, deletion, substitution or transposition of
+	 * adjacent characters.
+	 */
+	static boolean withinOneEdit(String left, String right) {
+
+		int leftLength = left.length();
+		int rightLength = right.length();
+
+		if (Math.abs(leftLength - rightLength) > 1) {
+			return false;
+		}
+
+		int common = 0;
+		while (common < leftLength && common < rightLength && left.charAt(common) == right.charAt(common)) {
+			common++;
+		}
+
+		if (leftLength > rightLength) {
+			return left.regionMatches(common + 1, right, common, rightLength - common);
+		}
+
+		if (leftLength < rightLength) {
+			return right.regionMatches(common + 1, left, common, leftLength - common);
+		}
+
+		if (common == leftLength || left.regionMatches(common + 1, right, common + 1, leftLength - common - 1)) {
+			return true;
+		}
+
+		return common + 1 < leftLength //
+				&& left.charAt(common) == right.charAt(common + 1) //
+				&& left.charAt(common + 1) == right.charAt(common) //
+				&& left.regionMatches(common + 2, right, common + 2, leftLength - common - 2);
+	}
+
+	private List<Match> matches(String term) {
+
+		List<Match> result = new ArrayList<>();
+		Postings exact = postings.get(term);
+
+		if (exact != null) {
+			result.add(new Match(exact, EXACT));
+		}
+
+		if (term.length() >= MIN_PREFIX_LENGTH) {
+			terms.subSet(term, false, term + Character.MAX_VALUE, false).stream() //
+					.limit(MAX_EXPANSIONS) //
+					.forEach(candidate -> result.add(new Match(postings.get(candidate), PREFIX)));
+		}
+
+		if (term.length() >= MIN_TYPO_LENGTH) {
+			typoCandidates(term).stream() //
+					.filter(candidate -> !candidate.startsWith(term) && withinOneEdit(term, candidate)) //
+					.forEach(candidate -> result.add(new Match(postings.get(candidate), TYPO)));
+		}
+
+		return result;
+	}
+
+	private Set<String> typoCandidates(String term) {
+
+		Set<String> candidates = new LinkedHashSet<>(deletions.getOrDefault(term, List.of()));
+
+		for (int i = 0; i < term.length(); i++) {
+			String deletion = deletion(term, i);
+			if (postings.containsKey(deletion)) {
+				candidates.add(deletion);
+			}
+			candidates.addAll(deletions.getOrDefault(deletion, List.of()));
+		}
+
+		return candidates;
+	}
+
+	private Postings postingsOf(String term) {
+
+		return postings.computeIfAbsent(term, key -> {
+
+			terms.add(key);
+
+			if (key.length() >= MIN_TYPO_LENGTH) {
+				for (int i = 0; i < key.length(); i++) {
+					deletions.computeIfAbsent(deletion(key, i), deletion -> new ArrayList<>(1)).add(key);
+				}
+			}
+
+			return new Postings();
+		});
+	}
+
+	private List<BuyableListing> top(Map<Integer, Integer> scores, int limit) {
+
+		Comparator<Map.Entry<Integer, Integer>> ranking = Comparator
+				.comparing((Map.Entry<Integer, Integer> entry) -> entry.getValue()) //
+				.thenComparing(entry -> -nameLength(entry.getKey())) //
+				.thenComparing(entry -> documents.get(entry.getKey()).getName(),
+						Comparator.nullsFirst(Comparator.reverseOrder()));
+
+		PriorityQueue<Map.Entry<Integer, Integer>> best = new PriorityQueue<>(ranking);
+
+		for (Map.Entry<Integer, Integer> entry : scores.entrySet()) {
+			best.add(entry);
+			if (best.size() > limit) {
+				best.poll();
+			}
+		}
+
+		List<Map.Entry<Integer, Integer>> ranked = new ArrayList<>(best);
+		ranked.sort(ranking.reversed());
+
+		return ranked.stream().map(entry -> documents.get(entry.getKey())).collect(Collectors.toList());
+	}
+
+	private int nameLength(int number) {
+
+		String name = documents.get(number).getName();
+
+		return name == null ? 0 : name.length();
+	}
+
+	private void rebuild() {
+
+		List<BuyableListing> live = documents.stream().filter(Objects::nonNull).collect(Collectors.toList());
+
+		postings.clear();
+		terms.clear();
+		deletions.clear();
+		documents.clear();
+		numbers.clear();
+		removed = 0;
+
+		live.forEach(this::add);
+	}
+
+	private static String deletion(String term, int index) {
+		return term.substring(0, index) + term.substring(index + 1);
+	}
+
+	private static long postingsSize(List<Match> matches) {
+		return matches.stream().mapToLong(match -> match.postings.size).sum();
+	}
+
+	/**
+	 * Ascending document numbers of a term together with the weight of the field the term occurs in.
+	 */
+	private static class Postings {
+
+		private int[] numbers = new int[2];
+		private byte[] weights = new byte[2];
+		private int size;
+
+		void add(int number, int weight) {
+
+			if (size == numbers.length) {
+				numbers = Arrays.copyOf(numbers, size * 2);
+				weights = Arrays.copyOf(weights, size * 2);
+			}
+
+			numbers[size] = number;
+			weights[size++] = (byte) weight;
+		}
+
+		int weightOf(int number) {
+
+			int index = Arrays.binarySearch(numbers, 0, size, number);
+
+			return index < 0 ? 0 : weights[index];
+		}
+	}
+
+	/**
+	 * A term of the index matching a term of the query.
+	 */
+	private static class Match {
+
+		private final Postings postings;
+		private final int weight;
+
+		Match(Postings postings, int weight) {
+			this.postings = postings;
+			this.weight = weight;
+		}
+
+		int score(int number) {
+			return weight * postings.weightOf(number);
+		}
+	}
+}
@@ -16,17 +16,35 @@
 package videoshop.catalog;
 
 import org.salespointframework.catalog.Catalog;
+import org.salespointframework.catalog.ProductIdentifier;
+import org.springframework.cache.annotation.CacheConfig;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import videoshop.catalog.Buyable.BuyableType;
 
+import javax.money.MonetaryAmount;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
 /**
  * An extension of {@link Catalog} to add video shop specific query methods.
+ * <p>
+ * The pages of listings served by the catalog pages (see {@link CatalogPages}) are cached in the {@value #LISTINGS}
+ * cache (see {@link CatalogCacheConfiguration}), keyed by the query and its parameters. Every method writing to the
+ * catalog evicts it.
  *
  * @author Oliver Gierke
  */
+@CacheConfig(cacheNames = ShopCatalog.LISTINGS)
 public interface ShopCatalog extends Catalog<Buyable> {
 
 	static final Sort DEFAULT_SORT = Sort.by("productIdentifier").descending();
+	static final String LISTINGS = "catalog.listings";
 
 	/**
 	 * Returns all {@link Buyable}s by type ordered by the given {@link Sort}.
@@ -37,6 +55,86 @@ public interface ShopCatalog extends Catalog<Buyable> {
 	 */
 	Iterable<Buyable> findByType(BuyableType type, Sort sort);
 
+	/**
+	 * Returns listings of all {@link Buyable}s by type ordered by the given {@link Sort}. Only the columns shown in a
+	 * listing are selected.
+	 *
+	 * @param type must not be {@literal null}.
+	 * @param sort must not be {@literal null}.
+	 * @return the listings of the given type, never {@literal null}.
+	 */
+	default List<BuyableListing> findListingsByType(BuyableType type, Sort sort) {
+		return type == BuyableType.VOUCHER ? findBuyableListingsByType(type, sort) : findDiscListingsByType(type, sort);
+	}
+
+	@Query("select new videoshop.catalog.BuyableListing(d.productIdentifier, d.name, d.price, d.type, d.image, d.genre) "
+			+ "from Disc d where d.type = :type")
+	List<BuyableListing> findDiscListingsByType(@Param("type") BuyableType type, Sort sort);
+
+	@Query("select new videoshop.catalog.BuyableListing(b.productIdentifier, b.name, b.price, b.type) "
+			+ "from Buyable b where b.type = :type")
+	List<BuyableListing> findBuyableListingsByType(@Param("type") BuyableType type, Sort sort);
+
+	/**
+	 * Returns the first page of {@link Disc} listings by type in the order of {@link #DEFAULT_SORT}.
+	 *
+	 * @param type     must not be {@literal null}.
+	 * @param pageable size of the page, must request the first page.
+	 * @return the listings of the page, never {@literal null}.
+	 */
+	@Cacheable(key = "{'first-discs', #p0, #p1}")
+	@Query("select new videoshop.catalog.BuyableListing(d.productIdentifier, d.name, d.price, d.type, d.image, d.genre) "
+			+ "from Disc d where d.type = :type order by d.productIdentifier.id desc")
+	List<BuyableListing> findFirstDiscListings(@Param("type") BuyableType type, Pageable pageable);
+
+	/**
+	 * Returns a page of {@link Disc} listings by type in the order of {@link #DEFAULT_SORT}. The page continues strictly
+	 * after the identifier of the last listing on the previous page, so the database seeks into the
+	 * {@code PRODUCT_TYPE_ID_IDX} index (see {@code data.sql}) instead of skipping an offset.
+	 *
+	 * @param type     must not be {@literal null}.
+	 * @param after    identifier of the last listing on the previous page, must not be {@literal null}.
+	 * @param pageable size of the page, must request the first page.
+	 * @return the listings of the page, never {@literal null}.
+	 */
+	@Cacheable(key = "{'discs-after', #p0, #p1, #p2}")
+	@Query("select new videoshop.catalog.BuyableListing(d.productIdentifier, d.name, d.price, d.type, d.image, d.genre) "
+			+ "from Disc d where d.type = :type and d.productIdentifier.id < :after "
+			+ "order by d.productIdentifier.id desc")
+	List<BuyableListing> findDiscListingsAfter(@Param("type") BuyableType type, @Param("after") String after,
+			Pageable pageable);
+
+	/**
+	 * Returns the first page of {@link Buyable} listings by type, ordered by price and identifier.
+	 *
+	 * @param type     must not be {@literal null}.
+	 * @param pageable size of the page, must request the first page.
+	 * @return the listings of the page, never {@literal null}.
+	 */
+	@Cacheable(key = "{'first-buyables', #p0, #p1}")
+	@Query("select new videoshop.catalog.BuyableListing(b.productIdentifier, b.name, b.price, b.type) "
+			+ "from Buyable b where b.type = :type order by b.price asc, b.productIdentifier.id asc")
+	List<BuyableListing> findFirstBuyableListings(@Param("type") BuyableType type, Pageable pageable);
+
+	/**
+	 * Returns a page of {@link Buyable} listings by type, ordered by price and identifier. The page continues strictly
+	 * after the price and identifier of the last listing on the previous page (see {@code PRODUCT_TYPE_PRICE_IDX} in
+	 * {@code data.sql}).
+	 *
+	 * @param type     must not be {@literal null}.
+	 * @param price    price of the last listing on the previous page, must not be {@literal null}.
+	 * @param after    identifier of the last listing on the previous page, must not be {@literal null}.
+	 * @param pageable size of the page, must request the first page.
+	 * @return the listings of the page, never {@literal null}.
+	 */
+	@Cacheable(key = "{'buyables-after', #p0, #p1, #p2, #p3}")
+	@Query("select new videoshop.catalog.BuyableListing(b.productIdentifier, b.name, b.price, b.type) "
+			+ "from Buyable b where b.type = :type "
+			+ "and (b.price > :price or (b.price = :price and b.productIdentifier.id > :after)) "
+			+ "order by b.price asc, b.productIdentifier.id asc")
+	List<BuyableListing> findBuyableListingsAfter(@Param("type") BuyableType type,
+			@Param("price") MonetaryAmount price, @Param("after") String after, Pageable pageable);
+
 	/**
 	 * Returns all {@link Disc}s by type ordered by their identifier.
 	 *
@@ -46,4 +144,57 @@ public interface ShopCatalog extends Catalog<Buyable> {
 	default Iterable<Buyable> findByType(BuyableType type) {
 		return findByType(type, DEFAULT_SORT);
 	}
+
+	/**
+	 * Returns the identifiers of all {@link Buyable}s with unlimited stock.
+	 *
+	 * @return the identifiers, never {@literal null}.
+	 * @see Buyable#hasUnlimitedStock()
+	 */
+	@Query("select b.productIdentifier from Buyable b where b.unlimitedStock = true")
+	List<ProductIdentifier> findUnlimitedStock();
+
+	/**
+	 * Returns the identifiers of all {@link Buyable}s with unlimited stock as a set, cached until the catalog changes,
+	 * so checking an order line for one doesn't need a query. As the cache is kept per instance, it may miss products
+	 * added on another instance, but a product never gains unlimited stock, so every identifier in it is right.
+	 *
+	 * @return the identifiers, never {@literal null}.
+	 */
+	@Cacheable(key = "'unlimited'")
+	default Set<ProductIdentifier> findUnlimitedStockIds() {
+		return new HashSet<>(findUnlimitedStock());
+	}
+
+	/**
+	 * Returns whether the {@link Buyable} with the given identifier is in the catalog and kept in stock.
+	 *
+	 * @param id must not be {@literal null}.
+	 * @return whether the product is kept in stock.
+	 */
+	boolean existsByProductIdentifierAndUnlimitedStockFalse(ProductIdentifier id);
+
+	@Override
+	@CacheEvict(allEntries = true)
+	<S extends Buyable> S save(S entity);
+
+	@Override
+	@CacheEvict(allEntries = true)
+	<S extends Buyable> Iterable<S> saveAll(Iterable<S> entities);
+
+	@Override
+	@CacheEvict(allEntries = true)
+	void deleteById(ProductIdentifier id);
+
+	@Override
+	@CacheEvict(allEntries = true)
+	void delete(Buyable entity);
+
+	@Override
+	@CacheEvict(allEntries = true)
+	void deleteAll(Iterable<? extends Buyable> entities);
+
+	@Override
+	@CacheEvict(allEntries = true)
+	void deleteAll();
 }
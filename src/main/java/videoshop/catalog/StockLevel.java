@@ -0,0 +1,28 @@
+package videoshop.catalog;
+
+import java.math.BigDecimal;
+
+/**
+ * Availability of a {@link Buyable} as shown on the badges of the catalog cards (see {@link StockLevels}).
+ */
+public enum StockLevel {
+
+	IN_STOCK, LOW_STOCK, SOLD_OUT;
+
+	static final BigDecimal LOW_STOCK_THRESHOLD = BigDecimal.valueOf(3);
+
+	/**
+	 * Returns the level of the given quantity in stock.
+	 *
+	 * @param amount quantity in stock, {@literal null} if the product is not kept in the inventory.
+	 * @return the level, never {@literal null}.
+	 */
+	static StockLevel of(BigDecimal amount) {
+
+		if (amount == null || amount.signum() <= 0) {
+			return SOLD_OUT;
+		}
+
+		return amount.compareTo(LOW_STOCK_THRESHOLD) <= 0 ? LOW_STOCK : IN_STOCK;
+	}
+}
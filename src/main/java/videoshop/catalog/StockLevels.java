@@ -0,0 +1,125 @@
+package videoshop.catalog;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.salespointframework.catalog.ProductIdentifier;
+import org.salespointframework.inventory.UniqueInventoryItem;
+import org.salespointframework.order.Order;
+import org.salespointframework.order.OrderEvents.OrderCompleted;
+import org.salespointframework.order.OrderLine;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.util.Assert;
+import videoshop.catalog.Buyable.BuyableType;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import java.math.BigDecimal;
+import java.util.Collection;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Resolves the {@link StockLevel}s of whole pages of {@link Buyable}s with a single query against the
+ * {@link UniqueInventoryItem}s, instead of one lookup per product.
+ * <p>
+ * The levels are cached as long as the rendered cards showing them (see {@link CatalogCards}). Once an {@link Order}
+ * has been completed, the levels of its products are read again and, if one of them changed, the catalog of its type
+ * gets a new version (see {@link CatalogVersions}), so no card keeps showing an outdated badge.
+ */
+@Component
+class StockLevels {
+
+	static final int MAXIMUM_SIZE = 10_000;
+
+	private static final String QUANTITIES = "select i.product.productIdentifier.id as id, i.quantity.amount as amount "
+			+ "from UniqueInventoryItem i where i.product.productIdentifier.id in :ids";
+
+	private final EntityManager entityManager;
+	private final ShopCatalog catalog;
+	private final CatalogVersions versions;
+	private final Cache<ProductIdentifier, StockLevel> levels;
+
+	/**
+	 * Creates a new {@link StockLevels}
+	 *
+	 * @param entityManager must not be {@literal null}.
+	 * @param catalog       must not be {@literal null}.
+	 * @param versions      must not be {@literal null}.
+	 */
+	StockLevels(EntityManager entityManager, ShopCatalog catalog, CatalogVersions versions) {
+
+		Assert.notNull(entityManager, "EntityManager must not be null!");
+		Assert.notNull(catalog, "ShopCatalog must not be null!");
+		Assert.notNull(versions, "CatalogVersions must not be null!");
+
+		this.entityManager = entityManager;
+		this.catalog = catalog;
+		this.versions = versions;
+		this.levels = Caffeine.newBuilder() //
+				.maximumSize(MAXIMUM_SIZE) //
+				.expireAfterWrite(CatalogCacheConfiguration.TIME_TO_LIVE) //
+				.build();
+	}
+
+	/**
+	 * Returns the {@link StockLevel}s of the given products. Products not cached yet are looked up in a single query.
+	 *
+	 * @param products must not be {@literal null}.
+	 * @return the levels of all given products, products not kept in the inventory are sold out.
+	 */
+	Map<ProductIdentifier, StockLevel> findLevels(Collection<ProductIdentifier> products) {
+
+		Assert.notNull(products, "Products must not be null!");
+
+		return levels.getAll(products, this::query);
+	}
+
+	/**
+	 * Reads the levels of the products of a completed order again, once the order has been committed.
+	 *
+	 * @param event published by Salespoint
+	 */
+	@TransactionalEventListener(fallbackExecution = true)
+	void on(OrderCompleted event) {
+
+		Set<ProductIdentifier> products = event.getOrder().getOrderLines().stream() //
+				.map(OrderLine::getProductIdentifier) //
+				.collect(Collectors.toSet());
+
+		// A level which isn't cached anymore may still be shown by a cached card, so it counts as changed
+		Map<ProductIdentifier, StockLevel> previous = levels.getAllPresent(products);
+		Map<ProductIdentifier, StockLevel> current = query(products);
+		levels.putAll(current);
+
+		Set<BuyableType> changed = EnumSet.noneOf(BuyableType.class);
+		current.forEach((product, level) -> {
+			if (level != previous.get(product)) {
+				catalog.findById(product).map(Buyable::getType).ifPresent(changed::add);
+			}
+		});
+		changed.forEach(versions::changed);
+	}
+
+	private Map<ProductIdentifier, StockLevel> query(Iterable<? extends ProductIdentifier> products) {
+
+		Map<String, ProductIdentifier> byId = new HashMap<>();
+		products.forEach(product -> byId.put(product.toString(), product));
+
+		if (byId.isEmpty()) {
+			return Map.of();
+		}
+
+		Map<String, BigDecimal> amounts = entityManager.createQuery(QUANTITIES, Tuple.class) //
+				.setParameter("ids", byId.keySet()) //
+				.getResultList().stream() //
+				.collect(Collectors.toMap(tuple -> tuple.get("id", String.class),
+						tuple -> tuple.get("amount", BigDecimal.class)));
+
+		return byId.entrySet().stream() //
+				.collect(Collectors.toMap(Map.Entry::getValue, entry -> StockLevel.of(amounts.get(entry.getKey()))));
+	}
+}
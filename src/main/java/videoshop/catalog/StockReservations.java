@@ -0,0 +1,338 @@
+package videoshop.catalog;
+
+import org.salespointframework.catalog.ProductIdentifier;
+import org.salespointframework.inventory.InventoryItem;
+import org.salespointframework.inventory.UniqueInventory;
+import org.salespointframework.inventory.UniqueInventoryItem;
+import org.salespointframework.quantity.Quantity;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Reserves stock for the carts of the customers, so a product put into a cart can't be sold out by the time the cart
+ * is checked out, and the stock shown on a product accounts for everything lying in carts.
+ * <p>
+ * The reserved units are counted per product without locks. A reservation expires {@link #TIME_TO_LIVE} after it
+ * was last changed, unless released before by a checkout: expiries are kept in a timing wheel of {@value #SLOTS}
+ * slots, one per {@link #TICK}, so releasing the abandoned reservations of a tick costs nothing but the reservations
+ * themselves.
+ * <p>
+ * The content of a cart is reserved again whenever the cart is shown or checked out (see
+ * {@link #reserveAll(String, Map)}), so an expired reservation is taken again if the stock is still there and a cart
+ * whose stock has been sold or reserved by others in the meantime is not checked out. {@link Buyable}s with unlimited
+ * stock and products not kept in the {@link UniqueInventory} are never reserved.
+ * <p>
+ * The reservations are kept in the memory of the instance and assume the shop runs on a single node. With several
+ * instances sharing the sessions each one only sees the reservations of the requests it served, so the stock shown
+ * and reserved on one instance ignores the carts filled on the others; only the inventory, updated on checkout, still
+ * keeps the stock from being oversold.
+ */
+@Component
+public class StockReservations {
+
+	static final Duration TICK = Duration.ofSeconds(1);
+	static final Duration TIME_TO_LIVE = Duration.ofMinutes(15);
+	static final int SLOTS = 1024;
+	static final long TTL_TICKS = TIME_TO_LIVE.dividedBy(TICK);
+
+	private final UniqueInventory<UniqueInventoryItem> inventory;
+	private final ConcurrentMap<ProductIdentifier, AtomicLong> reserved = new ConcurrentHashMap<>();
+	private final ConcurrentMap<String, Map<ProductIdentifier, Reservation>> owners = new ConcurrentHashMap<>();
+	private final Queue<Reservation>[] wheel;
+	private final AtomicLong tick = new AtomicLong();
+	private ScheduledExecutorService ticker;
+
+	/**
+	 * Creates a new {@link StockReservations}
+	 *
+	 * @param inventory must not be {@literal null}.
+	 */
+	@SuppressWarnings("unchecked")
+	public StockReservations(UniqueInventory<UniqueInventoryItem> inventory) {
+
+		Assert.notNull(inventory, "Inventory must not be null!");
+		Assert.state(TTL_TICKS < SLOTS, "Reservations must expire within one turn of the wheel!");
+
+		this.inventory = inventory;
+		this.wheel = new Queue[SLOTS];
+		for (int slot = 0; slot < SLOTS; slot++) {
+			wheel[slot] = new ConcurrentLinkedQueue<>();
+		}
+	}
+
+	@PostConstruct
+	void start() {
+
+		ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "stock-reservations");
+			thread.setDaemon(true);
+			return thread;
+		});
+		ticker.scheduleAtFixedRate(this::advance, TICK.toMillis(), TICK.toMillis(), TimeUnit.MILLISECONDS);
+	}
+
+	@PreDestroy
+	void stop() {
+
+		if (ticker != null) {
+			ticker.shutdown();
+		}
+	}
+
+	/**
+	 * Reserves the given number of units of a {@link Buyable} for an owner, e.g. a session, replacing the owner's
+	 * previous reservation of it and restarting its time to live.
+	 *
+	 * @param owner   must not be {@literal null}.
+	 * @param buyable must not be {@literal null}.
+	 * @param units   total number of units the owner holds of the Buyable.
+	 * @return whether the units are reserved, {@literal false} if there is not enough stock left.
+	 */
+	public boolean reserve(String owner, Buyable buyable, long units) {
+
+		Assert.notNull(owner, "Owner must not be null!");
+		Assert.notNull(buyable, "Buyable must not be null!");
+		Assert.isTrue(units >= 0, "Units must not be negative!");
+
+		if (buyable.hasUnlimitedStock()) {
+			return true;
+		}
+
+		return inventory.findByProduct(buyable) //
+				.map(item -> reserve(owner, buyable.getId(), units, item.getQuantity().getAmount().longValue())) //
+				.orElse(true);
+	}
+
+	/**
+	 * Reserves exactly the given units of {@link Buyable}s for an owner, e.g. everything in its cart. Every reservation
+	 * is renewed, or taken again if it has expired, and the owner's reservations of products not given are released.
+	 *
+	 * @param owner must not be {@literal null}.
+	 * @param units total number of units the owner holds by Buyable, must not be {@literal null}.
+	 * @return whether all units are reserved, {@literal false} if there is not enough stock left for any of them.
+	 */
+	public boolean reserveAll(String owner, Map<? extends Buyable, Long> units) {
+
+		Assert.notNull(owner, "Owner must not be null!");
+		Assert.notNull(units, "Units must not be null!");
+
+		Set<ProductIdentifier> kept = units.keySet().stream() //
+				.map(Buyable::getId) //
+				.collect(Collectors.toSet());
+
+		owners.computeIfPresent(owner, (key, held) -> {
+
+			held.values().removeIf(reservation -> {
+
+				if (kept.contains(reservation.product)) {
+					return false;
+				}
+
+				release(reservation);
+
+				return true;
+			});
+
+			return held.isEmpty() ? null : held;
+		});
+
+		boolean reservedAll = true;
+
+		for (Map.Entry<? extends Buyable, Long> entry : units.entrySet()) {
+			reservedAll &= reserve(owner, entry.getKey(), entry.getValue());
+		}
+
+		return reservedAll;
+	}
+
+	/**
+	 * Reserves units of a product against the given stock. Holding on to the units reserved before fails, too, if the
+	 * stock has dropped below the units reserved in the meantime.
+	 *
+	 * @param owner   must not be {@literal null}.
+	 * @param product must not be {@literal null}.
+	 * @param units   total number of units the owner holds.
+	 * @param inStock units in stock.
+	 * @return whether the units are reserved.
+	 */
+	boolean reserve(String owner, ProductIdentifier product, long units, long inStock) {
+
+		AtomicLong counter = reserved.computeIfAbsent(product, it -> new AtomicLong());
+		AtomicBoolean success = new AtomicBoolean();
+
+		owners.compute(owner, (key, reservations) -> {
+
+			Map<ProductIdentifier, Reservation> held = reservations == null ? new ConcurrentHashMap<>() : reservations;
+			Reservation previous = held.get(product);
+			long previousUnits = previous == null || !previous.isActive() ? 0 : previous.units;
+
+			if (!add(counter, units - previousUnits, inStock)) {
+				return reservations;
+			}
+
+			// The wheel may have released the previous reservation in the meantime, then its units are gone already
+			if (previous != null && !previous.deactivate()) {
+				counter.addAndGet(previousUnits);
+			}
+
+			if (units > 0) {
+				Reservation reservation = new Reservation(owner, product, units, tick.get() + TTL_TICKS);
+				held.put(product, reservation);
+				wheel[slot(reservation.deadline)].add(reservation);
+			} else {
+				held.remove(product);
+			}
+
+			success.set(true);
+
+			return held.isEmpty() ? null : held;
+		});
+
+		return success.get();
+	}
+
+	/**
+	 * Releases all reservations of an owner, e.g. after its cart has been checked out.
+	 *
+	 * @param owner must not be {@literal null}.
+	 */
+	public void release(String owner) {
+
+		Assert.notNull(owner, "Owner must not be null!");
+
+		Map<ProductIdentifier, Reservation> held = owners.remove(owner);
+
+		if (held != null) {
+			held.values().forEach(this::release);
+		}
+	}
+
+	/**
+	 * Returns the units of a product neither sold nor reserved.
+	 *
+	 * @param product must not be {@literal null}.
+	 * @param inStock units in stock, i.e. the quantity of its {@link InventoryItem}, must not be {@literal null}.
+	 * @return the units available, never negative.
+	 */
+	public long getAvailable(ProductIdentifier product, Quantity inStock) {
+
+		Assert.notNull(product, "ProductIdentifier must not be null!");
+		Assert.notNull(inStock, "Quantity must not be null!");
+
+		AtomicLong counter = reserved.get(product);
+		long units = inStock.getAmount().longValue() - (counter == null ? 0 : counter.get());
+
+		return Math.max(units, 0);
+	}
+
+	/**
+	 * Returns the units of a product reserved by all owners.
+	 *
+	 * @param product must not be {@literal null}.
+	 * @return the reserved units.
+	 */
+	long getReserved(ProductIdentifier product) {
+
+		AtomicLong counter = reserved.get(product);
+
+		return counter == null ? 0 : counter.get();
+	}
+
+	/**
+	 * Moves the wheel on by one {@link #TICK} and releases the reservations expired with it.
+	 */
+	void advance() {
+
+		long now = tick.incrementAndGet();
+		Queue<Reservation> slot = wheel[slot(now)];
+
+		for (Reservation reservation; (reservation = slot.poll()) != null; ) {
+
+			if (reservation.deadline > now) {
+				// Can't happen as long as reservations expire within one turn, but never release one early
+				wheel[slot(reservation.deadline)].add(reservation);
+				continue;
+			}
+
+			if (reservation.isActive()) {
+				owners.computeIfPresent(reservation.owner, (key, held) -> {
+					held.remove(reservation.product, reservation);
+					return held.isEmpty() ? null : held;
+				});
+				release(reservation);
+			}
+		}
+	}
+
+	private void release(Reservation reservation) {
+
+		if (reservation.deactivate()) {
+			reserved.get(reservation.product).addAndGet(-reservation.units);
+		}
+	}
+
+	private static boolean add(AtomicLong counter, long units, long limit) {
+
+		while (true) {
+
+			long current = counter.get();
+
+			if (units >= 0 && current + units > limit) {
+				return false;
+			}
+
+			if (counter.compareAndSet(current, current + units)) {
+				return true;
+			}
+		}
+	}
+
+	private static int slot(long tick) {
+		return (int) (tick % SLOTS);
+	}
+
+	/**
+	 * Units of a product held by an owner until a deadline. Once deactivated, by expiry, replacement or release, its
+	 * units have been given back.
+	 */
+	private static final class Reservation {
+
+		private final String owner;
+		private final ProductIdentifier product;
+		private final long units;
+		private final long deadline;
+		private final AtomicBoolean active = new AtomicBoolean(true);
+
+		Reservation(String owner, ProductIdentifier product, long units, long deadline) {
+
+			this.owner = owner;
+			this.product = product;
+			this.units = units;
+			this.deadline = deadline;
+		}
+
+		boolean isActive() {
+			return active.get();
+		}
+
+		boolean deactivate() {
+			return active.compareAndSet(true, false);
+		}
+	}
+}
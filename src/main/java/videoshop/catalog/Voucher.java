@@ -11,12 +11,12 @@ import javax.persistence.Entity;
 @Entity
 public class Voucher extends Buyable {
     /**
-     * Create a new voucher
+     * Create a new voucher. Vouchers are digital, so they are never out of stock.
      * @param price Price of the new voucher
      */
 
     public Voucher(MonetaryAmount price) {
-        super("Temporary placeholder", price, BuyableType.VOUCHER);
+        super("Temporary placeholder", price, BuyableType.VOUCHER, true);
         Assert.notNull(price, "Price must not be null!");
         Assert.isTrue(price.isPositive(), "Cannot create a worthless Voucher!");
         this.setName("Gift voucher of " + price.getNumber() + " " + price.getCurrency());
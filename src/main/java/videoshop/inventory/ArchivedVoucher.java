@@ -0,0 +1,103 @@
+package videoshop.inventory;
+
+import org.springframework.util.Assert;
+
+import javax.money.MonetaryAmount;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Lob;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * A {@link SoldVoucher} spent entirely and moved out of the live tables, together with the identifiers of the
+ * {@code UsedVoucher}s that redeemed it. One compact row keeps what's left to know about the voucher: its serial,
+ * which is never handed out again, its original value and its redemption history, which order lines refer to.
+ */
+@Entity
+public class ArchivedVoucher {
+    @Id
+    private long serial;
+    private String product;
+    private MonetaryAmount price;
+    private LocalDateTime exhausted;
+    private LocalDateTime archived;
+    @Lob
+    private String redemptions;
+
+    /**
+     * Create a new archive entry of a {@link SoldVoucher}
+     *
+     * @param soldVoucher must not be {@literal null}.
+     * @param redemptions identifiers of the products that redeemed the SoldVoucher, must not be {@literal null}.
+     * @param archived    business time of the archival, must not be {@literal null}.
+     */
+    public ArchivedVoucher(SoldVoucher soldVoucher, List<String> redemptions, LocalDateTime archived) {
+        Assert.notNull(soldVoucher, "SoldVoucher must not be null!");
+        Assert.notNull(redemptions, "Redemptions must not be null!");
+        Assert.notNull(archived, "Archival time must not be null!");
+        this.serial = soldVoucher.getSerial();
+        this.product = soldVoucher.getId().toString();
+        this.price = soldVoucher.getPrice();
+        this.exhausted = soldVoucher.getExhausted();
+        this.archived = archived;
+        this.redemptions = String.join(",", redemptions);
+    }
+
+    @SuppressWarnings("unused")
+    private ArchivedVoucher() { }
+
+    /**
+     * Getter for ArchivedVoucher's serial
+     *
+     * @return serial as long
+     */
+    public long getSerial() {
+        return this.serial;
+    }
+
+    /**
+     * Getter for the product identifier the voucher had while it was live
+     *
+     * @return identifier as java.lang.String
+     */
+    public String getProduct() {
+        return this.product;
+    }
+
+    /**
+     * Getter for ArchivedVoucher's original value
+     *
+     * @return value as javax.money.MonetaryAmount
+     */
+    public MonetaryAmount getPrice() {
+        return this.price;
+    }
+
+    /**
+     * Getter for the business time the voucher was found spent entirely
+     *
+     * @return time as java.time.LocalDateTime
+     */
+    public LocalDateTime getExhausted() {
+        return this.exhausted;
+    }
+
+    /**
+     * Getter for the business time the voucher was archived
+     *
+     * @return time as java.time.LocalDateTime
+     */
+    public LocalDateTime getArchived() {
+        return this.archived;
+    }
+
+    /**
+     * Getter for the identifiers of the products that redeemed the voucher
+     *
+     * @return identifiers as java.util.List, in no particular order
+     */
+    public List<String> getRedemptions() {
+        return this.redemptions.isEmpty() ? List.of() : List.of(this.redemptions.split(","));
+    }
+}
@@ -0,0 +1,9 @@
+package videoshop.inventory;
+
+import org.springframework.data.repository.CrudRepository;
+
+/**
+ * Interface for JPA to store our ArchivedVouchers
+ */
+public interface ArchivedVoucherRepository extends CrudRepository<ArchivedVoucher, Long> {
+}
@@ -16,44 +16,35 @@
 package videoshop.inventory;
 
 import org.salespointframework.inventory.InventoryItem;
-import org.salespointframework.inventory.UniqueInventory;
-import org.salespointframework.inventory.UniqueInventoryItem;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
-import videoshop.order.UsedVoucher;
-
-import java.util.List;
-import java.util.stream.Collectors;
-import java.util.stream.StreamSupport;
+import org.springframework.web.bind.annotation.RequestParam;
 
 // Straight forward?
 
 @Controller
 class InventoryController {
 
-    private final UniqueInventory<UniqueInventoryItem> inventory;
+    private final StockOverview stockOverview;
 
-    InventoryController(UniqueInventory<UniqueInventoryItem> inventory) {
-        this.inventory = inventory;
+    InventoryController(StockOverview stockOverview) {
+        this.stockOverview = stockOverview;
     }
 
     /**
-     * Displays all {@link InventoryItem}s in the system
+     * Displays a page of the {@link InventoryItem}s of the discs in the system
      *
+     * @param after identifier of the last product on the previous page (optional)
      * @param model will never be {@literal null}.
      * @return the view name.
      */
     @GetMapping("/stock")
     @PreAuthorize("hasRole('BOSS')")
-    String stock(Model model) {
-        Iterable<UniqueInventoryItem> allItems = inventory.findAll();
-        List<UniqueInventoryItem> allItemsButUsedVouchers = StreamSupport.stream(allItems.spliterator(), false)
-                .filter(uniqueInventoryItem -> !(uniqueInventoryItem.getProduct() instanceof UsedVoucher))
-                .collect(Collectors.toList());
+    String stock(@RequestParam(value = "after", required = false) String after, Model model) {
 
-        model.addAttribute("stock", allItemsButUsedVouchers);
+        model.addAttribute("stock", stockOverview.findStock(after));
 
         return "stock";
     }
@@ -22,7 +22,6 @@ import org.salespointframework.quantity.Quantity;
 import org.springframework.core.annotation.Order;
 import org.springframework.stereotype.Component;
 import org.springframework.util.Assert;
-import videoshop.catalog.Buyable;
 import videoshop.catalog.ShopCatalog;
 
 /**
@@ -38,14 +37,18 @@ class InventoryInitializer implements DataInitializer {
 
 	private final UniqueInventory<UniqueInventoryItem> inventory;
 	private final ShopCatalog shopCatalog;
+	private final StockItems stockItems;
 
-	InventoryInitializer(UniqueInventory<UniqueInventoryItem> inventory, ShopCatalog shopCatalog) {
+	InventoryInitializer(UniqueInventory<UniqueInventoryItem> inventory, ShopCatalog shopCatalog,
+			StockItems stockItems) {
 
 		Assert.notNull(inventory, "Inventory must not be null!");
 		Assert.notNull(shopCatalog, "ShopCatalog must not be null!");
+		Assert.notNull(stockItems, "StockItems must not be null!");
 
 		this.inventory = inventory;
 		this.shopCatalog = shopCatalog;
+		this.stockItems = stockItems;
 	}
 
 	/*
@@ -55,20 +58,21 @@ class InventoryInitializer implements DataInitializer {
 	@Override
 	public void initialize() {
 
-		// (｡◕‿◕｡)
-		// Über alle Voucher iterieren und jeweils ein InventoryItem mit der Quantity 100000 setzen
-		// Das heißt: Von jedem Voucher sind 100000 Stück im Inventar.
-
-		shopCatalog.findByType(Buyable.BuyableType.VOUCHER).forEach(voucher -> {
-			inventory.findByProduct(voucher)
-					.orElseGet(() -> inventory.save(new UniqueInventoryItem(voucher, Quantity.of(100000))));
-		});
+		// Redeemed vouchers used to be kept as stock, they only live in their own table now
+		stockItems.deleteUsedVoucherItems();
 
 		// (｡◕‿◕｡)
 		// Über alle Discs iterieren und jeweils ein InventoryItem mit der Quantity 10 setzen
 		// Das heißt: Von jeder Disc sind 10 Stück im Inventar.
+		// Vouchers are digital and never out of stock (see Buyable#hasUnlimitedStock()), so they are not kept in the
+		// inventory. Stock kept for them by an earlier version is dropped.
 		shopCatalog.findAll().forEach(disc -> {
 
+			if (disc.hasUnlimitedStock()) {
+				inventory.findByProduct(disc).ifPresent(inventory::delete);
+				return;
+			}
+
 			// Try to find an InventoryItem for the project and create a default one with 10 items if none available
 			inventory.findByProduct(disc) //
 					.orElseGet(() -> inventory.save(new UniqueInventoryItem(disc, Quantity.of(10))));
@@ -0,0 +1,77 @@
+package videoshop.inventory;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Pool of random passes for {@link SoldVoucher}s, filled by a background thread.
+ * Issuing vouchers takes passes from the pool and only generates them itself if the pool has run dry.
+ */
+@Component
+class PassPool implements DisposableBean {
+
+    static final int CAPACITY = 10_000;
+    static final int PASS_LENGTH = 10;
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+
+    private final SecureRandom random = new SecureRandom();
+    private final BlockingQueue<String> passes;
+    private final Thread filler;
+
+    PassPool() {
+        this(CAPACITY);
+    }
+
+    PassPool(int capacity) {
+        this.passes = new ArrayBlockingQueue<>(capacity);
+        this.filler = new Thread(this::fill, "voucher-pass-pool");
+        this.filler.setDaemon(true);
+        this.filler.start();
+    }
+
+    /**
+     * Take a pass from the pool, never waiting for the background thread
+     *
+     * @return a new random pass
+     */
+    String take() {
+        String pass = passes.poll();
+        return pass != null ? pass : generate();
+    }
+
+    /**
+     * Number of passes currently available without generating them
+     *
+     * @return size of the pool
+     */
+    int available() {
+        return passes.size();
+    }
+
+    private void fill() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                passes.put(generate());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private String generate() {
+        char[] pass = new char[PASS_LENGTH];
+        for (int i = 0; i < PASS_LENGTH; i++) {
+            pass[i] = ALPHABET.charAt(random.nextInt(ALPHABET.length()));
+        }
+        return new String(pass);
+    }
+
+    @Override
+    public void destroy() {
+        filler.interrupt();
+    }
+}
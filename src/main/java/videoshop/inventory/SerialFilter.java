@@ -0,0 +1,108 @@
+package videoshop.inventory;
+
+import org.springframework.util.Assert;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over the serials of {@link SoldVoucher}s. It never reports an added serial as absent, but may report
+ * a serial that has never been added as present. Serials can be added concurrently to lookups.
+ */
+class SerialFilter {
+
+    private final AtomicLongArray words;
+    private final long bits;
+    private final int hashes;
+    private final AtomicLong entries = new AtomicLong();
+
+    /**
+     * Creates a new {@link SerialFilter} sized for the given number of serials
+     *
+     * @param expectedEntries   number of serials the filter is sized for, must be positive
+     * @param falsePositiveRate acceptable rate of false positives at the expected number of serials, between 0 and 1
+     */
+    SerialFilter(long expectedEntries, double falsePositiveRate) {
+        Assert.isTrue(expectedEntries > 0, "Expected entries must be positive!");
+        Assert.isTrue(falsePositiveRate > 0 && falsePositiveRate < 1, "False positive rate must be between 0 and 1!");
+        long optimalBits = (long) Math.ceil(-expectedEntries * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        this.words = new AtomicLongArray(Math.toIntExact((optimalBits + 63) / 64));
+        this.bits = 64L * words.length();
+        this.hashes = Math.max(1, (int) Math.round((double) bits / expectedEntries * Math.log(2)));
+    }
+
+    /**
+     * Add a serial to the filter
+     *
+     * @param serial serial of a SoldVoucher
+     */
+    void add(long serial) {
+        long hash1 = mix(serial);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bits);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+        entries.incrementAndGet();
+    }
+
+    /**
+     * Check whether a serial may have been added to the filter
+     *
+     * @param serial serial to check
+     * @return false if the serial has definitely not been added
+     */
+    boolean mightContain(long serial) {
+        long hash1 = mix(serial);
+        long hash2 = mix(hash1) | 1;
+        for (int i = 0; i < hashes; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bits);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Size of the filter
+     *
+     * @return number of bits
+     */
+    long bits() {
+        return bits;
+    }
+
+    /**
+     * Number of serials added so far, counting serials added more than once repeatedly
+     *
+     * @return number of added serials
+     */
+    long entries() {
+        return entries.get();
+    }
+
+    /**
+     * Estimate the rate of false positives for the serials added so far
+     *
+     * @return expected rate of false positives between 0 and 1
+     */
+    double expectedFalsePositiveRate() {
+        return Math.pow(1 - Math.exp(-(double) hashes * entries.get() / bits), hashes);
+    }
+
+    /**
+     * SplitMix64 finalizer, spreading consecutive serials over the whole filter
+     */
+    private static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -1,49 +1,65 @@
 package videoshop.inventory;
 
-import com.mysema.commons.lang.Assert;
-import net.bytebuddy.utility.RandomString;
 import org.salespointframework.catalog.Product;
+import org.springframework.util.Assert;
 
 import javax.money.MonetaryAmount;
+import javax.persistence.Column;
 import javax.persistence.Entity;
+import java.time.LocalDateTime;
 
 /**
  * Class representing a SoldVoucher (i.e. a persistent and personalized version of Voucher)
  */
 @Entity
 public class SoldVoucher extends Product {
-    private final String identifier;
+    @Column(unique = true)
+    private final long serial;
     private final String pass;
     private MonetaryAmount value;
+    private long revision;
+    private LocalDateTime exhausted;
 
     /**
-     * Create a new instance with a given value
+     * Create a new instance with a given value. Use {@link SoldVoucherFactory} to allocate serial and pass.
      * @param value Value of the SoldVoucher as javax.money.MonetaryAmount
+     * @param serial Serial number the identifier is derived from
+     * @param pass Password needed to redeem the SoldVoucher
      */
-    public SoldVoucher(MonetaryAmount value) {
+    public SoldVoucher(MonetaryAmount value, long serial, String pass) {
         super("Sold Gift Voucher", value);
-        Assert.notNull(this.getId(), "Error while deploying SoldVoucher");
-        this.identifier = this.getId().toString();
         Assert.notNull(value, "Value must not be null!");
         Assert.isTrue(value.isPositive(), "Value must be positive!");
+        Assert.isTrue(serial > 0 && serial <= VoucherCode.MAX_SERIAL, "Serial out of range!");
+        Assert.hasText(pass, "Pass must not be empty!");
+        this.serial = serial;
         this.value = value;
-        this.pass = RandomString.make();
+        this.pass = pass;
     }
 
     @SuppressWarnings("unused")
     private SoldVoucher() {
-        this.identifier = null;
+        this.serial = 0;
         this.pass = null;
         this.value = null;
     }
 
     /**
-     * Getter for SoldVoucher's identifier
+     * Getter for SoldVoucher's serial
+     *
+     * @return serial as long
+     */
+    public long getSerial() {
+        return this.serial;
+    }
+
+    /**
+     * Getter for SoldVoucher's identifier, the {@link VoucherCode} of its serial
      *
      * @return identifier as java.lang.String
      */
     public String getIdentifier() {
-        return this.identifier;
+        return VoucherCode.encode(this.serial);
     }
 
     /**
@@ -74,6 +90,24 @@ public class SoldVoucher extends Product {
         return this.value;
     }
 
+    /**
+     * Getter for SoldVoucher's revision, which is incremented whenever its value is settled
+     *
+     * @return revision as long
+     */
+    public long getRevision() {
+        return this.revision;
+    }
+
+    /**
+     * Getter for the business time the SoldVoucher was first seen spent entirely, kept to archive it later
+     *
+     * @return time as java.time.LocalDateTime, {@literal null} while it has a value left or has not been seen yet
+     */
+    public LocalDateTime getExhausted() {
+        return this.exhausted;
+    }
+
     /**
      * Setter for SoldVoucher's value
      *
@@ -0,0 +1,81 @@
+package videoshop.inventory;
+
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import javax.money.MonetaryAmount;
+import java.time.Duration;
+
+/**
+ * Creates new {@link SoldVoucher}s with a unique serial number and a pre-generated pass.
+ * Serials are taken from blocks of the {@code VOUCHER_SERIAL_SEQ} database sequence (see {@code data.sql}), so
+ * instances sharing the database never allocate the same serial and only ask the database once per block. Blocks
+ * below the highest serial already in use, e.g. allocated before the sequence existed, are skipped. A block is given
+ * up after {@link #BLOCK_LIFETIME} and the time it was taken is recorded, so the {@link VoucherLookup} knows when all
+ * serials of a block have been issued.
+ * Every created voucher is registered with the {@link VoucherLookup}, so it can be redeemed right away.
+ */
+@Component
+public class SoldVoucherFactory {
+
+    static final int SERIAL_BLOCK = 50;
+    static final Duration BLOCK_LIFETIME = Duration.ofMinutes(1);
+
+    private final VoucherInventory voucherInventory;
+    private final PassPool passPool;
+    private final VoucherLookup voucherLookup;
+    private long nextSerial = 1;
+    private long blockEnd = 0;
+    private long blockTaken;
+    private boolean aligned;
+
+    /**
+     * Creates a new {@link SoldVoucherFactory}
+     *
+     * @param voucherInventory must not be {@literal null}.
+     * @param passPool         must not be {@literal null}.
+     * @param voucherLookup    must not be {@literal null}.
+     */
+    SoldVoucherFactory(VoucherInventory voucherInventory, PassPool passPool, VoucherLookup voucherLookup) {
+        Assert.notNull(voucherInventory, "VoucherInventory must not be null");
+        Assert.notNull(passPool, "PassPool must not be null");
+        Assert.notNull(voucherLookup, "VoucherLookup must not be null");
+        this.voucherInventory = voucherInventory;
+        this.passPool = passPool;
+        this.voucherLookup = voucherLookup;
+    }
+
+    /**
+     * Create a new, not yet persisted {@link SoldVoucher}
+     *
+     * @param value Value of the SoldVoucher, must be positive
+     * @return the new SoldVoucher
+     */
+    public SoldVoucher create(MonetaryAmount value) {
+        SoldVoucher soldVoucher = new SoldVoucher(value, nextSerial(), passPool.take());
+        voucherLookup.register(soldVoucher);
+        return soldVoucher;
+    }
+
+    private synchronized long nextSerial() {
+        long now = System.nanoTime();
+        if (nextSerial > blockEnd || now - blockTaken > BLOCK_LIFETIME.toNanos()) {
+            long start = voucherInventory.nextSerialBlock();
+            long first = start;
+            if (!aligned) {
+                // Only the first block of this instance can lie below serials allocated before the sequence
+                long highest = voucherInventory.findHighestSerial();
+                while (start + SERIAL_BLOCK - 1 <= highest) {
+                    start = voucherInventory.nextSerialBlock();
+                }
+                first = Math.max(start, highest + 1);
+                aligned = true;
+            }
+            voucherInventory.recordSerialBlock(start);
+            nextSerial = first;
+            blockEnd = start + SERIAL_BLOCK - 1;
+            blockTaken = now;
+        }
+        return nextSerial++;
+    }
+}
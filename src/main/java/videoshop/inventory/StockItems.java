@@ -0,0 +1,52 @@
+package videoshop.inventory;
+
+import org.salespointframework.catalog.Product;
+import org.salespointframework.inventory.InventoryItemIdentifier;
+import org.salespointframework.inventory.UniqueInventoryItem;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+import videoshop.catalog.Disc;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Queries on the {@link UniqueInventoryItem}s restricted to a kind of product in the database, so nothing but the
+ * stock asked for is ever loaded.
+ */
+interface StockItems extends Repository<UniqueInventoryItem, InventoryItemIdentifier> {
+
+    /**
+     * Find a page of {@link Disc}s ordered by identifier, the products shown in the stock overview
+     *
+     * @param after    identifier of the last disc on the previous page, empty for the first page
+     * @param pageable size of the page, must request the first page
+     * @return the discs of the page
+     */
+    @Query("select d from Disc d where d.productIdentifier.id > :after order by d.productIdentifier.id asc")
+    List<Disc> findDiscsAfter(@Param("after") String after, Pageable pageable);
+
+    /**
+     * Find the {@link UniqueInventoryItem}s of the given products
+     *
+     * @param products products to find the items of, must not be empty
+     * @return the items, at most one per product
+     */
+    @Query("select i from UniqueInventoryItem i where i.product in :products")
+    List<UniqueInventoryItem> findByProducts(@Param("products") Collection<? extends Product> products);
+
+    /**
+     * Delete the items kept for redeemed {@link videoshop.order.UsedVoucher}s by earlier versions, which are
+     * bookkeeping and never sold from the inventory
+     *
+     * @return number of items deleted
+     */
+    @Modifying
+    @Transactional
+    @Query("delete from UniqueInventoryItem i where i.product in (select u from UsedVoucher u)")
+    int deleteUsedVoucherItems();
+}
@@ -0,0 +1,61 @@
+package videoshop.inventory;
+
+import org.salespointframework.catalog.ProductIdentifier;
+import org.salespointframework.inventory.UniqueInventoryItem;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.Assert;
+import videoshop.catalog.Disc;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Assembles the stock overview page by page. A page costs the same statements, independent of the size of the
+ * inventory: one for the discs of the page and one for their {@link UniqueInventoryItem}s.
+ */
+@Component
+class StockOverview {
+
+    static final int PAGE_SIZE = 20;
+
+    private final StockItems stockItems;
+
+    /**
+     * Creates a new {@link StockOverview}
+     *
+     * @param stockItems must not be {@literal null}.
+     */
+    StockOverview(StockItems stockItems) {
+        Assert.notNull(stockItems, "StockItems must not be null");
+        this.stockItems = stockItems;
+    }
+
+    /**
+     * Find a page of the stock, ordered by the identifier of the product. Discs without an {@link UniqueInventoryItem}
+     * are left out, so a page may show fewer items than {@link #PAGE_SIZE}, or none at all.
+     *
+     * @param after identifier of the last disc read for the previous page, {@literal null} for the first page
+     * @return the page of items
+     */
+    @Transactional(readOnly = true)
+    StockPage findStock(String after) {
+        List<Disc> discs = stockItems.findDiscsAfter(after == null ? "" : after, PageRequest.of(0, PAGE_SIZE + 1));
+        boolean hasNext = discs.size() > PAGE_SIZE;
+        List<Disc> page = hasNext ? discs.subList(0, PAGE_SIZE) : discs;
+        Map<ProductIdentifier, UniqueInventoryItem> items = page.isEmpty()
+                ? Collections.emptyMap()
+                : stockItems.findByProducts(page).stream()
+                .collect(Collectors.toMap(item -> item.getProduct().getId(), Function.identity()));
+        List<UniqueInventoryItem> content = page.stream()
+                .map(disc -> items.get(disc.getId()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        return new StockPage(content, hasNext ? page.get(page.size() - 1).getId().toString() : null);
+    }
+}
@@ -0,0 +1,46 @@
+package videoshop.inventory;
+
+import org.salespointframework.inventory.UniqueInventoryItem;
+import org.springframework.util.Assert;
+
+import java.util.List;
+
+/**
+ * A page of the stock overview (see {@link StockOverview}). The page continues after the last disc read, which is
+ * not necessarily the last item shown, as discs without an {@link UniqueInventoryItem} are left out.
+ */
+class StockPage {
+
+    private final List<UniqueInventoryItem> items;
+    private final String next;
+
+    /**
+     * Creates a new {@link StockPage}
+     *
+     * @param items must not be {@literal null}.
+     * @param next  identifier of the last disc read, {@literal null} if it was the last disc.
+     */
+    StockPage(List<UniqueInventoryItem> items, String next) {
+        Assert.notNull(items, "Items must not be null!");
+        this.items = items;
+        this.next = next;
+    }
+
+    public List<UniqueInventoryItem> getItems() {
+        return items;
+    }
+
+    /**
+     * Get the position to continue from
+     *
+     * @return identifier of the last disc read, to be passed as {@code after} for the next page, {@literal null} on
+     * the last page
+     */
+    public String getNext() {
+        return next;
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
@@ -0,0 +1,47 @@
+package videoshop.inventory;
+
+import org.salespointframework.catalog.ProductIdentifier;
+import org.salespointframework.inventory.LineItemFilter;
+import org.salespointframework.order.OrderLine;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import videoshop.catalog.Buyable;
+import videoshop.catalog.ShopCatalog;
+
+/**
+ * Decides which {@link OrderLine}s Salespoint verifies against and takes from the
+ * {@link org.salespointframework.inventory.UniqueInventory} when an order is completed. Left out are
+ * <ul>
+ * <li>{@link Buyable}s with unlimited stock, which are not kept in any inventory at all,</li>
+ * <li>products not in the catalog, like the {@link videoshop.order.UsedVoucher}s redeemed in an order, which are
+ * bookkeeping rather than stock.</li>
+ * </ul>
+ * Products known to have unlimited stock are left out from memory without a statement. Every other line is checked
+ * against the catalog, so a product added on another instance is never sold without taking it from the stock.
+ */
+@Component
+class StockedLineItems implements LineItemFilter {
+
+    private final ShopCatalog shopCatalog;
+
+    /**
+     * Creates a new {@link StockedLineItems}
+     *
+     * @param shopCatalog must not be {@literal null}.
+     */
+    StockedLineItems(ShopCatalog shopCatalog) {
+        Assert.notNull(shopCatalog, "ShopCatalog must not be null");
+        this.shopCatalog = shopCatalog;
+    }
+
+    /*
+     * (non-Javadoc)
+     * @see org.salespointframework.inventory.LineItemFilter#shouldHandle(org.salespointframework.order.OrderLine)
+     */
+    @Override
+    public boolean shouldHandle(OrderLine line) {
+        ProductIdentifier id = line.getProductIdentifier();
+        return !shopCatalog.findUnlimitedStockIds().contains(id)
+                && shopCatalog.existsByProductIdentifierAndUnlimitedStockFalse(id);
+    }
+}
@@ -0,0 +1,93 @@
+package videoshop.inventory;
+
+import org.springframework.util.Assert;
+
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Compact, human friendly voucher codes. A code is the serial number of a {@link SoldVoucher} in Crockford's base32,
+ * padded to a fixed width, followed by a mod 37 check symbol. The check symbol detects every single mistyped
+ * character and every swap of two adjacent characters, so such codes are rejected without touching the database.
+ */
+public final class VoucherCode {
+
+    private static final String ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+    private static final String CHECK_SYMBOLS = ALPHABET + "*~$=U";
+    static final int WIDTH = 8;
+
+    /**
+     * Length of every code
+     */
+    public static final int LENGTH = WIDTH + 1;
+
+    /**
+     * Highest serial number that can be encoded
+     */
+    public static final long MAX_SERIAL = (1L << (5 * WIDTH)) - 1;
+
+    private VoucherCode() {
+    }
+
+    /**
+     * Encode the given serial number
+     *
+     * @param serial serial number between 0 and {@link #MAX_SERIAL}
+     * @return code of length {@link #LENGTH}
+     */
+    public static String encode(long serial) {
+        Assert.isTrue(serial >= 0 && serial <= MAX_SERIAL, "Serial out of range!");
+        char[] code = new char[LENGTH];
+        long rest = serial;
+        for (int i = WIDTH - 1; i >= 0; i--) {
+            code[i] = ALPHABET.charAt((int) (rest & 31));
+            rest >>>= 5;
+        }
+        code[WIDTH] = CHECK_SYMBOLS.charAt((int) (serial % CHECK_SYMBOLS.length()));
+        return new String(code);
+    }
+
+    /**
+     * Decode the given code. Lower case letters, hyphens and the commonly confused letters O, I and L are accepted.
+     *
+     * @param code code as typed by the customer, may be {@literal null}
+     * @return the serial number, empty if the code is malformed or its check symbol does not match
+     */
+    public static Optional<Long> decode(String code) {
+        if (code == null) {
+            return Optional.empty();
+        }
+        String normalized = code.trim().replace("-", "").toUpperCase(Locale.ROOT);
+        if (normalized.length() != LENGTH) {
+            return Optional.empty();
+        }
+        long serial = 0;
+        for (int i = 0; i < WIDTH; i++) {
+            int digit = valueOf(normalized.charAt(i));
+            if (digit < 0) {
+                return Optional.empty();
+            }
+            serial = (serial << 5) | digit;
+        }
+        int check = valueOf(normalized.charAt(WIDTH));
+        if (check < 0) {
+            check = CHECK_SYMBOLS.indexOf(normalized.charAt(WIDTH));
+        }
+        if (check != serial % CHECK_SYMBOLS.length()) {
+            return Optional.empty();
+        }
+        return Optional.of(serial);
+    }
+
+    private static int valueOf(char symbol) {
+        switch (symbol) {
+            case 'O':
+                return 0;
+            case 'I':
+            case 'L':
+                return 1;
+            default:
+                return ALPHABET.indexOf(symbol);
+        }
+    }
+}
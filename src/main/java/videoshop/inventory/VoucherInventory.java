@@ -1,9 +1,194 @@
 package videoshop.inventory;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.money.MonetaryAmount;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
 
 /**
  * Interface for JPA to store our SoldVouchers
  */
 public interface VoucherInventory extends CrudRepository<SoldVoucher, Long> {
+
+    /**
+     * Find a {@link SoldVoucher} by its serial number.
+     * The serial column is unique and therefore indexed, so this does not scan all sold vouchers.
+     *
+     * @param serial serial of the SoldVoucher
+     * @return the matching SoldVoucher, if any
+     */
+    Optional<SoldVoucher> findBySerial(long serial);
+
+    /**
+     * Find the {@link SoldVoucher}s with the given serial numbers in a single query
+     *
+     * @param serials serials of the SoldVouchers
+     * @return the matching SoldVouchers, in no particular order
+     */
+    List<SoldVoucher> findBySerialIn(Collection<Long> serials);
+
+    /**
+     * Find a {@link SoldVoucher} by the identifier handed out to the customer.
+     * Malformed identifiers are rejected by their {@link VoucherCode} check symbol without querying the database.
+     * Customer input should rather be looked up via {@link VoucherLookup}, which also rejects unknown identifiers.
+     *
+     * @param identifier identifier of the SoldVoucher
+     * @return the matching SoldVoucher, if any
+     */
+    default Optional<SoldVoucher> findByIdentifier(String identifier) {
+        return VoucherCode.decode(identifier).flatMap(this::findBySerial);
+    }
+
+    /**
+     * Read the current balance of a {@link SoldVoucher} without attaching the entity to the persistence context
+     *
+     * @param serial serial of the SoldVoucher
+     * @return the current balance, if the SoldVoucher exists
+     */
+    Optional<Balance> findBalanceBySerial(long serial);
+
+    /**
+     * Find sold vouchers with a remaining value, in the order of their serials.
+     * Pages are continued after the serial of the last voucher on the previous page, walking the serial index.
+     *
+     * @param after    serial of the last voucher on the previous page, 0 for the first page
+     * @param pageable size of the page, must request the first page
+     * @return SoldVouchers with a positive value
+     */
+    @Query("select v from SoldVoucher v where v.serial > :after and v.value > 0 order by v.serial")
+    List<SoldVoucher> findValidAfter(@Param("after") long after, Pageable pageable);
+
+    /**
+     * Find the serials of the sold vouchers in the given range, in their order.
+     * Pages are continued after the last serial on the previous page, walking the serial index.
+     *
+     * @param after    serials must be greater than this one
+     * @param upTo     serials must not be greater than this one
+     * @param pageable size of the page, must request the first page
+     * @return the serials in the range
+     */
+    @Query("select v.serial from SoldVoucher v where v.serial > :after and v.serial <= :upTo order by v.serial")
+    List<Long> findSerialsBetween(@Param("after") long after, @Param("upTo") long upTo, Pageable pageable);
+
+    /**
+     * Find the highest serial allocated so far
+     *
+     * @return highest serial, 0 if no voucher has been sold yet
+     */
+    @Query("select coalesce(max(v.serial), 0) from SoldVoucher v")
+    long findMaxSerial();
+
+    /**
+     * Find the highest serial of all archived vouchers
+     *
+     * @return highest archived serial, 0 if no voucher has been archived yet
+     */
+    @Query("select coalesce(max(a.serial), 0) from ArchivedVoucher a")
+    long findMaxArchivedSerial();
+
+    /**
+     * Find the highest serial ever allocated, including archived vouchers, so no serial is handed out twice
+     *
+     * @return highest serial, 0 if no voucher has been sold yet
+     */
+    default long findHighestSerial() {
+        return Math.max(findMaxSerial(), findMaxArchivedSerial());
+    }
+
+    /**
+     * Allocate the next block of serials from the database sequence shared by all instances.
+     * The sequence is not transactional, a block is never handed out twice even if the transaction rolls back.
+     *
+     * @return first serial of the block, the block spans {@link SoldVoucherFactory#SERIAL_BLOCK} serials
+     */
+    @Query(value = "select next value for VOUCHER_SERIAL_SEQ", nativeQuery = true)
+    long nextSerialBlock();
+
+    /**
+     * Record the time a block of serials was taken from the database sequence, in the database's clock.
+     * Runs in a transaction of its own, so the block is recorded even if the voucher's transaction rolls back.
+     *
+     * @param first first serial of the block
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "insert into VOUCHER_SERIAL_BLOCK (FIRST_SERIAL, TAKEN_AT) values (:first, CURRENT_TIMESTAMP)",
+            nativeQuery = true)
+    void recordSerialBlock(@Param("first") long first);
+
+    /**
+     * Find the first serial of the last block taken by any instance at least the given number of seconds ago.
+     * Blocks are taken in the order of their serials, so every block before it was taken even earlier.
+     *
+     * @param seconds minimum age of the block
+     * @return first serial of the block, 0 if no block is that old
+     */
+    @Query(value = "select coalesce(max(FIRST_SERIAL), 0) from VOUCHER_SERIAL_BLOCK "
+            + "where TAKEN_AT <= dateadd('SECOND', -:seconds, CURRENT_TIMESTAMP)", nativeQuery = true)
+    long findLastSerialBlockTakenBefore(@Param("seconds") long seconds);
+
+    /**
+     * Find the serials of spent vouchers not yet marked as exhausted, in the order of their serials
+     *
+     * @param pageable size of the batch, must request the first page
+     * @return serials of SoldVouchers without value
+     */
+    @Query("select v.serial from SoldVoucher v where v.value = 0 and v.exhausted is null order by v.serial")
+    List<Long> findUnmarkedExhaustedSerials(Pageable pageable);
+
+    /**
+     * Mark the given {@link SoldVoucher}s as exhausted at the given time, if they are still spent entirely.
+     * Must be called within a transaction.
+     *
+     * @param serials serials of the SoldVouchers
+     * @param time    business time of the marking
+     * @return number of SoldVouchers marked
+     */
+    @Modifying
+    @Query("update SoldVoucher v set v.exhausted = :time where v.serial in :serials and v.value = 0")
+    int markExhausted(@Param("serials") Collection<Long> serials, @Param("time") LocalDateTime time);
+
+    /**
+     * Find spent vouchers marked as exhausted before the given time, in the order of their serials
+     *
+     * @param cutoff   business time the vouchers must have been exhausted before
+     * @param pageable size of the batch, must request the first page
+     * @return SoldVouchers without value
+     */
+    @Query("select v from SoldVoucher v where v.value = 0 and v.exhausted < :cutoff order by v.serial")
+    List<SoldVoucher> findExhaustedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+    /**
+     * Set the value of a {@link SoldVoucher} if it has not been changed since the given revision was read.
+     * Must be called within a transaction.
+     *
+     * @param serial   serial of the SoldVoucher
+     * @param revision revision the new value was calculated from
+     * @param value    new value of the SoldVoucher
+     * @return 1 if the value was set, 0 if the SoldVoucher has been changed concurrently
+     */
+    @Modifying
+    @Query("update SoldVoucher v set v.value = :value, v.revision = v.revision + 1 "
+            + "where v.serial = :serial and v.revision = :revision")
+    int compareAndSetValue(@Param("serial") long serial, @Param("revision") long revision,
+                           @Param("value") MonetaryAmount value);
+
+    /**
+     * Projection on the settlement relevant state of a {@link SoldVoucher}
+     */
+    interface Balance {
+
+        MonetaryAmount getValue();
+
+        long getRevision();
+    }
 }
@@ -0,0 +1,85 @@
+package videoshop.inventory;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+
+import javax.money.MonetaryAmount;
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Issues large numbers of {@link SoldVoucher}s at once. Vouchers are generated and persisted in chunks, each in a
+ * transaction of its own, and handed to the caller chunk by chunk, so the whole set is never held in memory.
+ */
+@Component
+public class VoucherIssuance {
+
+    static final int CHUNK_SIZE = 500;
+
+    private final VoucherInventory voucherInventory;
+    private final SoldVoucherFactory soldVoucherFactory;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Creates a new {@link VoucherIssuance}
+     *
+     * @param voucherInventory   must not be {@literal null}.
+     * @param soldVoucherFactory must not be {@literal null}.
+     * @param entityManager      must not be {@literal null}.
+     * @param transactionManager must not be {@literal null}.
+     */
+    VoucherIssuance(VoucherInventory voucherInventory, SoldVoucherFactory soldVoucherFactory,
+                    EntityManager entityManager, PlatformTransactionManager transactionManager) {
+        Assert.notNull(voucherInventory, "VoucherInventory must not be null");
+        Assert.notNull(soldVoucherFactory, "SoldVoucherFactory must not be null");
+        Assert.notNull(entityManager, "EntityManager must not be null");
+        Assert.notNull(transactionManager, "PlatformTransactionManager must not be null");
+        this.voucherInventory = voucherInventory;
+        this.soldVoucherFactory = soldVoucherFactory;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Issue count new {@link SoldVoucher}s of the given value
+     *
+     * @param value    value of every voucher, must be positive
+     * @param count    number of vouchers to issue, must be positive
+     * @param consumer receives every voucher once its chunk has been committed
+     */
+    public void issue(MonetaryAmount value, int count, Consumer<SoldVoucher> consumer) {
+        Assert.notNull(value, "Value must not be null!");
+        Assert.isTrue(value.isPositive(), "Value must be positive!");
+        Assert.isTrue(count > 0, "Count must be positive!");
+        Assert.notNull(consumer, "Consumer must not be null!");
+        for (int issued = 0; issued < count; issued += CHUNK_SIZE) {
+            int chunkSize = Math.min(CHUNK_SIZE, count - issued);
+            List<SoldVoucher> chunk = transactionTemplate.execute(status -> issueChunk(value, chunkSize));
+            chunk.forEach(consumer);
+        }
+    }
+
+    /**
+     * Persist a single chunk of new vouchers, to be run within a transaction
+     *
+     * @param value     value of every voucher
+     * @param chunkSize number of vouchers in this chunk
+     * @return the persisted vouchers
+     */
+    private List<SoldVoucher> issueChunk(MonetaryAmount value, int chunkSize) {
+        List<SoldVoucher> chunk = new ArrayList<>(chunkSize);
+        for (int i = 0; i < chunkSize; i++) {
+            chunk.add(soldVoucherFactory.create(value));
+        }
+        voucherInventory.saveAll(chunk);
+        // Write the batch and detach it, so the persistence context does not grow with every chunk
+        entityManager.flush();
+        entityManager.clear();
+        return chunk;
+    }
+}
@@ -0,0 +1,74 @@
+package videoshop.inventory;
+
+import org.javamoney.moneta.Money;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * Lets the boss issue large numbers of gift vouchers at once, e.g. for corporate customers.
+ * The issued vouchers are streamed back as CSV while they are generated.
+ */
+@Controller
+class VoucherIssuanceController {
+
+    static final int MAX_COUNT = 1_000_000;
+
+    private final VoucherIssuance voucherIssuance;
+
+    VoucherIssuanceController(VoucherIssuance voucherIssuance) {
+        this.voucherIssuance = voucherIssuance;
+    }
+
+    /**
+     * Issue count vouchers of the given value and stream their identifiers and passes as CSV
+     *
+     * @param value value of every voucher in EUR, whole cents only
+     * @param count number of vouchers to issue
+     * @return CSV download of the issued vouchers
+     */
+    @PostMapping("/vouchers/issue")
+    @PreAuthorize("hasRole('BOSS')")
+    ResponseEntity<StreamingResponseBody> issue(@RequestParam("value") BigDecimal value,
+                                                @RequestParam("count") int count) {
+        if (value.signum() <= 0 || value.stripTrailingZeros().scale() > 2 || count <= 0 || count > MAX_COUNT) {
+            return ResponseEntity.badRequest().build();
+        }
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            writer.write("identifier,pass,value\n");
+            try {
+                voucherIssuance.issue(Money.of(value, EURO), count, soldVoucher -> {
+                    try {
+                        writer.write(soldVoucher.getIdentifier() + "," + soldVoucher.getPass() + ","
+                                + soldVoucher.getValue().getNumber() + "\n");
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"vouchers.csv\"")
+                .body(body);
+    }
+}
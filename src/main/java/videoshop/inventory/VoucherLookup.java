@@ -0,0 +1,135 @@
+package videoshop.inventory;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Looks up {@link SoldVoucher}s by the identifier handed out to the customer.
+ * A {@link SerialFilter} of issued serials is kept in memory, so mistyped or guessed identifiers are rejected
+ * without querying the database. As other instances issue vouchers too, the filter only rejects serials up to a
+ * trusted bound it is known to be complete for: on start and every {@link #RELOAD_INTERVAL} milliseconds after, the
+ * serials up to the end of the last block taken at least {@link #SETTLE_TIME} ago are added from the
+ * {@link VoucherInventory}, page by page. Those blocks have expired (see {@link SoldVoucherFactory#BLOCK_LIFETIME})
+ * and their vouchers have been committed. Serials above the trusted bound are looked up in the database, so a valid
+ * identifier is never rejected.
+ * <p>
+ * Metrics: {@code videoshop.vouchers.filter.bits}, {@code videoshop.vouchers.filter.entries} and the estimated
+ * {@code videoshop.vouchers.filter.false.positive.rate}; {@code videoshop.vouchers.lookups} counts lookups by result,
+ * {@code malformed} and {@code filtered} ones have saved a database query, the observed false positive rate is
+ * {@code false_positive / (false_positive + filtered)}.
+ */
+@Component
+public class VoucherLookup {
+
+    static final long EXPECTED_VOUCHERS = 1_000_000;
+    static final double FALSE_POSITIVE_RATE = 0.01;
+    static final long RELOAD_INTERVAL = 5 * 60 * 1000;
+    static final Duration SETTLE_TIME = SoldVoucherFactory.BLOCK_LIFETIME.multipliedBy(2);
+    static final int LOAD_PAGE_SIZE = 10_000;
+    private static final String LOOKUPS = "videoshop.vouchers.lookups";
+
+    private final VoucherInventory voucherInventory;
+    private final SerialFilter filter;
+    private final Counter malformed;
+    private final Counter filtered;
+    private final Counter found;
+    private final Counter falsePositives;
+    private volatile long trusted;
+
+    /**
+     * Creates a new {@link VoucherLookup}
+     *
+     * @param voucherInventory must not be {@literal null}.
+     * @param meterRegistry    must not be {@literal null}.
+     */
+    VoucherLookup(VoucherInventory voucherInventory, MeterRegistry meterRegistry) {
+        this(voucherInventory, meterRegistry, new SerialFilter(EXPECTED_VOUCHERS, FALSE_POSITIVE_RATE));
+    }
+
+    VoucherLookup(VoucherInventory voucherInventory, MeterRegistry meterRegistry, SerialFilter filter) {
+        Assert.notNull(voucherInventory, "VoucherInventory must not be null");
+        Assert.notNull(meterRegistry, "MeterRegistry must not be null");
+        Assert.notNull(filter, "SerialFilter must not be null");
+        this.voucherInventory = voucherInventory;
+        this.filter = filter;
+        Gauge.builder("videoshop.vouchers.filter.bits", filter, SerialFilter::bits)
+                .description("Size of the filter of issued voucher serials").register(meterRegistry);
+        Gauge.builder("videoshop.vouchers.filter.entries", filter, SerialFilter::entries)
+                .description("Voucher serials added to the filter").register(meterRegistry);
+        Gauge.builder("videoshop.vouchers.filter.false.positive.rate", filter,
+                SerialFilter::expectedFalsePositiveRate)
+                .description("Estimated false positive rate of the filter").register(meterRegistry);
+        this.malformed = meterRegistry.counter(LOOKUPS, "result", "malformed");
+        this.filtered = meterRegistry.counter(LOOKUPS, "result", "filtered");
+        this.found = meterRegistry.counter(LOOKUPS, "result", "found");
+        this.falsePositives = meterRegistry.counter(LOOKUPS, "result", "false_positive");
+    }
+
+    /**
+     * Add the serials of the blocks that have settled since the previous reload to the filter and trust it for them
+     * from now on. The blocks are those taken at least {@link #SETTLE_TIME} ago, which leaves the vouchers issued at
+     * the end of the {@link SoldVoucherFactory#BLOCK_LIFETIME} time to commit.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelay = RELOAD_INTERVAL, fixedDelay = RELOAD_INTERVAL)
+    synchronized void reload() {
+        long block = voucherInventory.findLastSerialBlockTakenBefore(SETTLE_TIME.toSeconds());
+        long bound = block == 0 ? 0 : block + SoldVoucherFactory.SERIAL_BLOCK - 1;
+        long after = trusted;
+        while (after < bound) {
+            List<Long> serials = voucherInventory.findSerialsBetween(after, bound, PageRequest.of(0, LOAD_PAGE_SIZE));
+            serials.forEach(filter::add);
+            after = serials.size() < LOAD_PAGE_SIZE ? bound : serials.get(serials.size() - 1);
+        }
+        trusted = Math.max(trusted, bound);
+    }
+
+    /**
+     * Add a newly created {@link SoldVoucher} to the filter.
+     * A voucher whose creation is rolled back stays in the filter and merely causes a false positive.
+     *
+     * @param soldVoucher must not be {@literal null}.
+     */
+    void register(SoldVoucher soldVoucher) {
+        Assert.notNull(soldVoucher, "SoldVoucher must not be null!");
+        filter.add(soldVoucher.getSerial());
+    }
+
+    /**
+     * Find a {@link SoldVoucher} by the identifier handed out to the customer
+     *
+     * @param identifier identifier of the SoldVoucher, must not be {@literal null}.
+     * @return the matching SoldVoucher, if any
+     */
+    public Optional<SoldVoucher> findByIdentifier(String identifier) {
+        Assert.notNull(identifier, "Identifier must not be null!");
+        Optional<Long> serial = VoucherCode.decode(identifier);
+        if (serial.isEmpty()) {
+            malformed.increment();
+            return Optional.empty();
+        }
+        boolean checked = serial.get() <= trusted;
+        if (checked && !filter.mightContain(serial.get())) {
+            filtered.increment();
+            return Optional.empty();
+        }
+        Optional<SoldVoucher> soldVoucher = voucherInventory.findBySerial(serial.get());
+        if (soldVoucher.isPresent()) {
+            found.increment();
+        } else if (checked) {
+            falsePositives.increment();
+        }
+        return soldVoucher;
+    }
+}
@@ -0,0 +1,74 @@
+package videoshop.order;
+
+import org.salespointframework.catalog.ProductIdentifier;
+import org.salespointframework.order.Cart;
+import org.salespointframework.quantity.Quantity;
+import org.springframework.data.util.Streamable;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import videoshop.catalog.Buyable;
+import videoshop.catalog.ShopCatalog;
+import videoshop.inventory.SoldVoucher;
+import videoshop.inventory.VoucherInventory;
+
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Assembles a {@link Cart} from a {@link SessionCart}, loading all products and all redeemed vouchers with a single
+ * query each. Products removed from the catalog and vouchers that no longer exist are left out.
+ */
+@Component
+class CartLoader {
+
+    private final ShopCatalog shopCatalog;
+    private final VoucherInventory voucherInventory;
+
+    /**
+     * Creates a new {@link CartLoader}
+     *
+     * @param shopCatalog      must not be {@literal null}.
+     * @param voucherInventory must not be {@literal null}.
+     */
+    CartLoader(ShopCatalog shopCatalog, VoucherInventory voucherInventory) {
+        Assert.notNull(shopCatalog, "ShopCatalog must not be null");
+        Assert.notNull(voucherInventory, "VoucherInventory must not be null");
+        this.shopCatalog = shopCatalog;
+        this.voucherInventory = voucherInventory;
+    }
+
+    /**
+     * Assemble the {@link Cart} of the given {@link SessionCart}
+     *
+     * @param sessionCart must not be {@literal null}.
+     * @return a new Cart with the current state of all products and vouchers
+     */
+    Cart load(SessionCart sessionCart) {
+        Assert.notNull(sessionCart, "SessionCart must not be null!");
+        Cart cart = new Cart();
+        if (!sessionCart.getItems().isEmpty()) {
+            Map<ProductIdentifier, Buyable> products = Streamable
+                    .of(shopCatalog.findAllById(sessionCart.getItems().keySet())).stream()
+                    .collect(Collectors.toMap(Buyable::getId, Function.identity()));
+            sessionCart.getItems().forEach((productIdentifier, quantity) -> {
+                Buyable product = products.get(productIdentifier);
+                if (product != null) {
+                    cart.addOrUpdateItem(product, Quantity.of(quantity));
+                }
+            });
+        }
+        if (!sessionCart.getRedeemedVouchers().isEmpty()) {
+            Map<Long, SoldVoucher> soldVouchers = voucherInventory
+                    .findBySerialIn(sessionCart.getRedeemedVouchers()).stream()
+                    .collect(Collectors.toMap(SoldVoucher::getSerial, Function.identity()));
+            sessionCart.getRedeemedVouchers().forEach(serial -> {
+                SoldVoucher soldVoucher = soldVouchers.get(serial);
+                if (soldVoucher != null) {
+                    cart.addOrUpdateItem(new UsedVoucher(soldVoucher), Quantity.of(1));
+                }
+            });
+        }
+        return cart;
+    }
+}
@@ -0,0 +1,173 @@
+package videoshop.order;
+
+import org.javamoney.moneta.Money;
+import org.salespointframework.order.Cart;
+import org.salespointframework.order.CartItem;
+import org.salespointframework.order.Order;
+import org.salespointframework.order.OrderManager;
+import org.salespointframework.payment.Cash;
+import org.salespointframework.quantity.Quantity;
+import org.salespointframework.useraccount.UserAccount;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import videoshop.catalog.Voucher;
+import videoshop.inventory.SoldVoucher;
+import videoshop.inventory.SoldVoucherFactory;
+import videoshop.inventory.VoucherInventory;
+
+import javax.money.MonetaryAmount;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * Turns a {@link Cart} into a completed {@link Order} as a single unit of work.
+ * All statements of a checkout run in one transaction and inserts are handed to JPA in batches (see
+ * {@code hibernate.jdbc.batch_size} in {@code application.properties}). If a redeemed voucher is spent concurrently,
+ * the whole checkout is rolled back and retried with fresh balances.
+ */
+@Component
+class Checkout {
+
+    static final int MAX_ATTEMPTS = 10;
+
+    private final OrderManager<Order> orderManager;
+    private final VoucherInventory voucherInventory;
+    private final UsedVoucherInventory usedVoucherInventory;
+    private final VoucherSettlement voucherSettlement;
+    private final SoldVoucherFactory soldVoucherFactory;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Creates a new {@link Checkout}
+     *
+     * @param orderManager         must not be {@literal null}.
+     * @param voucherInventory     must not be {@literal null}.
+     * @param usedVoucherInventory must not be {@literal null}.
+     * @param voucherSettlement    must not be {@literal null}.
+     * @param soldVoucherFactory   must not be {@literal null}.
+     * @param transactionManager   must not be {@literal null}.
+     */
+    Checkout(OrderManager<Order> orderManager, VoucherInventory voucherInventory,
+             UsedVoucherInventory usedVoucherInventory, VoucherSettlement voucherSettlement, SoldVoucherFactory soldVoucherFactory,
+             PlatformTransactionManager transactionManager) {
+
+        Assert.notNull(orderManager, "OrderManager must not be null!");
+        Assert.notNull(voucherInventory, "VoucherInventory must not be null");
+        Assert.notNull(usedVoucherInventory, "UsedVoucherInventory must not be null");
+        Assert.notNull(voucherSettlement, "VoucherSettlement must not be null");
+        Assert.notNull(soldVoucherFactory, "SoldVoucherFactory must not be null");
+        Assert.notNull(transactionManager, "PlatformTransactionManager must not be null");
+        this.orderManager = orderManager;
+        this.voucherInventory = voucherInventory;
+        this.usedVoucherInventory = usedVoucherInventory;
+        this.voucherSettlement = voucherSettlement;
+        this.soldVoucherFactory = soldVoucherFactory;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Check out the given {@link Cart} for the given {@link UserAccount}. The cart is left untouched.
+     *
+     * @param cart    must not be {@literal null}.
+     * @param account must not be {@literal null}.
+     * @return the {@link SoldVoucher}s bought with this checkout
+     * @throws OptimisticLockingFailureException if the redeemed vouchers were changed concurrently on every attempt
+     */
+    List<SoldVoucher> checkout(Cart cart, UserAccount account) {
+        Assert.notNull(cart, "Cart must not be null!");
+        Assert.notNull(account, "UserAccount must not be null!");
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return transactionTemplate.execute(status -> checkoutOnce(cart, account));
+            } catch (OptimisticLockingFailureException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Single checkout attempt, to be run within a transaction
+     *
+     * @param cart    Cart to check out
+     * @param account UserAccount of the customer
+     * @return the bought SoldVouchers
+     */
+    private List<SoldVoucher> checkoutOnce(Cart cart, UserAccount account) {
+        // (｡◕‿◕｡)
+        // Mit completeOrder(…) wird der Warenkorb in die Order überführt, diese wird dann bezahlt und abgeschlossen.
+        // Orders können nur abgeschlossen werden, wenn diese vorher bezahlt wurden.
+        var order = new Order(account, Cash.CASH);
+        cart.addItemsTo(order);
+        List<UsedVoucher> usedVouchers = getUsedVouchers(cart);
+        // The order lines credit the value the vouchers had when they were put into the cart
+        MonetaryAmount credited = cart.get().filter(cartItem -> cartItem.getProduct() instanceof UsedVoucher)
+                .map(CartItem::getPrice)
+                .reduce(Money.of(0, EURO), MonetaryAmount::add)
+                .negate();
+        // Spend the vouchers, safe against concurrent redemptions of the same voucher
+        MonetaryAmount remainder = voucherSettlement.settle(order.getTotal(), credited, usedVouchers);
+        saveUsedVouchers(usedVouchers);
+        order.addChargeLine(remainder, "Remaining voucher value");
+        orderManager.payOrder(order);
+        orderManager.completeOrder(order);
+        return createSoldVouchersFromCart(cart);
+    }
+
+    /**
+     * Make the usage of the usedVouchers persistent. Their {@link SoldVoucher}s are updated by the
+     * {@link VoucherSettlement}. UsedVouchers are bookkeeping, not stock, so they are kept out of the inventory (see
+     * {@code StockedLineItems}).
+     *
+     * @param usedVouchers affected Vouchers
+     */
+    private void saveUsedVouchers(List<UsedVoucher> usedVouchers) {
+        if (usedVouchers.isEmpty()) {
+            return;
+        }
+        this.usedVoucherInventory.saveAll(usedVouchers);
+    }
+
+    /**
+     * Helper method used to create soldVouchers from a given cart
+     *
+     * @param cart Cart containing the Vouchers
+     * @return created SoldVouchers in a List
+     */
+    private List<SoldVoucher> createSoldVouchersFromCart(Cart cart) {
+        List<SoldVoucher> soldVouchersInOrder = new ArrayList<>();
+        // Create a new SoldVoucher for each bought one
+        cart.get().filter(cartItem -> cartItem.getProduct() instanceof Voucher)
+                .forEach(cartItem -> {
+                    int count = 0;
+                    while (cartItem.getQuantity().isGreaterThan(Quantity.of(count))) {
+                        soldVouchersInOrder.add(soldVoucherFactory.create(cartItem.getProduct().getPrice()));
+                        ++count;
+                    }
+                });
+        // Make them persistent in a single batch
+        if (!soldVouchersInOrder.isEmpty()) {
+            voucherInventory.saveAll(soldVouchersInOrder);
+        }
+        return soldVouchersInOrder;
+    }
+
+    /**
+     * Helper method to retrieve usedVouchers from cart
+     *
+     * @param cart Cart containing the Vouchers
+     * @return List of usedVouchers
+     */
+    static List<UsedVoucher> getUsedVouchers(Cart cart) {
+        return cart.get().filter(cartItem -> cartItem.getProduct() instanceof UsedVoucher)
+                .map(cartItem -> (UsedVoucher) cartItem.getProduct())
+                .collect(Collectors.toList());
+    }
+}
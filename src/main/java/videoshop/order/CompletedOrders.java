@@ -0,0 +1,55 @@
+package videoshop.order;
+
+import org.salespointframework.order.Order;
+import org.salespointframework.order.OrderIdentifier;
+import org.salespointframework.useraccount.UserAccount;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keyset paginated access to completed {@link Order}s, newest first.
+ * A page continues strictly before the (creation date, identifier) of the last order on the previous page, so the
+ * database walks the {@code ORDERS_DATE_CREATED_IDX} index (see {@code data.sql}) instead of skipping an offset.
+ * The first page of a date range starts before its exclusive upper bound and an empty identifier.
+ */
+interface CompletedOrders extends Repository<Order, OrderIdentifier> {
+
+    /**
+     * Find completed orders created in [from, before)
+     *
+     * @param from       inclusive lower bound of the creation date
+     * @param beforeDate creation date of the last order on the previous page
+     * @param beforeId   identifier of the last order on the previous page
+     * @param pageable   size of the page, must request the first page
+     * @return matching orders, newest first
+     */
+    @Query("select o from Order o where o.orderStatus = org.salespointframework.order.OrderStatus.COMPLETED "
+            + "and o.dateCreated >= :from "
+            + "and (o.dateCreated < :beforeDate or (o.dateCreated = :beforeDate and o.id.id < :beforeId)) "
+            + "order by o.dateCreated desc, o.id.id desc")
+    List<Order> findPage(@Param("from") LocalDateTime from, @Param("beforeDate") LocalDateTime beforeDate,
+                         @Param("beforeId") String beforeId, Pageable pageable);
+
+    /**
+     * Find completed orders of a customer created in [from, before)
+     *
+     * @param customer   customer who placed the orders
+     * @param from       inclusive lower bound of the creation date
+     * @param beforeDate creation date of the last order on the previous page
+     * @param beforeId   identifier of the last order on the previous page
+     * @param pageable   size of the page, must request the first page
+     * @return matching orders, newest first
+     */
+    @Query("select o from Order o where o.orderStatus = org.salespointframework.order.OrderStatus.COMPLETED "
+            + "and o.userAccount = :customer and o.dateCreated >= :from "
+            + "and (o.dateCreated < :beforeDate or (o.dateCreated = :beforeDate and o.id.id < :beforeId)) "
+            + "order by o.dateCreated desc, o.id.id desc")
+    List<Order> findPage(@Param("customer") UserAccount customer, @Param("from") LocalDateTime from,
+                         @Param("beforeDate") LocalDateTime beforeDate, @Param("beforeId") String beforeId,
+                         Pageable pageable);
+}
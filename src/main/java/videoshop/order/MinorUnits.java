@@ -0,0 +1,48 @@
+package videoshop.order;
+
+import org.javamoney.moneta.Money;
+import org.springframework.util.Assert;
+
+import javax.money.CurrencyUnit;
+import javax.money.MonetaryAmount;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Conversion of {@link MonetaryAmount}s from and to integer minor units of their currency, e.g. euro cents.
+ * Arithmetic on minor units is exact and does not allocate, so it is used for settling vouchers.
+ */
+final class MinorUnits {
+
+    private MinorUnits() { }
+
+    /**
+     * Convert an amount to minor units of its currency
+     *
+     * @param amount must not be {@literal null} and must not have a finer precision than its currency
+     * @return amount in minor units
+     * @throws IllegalArgumentException if the amount can not be represented in minor units exactly
+     */
+    static long of(MonetaryAmount amount) {
+        Assert.notNull(amount, "Amount must not be null!");
+        try {
+            return amount.getNumber().numberValue(BigDecimal.class)
+                    .setScale(amount.getCurrency().getDefaultFractionDigits(), RoundingMode.UNNECESSARY)
+                    .unscaledValue().longValueExact();
+        } catch (ArithmeticException e) {
+            throw new IllegalArgumentException("Amount " + amount + " can not be represented in minor units!", e);
+        }
+    }
+
+    /**
+     * Convert minor units to an amount of the given currency
+     *
+     * @param minorUnits amount in minor units
+     * @param currency   must not be {@literal null}.
+     * @return the amount
+     */
+    static MonetaryAmount toAmount(long minorUnits, CurrencyUnit currency) {
+        Assert.notNull(currency, "Currency must not be null!");
+        return Money.of(BigDecimal.valueOf(minorUnits, currency.getDefaultFractionDigits()), currency);
+    }
+}
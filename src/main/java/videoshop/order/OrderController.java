@@ -15,23 +15,18 @@
  */
 package videoshop.order;
 
-import org.javamoney.moneta.Money;
 import org.salespointframework.catalog.Product;
 import org.salespointframework.core.AbstractEntity;
-import org.salespointframework.inventory.UniqueInventory;
-import org.salespointframework.inventory.UniqueInventoryItem;
 import org.salespointframework.order.Cart;
-import org.salespointframework.order.Order;
-import org.salespointframework.order.OrderManager;
-import org.salespointframework.order.OrderStatus;
-import org.salespointframework.payment.Cash;
-import org.salespointframework.quantity.Quantity;
 import org.salespointframework.useraccount.UserAccount;
 import org.salespointframework.useraccount.web.LoggedIn;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
 import org.springframework.validation.Errors;
 import org.springframework.validation.Validator;
 import org.springframework.validation.annotation.Validated;
@@ -42,67 +37,74 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.SessionAttributes;
 import videoshop.catalog.Buyable;
 import videoshop.catalog.Disc;
-import videoshop.catalog.Voucher;
+import videoshop.catalog.StockReservations;
 import videoshop.inventory.SoldVoucher;
-import videoshop.inventory.VoucherInventory;
+import videoshop.inventory.VoucherLookup;
 
-import javax.money.MonetaryAmount;
-import java.util.Iterator;
-import java.util.LinkedList;
+import javax.servlet.http.HttpSession;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicReference;
-
-import static org.salespointframework.core.Currencies.EURO;
+import java.util.stream.Collectors;
 
 /**
- * A Spring MVC controller to manage the {@link Cart}. {@link Cart} instances are held in the session as they're
- * specific to a certain user. That's also why the entire controller is secured by a {@code PreAuthorize} clause.
+ * A Spring MVC controller to manage the {@link Cart}. Carts are held in the session in their compact
+ * {@link SessionCart} form as they're specific to a certain user. That's also why the entire controller is secured by
+ * a {@code PreAuthorize} clause. The stock put into a cart is reserved for the session by the
+ * {@link StockReservations} until the cart is checked out or abandoned, and reserved again whenever the cart is shown
+ * or checked out.
  *
  * @author Paul Henke
  * @author Oliver Gierke
  */
 @Controller
 @PreAuthorize("isAuthenticated()")
-@SessionAttributes("cart")
+@SessionAttributes("sessionCart")
 class OrderController {
 
-    private final OrderManager<Order> orderManager;
-    private final VoucherInventory voucherInventory;
-    private final UsedVoucherInventory usedVoucherInventory;
-    private final UniqueInventory<UniqueInventoryItem> inventory;
+    private final OrderOverview orderOverview;
+    private final VoucherLookup voucherLookup;
+    private final CartLoader cartLoader;
+    private final Checkout checkout;
+    private final StockReservations reservations;
 
     /**
-     * Creates a new {@link OrderController} with the given {@link OrderManager}, {@link VoucherInventory},
-     * {@link UsedVoucherInventory} and {@link UniqueInventory}.
+     * Creates a new {@link OrderController} with the given {@link OrderOverview}, {@link VoucherLookup},
+     * {@link CartLoader}, {@link Checkout} and {@link StockReservations}.
      *
-     * @param orderManager         must not be {@literal null}.
-     * @param voucherInventory     must not be {@literal null}.
-     * @param usedVoucherInventory must not be {@literal null}
-     * @param inventory            must not be {@literal null}.
+     * @param orderOverview must not be {@literal null}.
+     * @param voucherLookup must not be {@literal null}.
+     * @param cartLoader    must not be {@literal null}.
+     * @param checkout      must not be {@literal null}.
+     * @param reservations  must not be {@literal null}.
      */
-    OrderController(OrderManager<Order> orderManager, VoucherInventory voucherInventory,
-                    UsedVoucherInventory usedVoucherInventory, UniqueInventory<UniqueInventoryItem> inventory) {
+    OrderController(OrderOverview orderOverview, VoucherLookup voucherLookup, CartLoader cartLoader,
+                    Checkout checkout, StockReservations reservations) {
 
-        Assert.notNull(orderManager, "OrderManager must not be null!");
-        Assert.notNull(voucherInventory, "VoucherInventory must not be null");
-        Assert.notNull(usedVoucherInventory, "UsedVoucherInventory must not be null");
-        Assert.notNull(inventory, "UniqueInventory must not be null");
-        this.orderManager = orderManager;
-        this.voucherInventory = voucherInventory;
-        this.usedVoucherInventory = usedVoucherInventory;
-        this.inventory = inventory;
+        Assert.notNull(orderOverview, "OrderOverview must not be null!");
+        Assert.notNull(voucherLookup, "VoucherLookup must not be null");
+        Assert.notNull(cartLoader, "CartLoader must not be null");
+        Assert.notNull(checkout, "Checkout must not be null");
+        Assert.notNull(reservations, "StockReservations must not be null");
+        this.orderOverview = orderOverview;
+        this.voucherLookup = voucherLookup;
+        this.cartLoader = cartLoader;
+        this.checkout = checkout;
+        this.reservations = reservations;
     }
 
     /**
-     * Creates a new {@link Cart} instance to be stored in the session (see the class-level {@link SessionAttributes}
-     * annotation).
+     * Creates a new {@link SessionCart} instance to be stored in the session (see the class-level
+     * {@link SessionAttributes} annotation). Only identifiers are kept in the session, the {@link Cart} is assembled by
+     * the {@link CartLoader} whenever it is shown or checked out.
      *
-     * @return a new {@link Cart} instance.
+     * @return a new {@link SessionCart} instance.
      */
-    @ModelAttribute("cart")
-    Cart initializeCart() {
-        return new Cart();
+    @ModelAttribute("sessionCart")
+    SessionCart initializeCart() {
+        return new SessionCart();
     }
 
     /**
@@ -110,14 +112,18 @@ class OrderController {
      * {@code pid} is {@link Disc}. For all domain types extending {@link AbstractEntity} (directly or indirectly) a tiny
      * Salespoint extension will directly load the object instance from the database. If the identifier provided is
      * invalid (invalid format or no {@link Product} with the id found), {@literal null} will be handed into the method.
+     * The items are only added if their stock can be reserved for the session, otherwise the product is shown again
+     * with the stock left.
      *
      * @param buyable the disc that should be added to the cart (may be {@literal null}).
      * @param number  number of discs that should be added to the cart.
      * @param cart    must not be {@literal null}.
+     * @param session the session holding the cart, must not be {@literal null}.
      * @return the view name.
      */
     @PostMapping("/cart")
-    String addItem(@RequestParam("pid") Buyable buyable, @RequestParam("number") int number, @ModelAttribute Cart cart) {
+    String addItem(@RequestParam("pid") Buyable buyable, @RequestParam("number") int number,
+                   @ModelAttribute("sessionCart") SessionCart cart, HttpSession session) {
 
         // (｡◕‿◕｡)
         // Das Inputfeld im View ist eigentlich begrenzt, allerdings sollte man immer auch serverseitig validieren
@@ -125,7 +131,11 @@ class OrderController {
 
         // (｡◕‿◕｡)
         // Wir fügen dem Warenkorb die Disc in entsprechender Anzahl hinzu.
-        cart.addOrUpdateItem(buyable, Quantity.of(amount));
+        int total = cart.getItems().getOrDefault(buyable.getId(), 0) + amount;
+        if (!reservations.reserve(session.getId(), buyable, total)) {
+            return "redirect:/disc/" + buyable.getId();
+        }
+        cart.addOrUpdateItem(buyable.getId(), amount);
 
         // (｡◕‿◕｡)
         // Je nachdem ob disc eine DVD oder eine Bluray ist, leiten wir auf die richtige Seite weiter
@@ -147,26 +157,25 @@ class OrderController {
      * @param redeemVoucherForm Form data binding
      * @param errors            Errors while binding form data
      * @param cart              Cart to apply the Voucher to
+     * @param model             data structure for next view
+     * @param session           the session holding the cart
      * @return next view name
      */
     @PostMapping("/cart/redeem")
-    String redeemVoucher(@ModelAttribute("redeemVoucherForm") @Validated RedeemVoucherForm redeemVoucherForm, Errors errors, @ModelAttribute Cart cart) {
+    String redeemVoucher(@ModelAttribute("redeemVoucherForm") @Validated RedeemVoucherForm redeemVoucherForm, Errors errors,
+                         @ModelAttribute("sessionCart") SessionCart cart, Model model, HttpSession session) {
+        // Look the voucher up once and share the result with the Validator, unknown ones never reach the database
+        Optional<SoldVoucher> soldVoucher = StringUtils.hasText(redeemVoucherForm.getId())
+                ? this.voucherLookup.findByIdentifier(redeemVoucherForm.getId())
+                : Optional.empty();
         // How is validation thought to be done?
-        Validator validator = new RedeemVoucherFormValidator(voucherInventory, cart);
+        Validator validator = new RedeemVoucherFormValidator(soldVoucher, cart);
         validator.validate(redeemVoucherForm, errors);
         if (errors.hasErrors()) {
-            return basket(redeemVoucherForm);
+            return basket(redeemVoucherForm, cart, model, session);
         }
-        AtomicReference<SoldVoucher> atomicSoldVoucher = new AtomicReference<>();
-        this.voucherInventory.findAll().forEach(soldVoucher -> {
-            if (soldVoucher.getIdentifier().equals(redeemVoucherForm.getId())) {
-                // Happens exactly once
-                atomicSoldVoucher.set(soldVoucher);
-            }
-        });
         // No test for existence needed as this is checked by Validator
-        UsedVoucher toRedeem = new UsedVoucher(atomicSoldVoucher.get());
-        cart.addOrUpdateItem(toRedeem, Quantity.of(1));
+        cart.redeem(soldVoucher.get().getSerial());
         return "redirect:/cart";
     }
 
@@ -174,38 +183,61 @@ class OrderController {
      * Create binding for cart with associated Voucher form
      *
      * @param redeemVoucherForm Form data binding
+     * @param cart              Cart to be shown
+     * @param model             data structure for next view
+     * @param session           the session holding the cart
      * @return next view name
      */
     @GetMapping("/cart")
-    String basket(@ModelAttribute("redeemVoucherForm") RedeemVoucherForm redeemVoucherForm) {
+    String basket(@ModelAttribute("redeemVoucherForm") RedeemVoucherForm redeemVoucherForm,
+                  @ModelAttribute("sessionCart") SessionCart cart, Model model, HttpSession session) {
+        Cart loaded = cartLoader.load(cart);
+        model.addAttribute("cart", loaded);
+        model.addAttribute("unavailable", !reserve(loaded, session));
         return "cart";
     }
 
+    /**
+     * Reserve the content of a {@link Cart} for the session again, renewing reservations about to expire, taking back
+     * expired ones and releasing those of products no longer in the cart.
+     *
+     * @param cart    must not be {@literal null}.
+     * @param session the session holding the cart, must not be {@literal null}.
+     * @return whether the stock of everything in the cart is reserved
+     */
+    private boolean reserve(Cart cart, HttpSession session) {
+        Map<Buyable, Long> units = cart.get().filter(cartItem -> cartItem.getProduct() instanceof Buyable)
+                .collect(Collectors.toMap(cartItem -> (Buyable) cartItem.getProduct(),
+                        cartItem -> cartItem.getQuantity().getAmount().longValue()));
+        return reservations.reserveAll(session.getId(), units);
+    }
+
     /**
      * Checks out the current state of the {@link Cart}. Using a method parameter of type {@code Optional<UserAccount>}
      * annotated with {@link LoggedIn} you can access the {@link UserAccount} of the currently logged in user.
+     * The cart is only checked out if its stock can still be reserved for the session, otherwise the cart is shown
+     * again. The stock reserved for the cart is released once it has been sold.
      *
-     * @param cart        will never be {@literal null}.
+     * @param sessionCart will never be {@literal null}.
      * @param userAccount will never be {@literal null}.
      * @param model       data structure for next view
+     * @param session     the session holding the cart, must not be {@literal null}.
      * @return the view name.
      */
     @PostMapping("/checkout")
-    String buy(@ModelAttribute Cart cart, @LoggedIn Optional<UserAccount> userAccount, Model model) {
+    String buy(@ModelAttribute("sessionCart") SessionCart sessionCart, @LoggedIn Optional<UserAccount> userAccount,
+               Model model, HttpSession session) {
 
-        return userAccount.map(account -> {// (｡◕‿◕｡)
-            // Mit completeOrder(…) wird der Warenkorb in die Order überführt, diese wird dann bezahlt und abgeschlossen.
-            // Orders können nur abgeschlossen werden, wenn diese vorher bezahlt wurden.
-            var order = new Order(account, Cash.CASH);
-            cart.addItemsTo(order);
-            List<UsedVoucher> usedVouchers = getUsedVouchers(cart);
-            recalculateVoucherValues(order, usedVouchers);
-            MonetaryAmount remainder = calculateRemainderAndUpdateDatabase(usedVouchers);
-            order.addChargeLine(remainder, "Remaining voucher value");
-            orderManager.payOrder(order);
-            orderManager.completeOrder(order);
-            List<SoldVoucher> soldVouchersInOrder = createSoldVouchersFromCart(cart);
-            cart.clear();
+        return userAccount.map(account -> {
+            // The whole checkout is done in a single transaction
+            Cart cart = cartLoader.load(sessionCart);
+            if (!reserve(cart, session)) {
+                return "redirect:/cart";
+            }
+            List<UsedVoucher> usedVouchers = Checkout.getUsedVouchers(cart);
+            List<SoldVoucher> soldVouchersInOrder = checkout.checkout(cart, account);
+            sessionCart.clear();
+            reservations.release(session.getId());
             if (soldVouchersInOrder.isEmpty() && usedVouchers.isEmpty()) {
                 return "redirect:/";
             } else {
@@ -218,110 +250,35 @@ class OrderController {
     }
 
     /**
-     * Calculate the total of remaining value on the usedVouchers and make the usage persistent
-     *
-     * @param usedVouchers affected Vouchers
-     * @return Remaining sum on these Vouchers
-     */
-    private MonetaryAmount calculateRemainderAndUpdateDatabase(List<UsedVoucher> usedVouchers) {
-        MonetaryAmount remainder = Money.of(0, EURO);
-        for (UsedVoucher usedVoucher : usedVouchers) {
-            // Update all SoldVouchers
-            this.voucherInventory.save(usedVoucher.getAssignedSoldVoucher());
-            // Add UsedVouchers to inventory to make them sellable
-            this.usedVoucherInventory.save(usedVoucher);
-            this.inventory.save(new UniqueInventoryItem(usedVoucher, Quantity.of(1)));
-            remainder = remainder.add(usedVoucher.getAvailableValue());
-        }
-        return remainder;
-    }
-
-    /**
-     * Helper method to calculate the remaining value of the usedVouchers in this order
+     * Show a page of completed orders and a page of vouchers with a remaining value. Both are paginated by keyset, the
+     * orders can be filtered by date range and customer.
      *
-     * @param order        Order containing the vouchers
-     * @param usedVouchers List of usedVouchers
-     */
-    private void recalculateVoucherValues(Order order, List<UsedVoucher> usedVouchers) {
-        Iterator<UsedVoucher> usedVoucherIterator = usedVouchers.iterator();
-        UsedVoucher nextUsedVoucher;
-        MonetaryAmount available;
-        // Use a copy of order total
-        MonetaryAmount dueSum = Money.of(order.getTotal().getNumber().doubleValue(), order.getTotal().getCurrency());
-        while (usedVoucherIterator.hasNext()) {
-            nextUsedVoucher = usedVoucherIterator.next();
-            if (dueSum.isNegative()) {
-                available = nextUsedVoucher.getAvailableValue();
-                if (dueSum.add(available).isPositiveOrZero()) {
-                    // This voucher is partly needed to pay the bill
-                    nextUsedVoucher.renewAvailableValue(dueSum.negate());
-                    dueSum = Money.of(0, EURO);
-                } else {
-                    // This voucher is not needed to pay the bill
-                    dueSum = dueSum.add(available);
-                    nextUsedVoucher.renewAvailableValue(available);
-                }
-            } else {
-                // This voucher is needed to pay the bill
-                nextUsedVoucher.renewAvailableValue(Money.of(0, EURO));
-            }
-        }
-    }
-
-    /**
-     * Helper method to retrieve usedVouchers from cart
-     *
-     * @param cart Cart containing the Vouchers
-     * @return List of usedVouchers
-     */
-    private List<UsedVoucher> getUsedVouchers(@ModelAttribute Cart cart) {
-        List<UsedVoucher> usedVouchers = new LinkedList<>();
-        // Find all used vouchers
-        cart.get().filter(cartItem -> cartItem.getProduct() instanceof UsedVoucher)
-                .forEach(cartItem -> usedVouchers.add((UsedVoucher) cartItem.getProduct()));
-        return usedVouchers;
-    }
-
-    /**
-     * Helper method used to create soldVouchers from a given cart
-     *
-     * @param cart Cart containing the Vouchers
-     * @return created SoldVouchers in a List
+     * @param from          first day of the shown orders (optional)
+     * @param to            last day of the shown orders (optional)
+     * @param customer      username of the customer (optional)
+     * @param beforeDate    creation date of the last order on the previous page (optional)
+     * @param beforeId      identifier of the last order on the previous page (optional)
+     * @param vouchersAfter serial of the last voucher on the previous page
+     * @param model         data structure for next view
+     * @return the view name.
      */
-    private List<SoldVoucher> createSoldVouchersFromCart(@ModelAttribute Cart cart) {
-        // Temporary data structure
-        List<SoldVoucher> soldVouchersInOrder = new LinkedList<>();
-        // Filter all vouchers
-        cart.get().filter(cartItem -> cartItem.getProduct() instanceof Voucher)
-                // Create a new SoldVoucher for each bought one and make it persistent and reference it in our
-                // temporary structure
-                .forEach(cartItem -> {
-                    int count = 0;
-                    SoldVoucher newVoucher;
-                    while (cartItem.getQuantity().isGreaterThan(Quantity.of(count))) {
-                        newVoucher = new SoldVoucher((cartItem.getProduct()).getPrice());
-                        voucherInventory.save(newVoucher);
-                        soldVouchersInOrder.add(newVoucher);
-                        ++count;
-                    }
-                });
-        return soldVouchersInOrder;
-    }
-
     @GetMapping("/orders")
     @PreAuthorize("hasRole('BOSS')")
-    String orders(Model model) {
+    String orders(@RequestParam(value = "from", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+                  @RequestParam(value = "to", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to,
+                  @RequestParam(value = "customer", required = false) String customer,
+                  @RequestParam(value = "beforeDate", required = false)
+                  @DateTimeFormat(iso = ISO.DATE_TIME) LocalDateTime beforeDate,
+                  @RequestParam(value = "beforeId", required = false) String beforeId,
+                  @RequestParam(value = "vouchersAfter", defaultValue = "0") long vouchersAfter,
+                  Model model) {
 
-        model.addAttribute("ordersCompleted", orderManager.findBy(OrderStatus.COMPLETED));
-        // Clean up first
-        // Converting to List such that check for size is possible
-        List<SoldVoucher> validVouchers = new LinkedList<>();
-        voucherInventory.findAll().forEach(soldVoucher -> {
-            if (soldVoucher.getValue().isPositive()) {
-                validVouchers.add(soldVoucher);
-            }
-        });
-        model.addAttribute("validVouchers", validVouchers);
+        model.addAttribute("ordersCompleted",
+                orderOverview.findCompletedOrders(from, to, customer, beforeDate, beforeId));
+        model.addAttribute("validVouchers", orderOverview.findValidVouchers(vouchersAfter));
+        model.addAttribute("from", from);
+        model.addAttribute("to", to);
+        model.addAttribute("customer", customer);
         return "orders";
     }
 }
@@ -0,0 +1,100 @@
+package videoshop.order;
+
+import org.salespointframework.order.Order;
+import org.salespointframework.useraccount.UserAccountManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+import videoshop.inventory.SoldVoucher;
+import videoshop.inventory.VoucherInventory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Pages of completed {@link Order}s and valid {@link SoldVoucher}s for the orders dashboard.
+ * Every page is read with a keyset query fetching a single row more than shown, so memory is bounded by the page
+ * size no matter how many orders and vouchers there are.
+ */
+@Component
+class OrderOverview {
+
+    static final int PAGE_SIZE = 20;
+    static final LocalDate EARLIEST = LocalDate.of(1970, 1, 1);
+    static final LocalDate LATEST = LocalDate.of(9999, 12, 31);
+
+    private final CompletedOrders completedOrders;
+    private final VoucherInventory voucherInventory;
+    private final UserAccountManager userAccountManager;
+
+    /**
+     * Creates a new {@link OrderOverview}
+     *
+     * @param completedOrders    must not be {@literal null}.
+     * @param voucherInventory   must not be {@literal null}.
+     * @param userAccountManager must not be {@literal null}.
+     */
+    OrderOverview(CompletedOrders completedOrders, VoucherInventory voucherInventory,
+                  UserAccountManager userAccountManager) {
+        Assert.notNull(completedOrders, "CompletedOrders must not be null");
+        Assert.notNull(voucherInventory, "VoucherInventory must not be null");
+        Assert.notNull(userAccountManager, "UserAccountManager must not be null");
+        this.completedOrders = completedOrders;
+        this.voucherInventory = voucherInventory;
+        this.userAccountManager = userAccountManager;
+    }
+
+    /**
+     * Find a page of completed orders, newest first
+     *
+     * @param from       first day of the orders, {@literal null} for no lower bound
+     * @param to         last day of the orders, {@literal null} for no upper bound
+     * @param customer   username of the customer, {@literal null} or empty for all customers
+     * @param beforeDate creation date of the last order on the previous page, {@literal null} for the first page
+     * @param beforeId   identifier of the last order on the previous page, {@literal null} for the first page
+     * @return the page of orders
+     */
+    Slice<Order> findCompletedOrders(LocalDate from, LocalDate to, String customer,
+                                     LocalDateTime beforeDate, String beforeId) {
+        LocalDateTime lower = (from == null ? EARLIEST : from).atStartOfDay();
+        LocalDateTime upper = (to == null ? LATEST : to).plusDays(1).atStartOfDay();
+        if (beforeDate == null || beforeId == null || beforeDate.isAfter(upper)) {
+            beforeDate = upper;
+            beforeId = "";
+        }
+        Pageable pageable = PageRequest.of(0, PAGE_SIZE + 1);
+        List<Order> orders;
+        if (StringUtils.hasText(customer)) {
+            LocalDateTime pageBeforeDate = beforeDate;
+            String pageBeforeId = beforeId;
+            orders = userAccountManager.findByUsername(customer)
+                    .map(account -> completedOrders.findPage(account, lower, pageBeforeDate, pageBeforeId, pageable))
+                    .orElse(Collections.emptyList());
+        } else {
+            orders = completedOrders.findPage(lower, beforeDate, beforeId, pageable);
+        }
+        return slice(orders);
+    }
+
+    /**
+     * Find a page of sold vouchers with a remaining value, in the order they were sold
+     *
+     * @param after serial of the last voucher on the previous page, 0 for the first page
+     * @return the page of vouchers
+     */
+    Slice<SoldVoucher> findValidVouchers(long after) {
+        return slice(voucherInventory.findValidAfter(after, PageRequest.of(0, PAGE_SIZE + 1)));
+    }
+
+    private static <T> Slice<T> slice(List<T> content) {
+        boolean hasNext = content.size() > PAGE_SIZE;
+        return new SliceImpl<>(hasNext ? content.subList(0, PAGE_SIZE) : content, PageRequest.of(0, PAGE_SIZE),
+                hasNext);
+    }
+}
@@ -1,30 +1,29 @@
 package videoshop.order;
 
-import org.salespointframework.order.Cart;
 import org.springframework.validation.Errors;
 import org.springframework.validation.ValidationUtils;
 import org.springframework.validation.Validator;
 import videoshop.inventory.SoldVoucher;
 import videoshop.inventory.VoucherInventory;
 
-import java.util.concurrent.atomic.AtomicReference;
+import java.util.Optional;
 
 /**
  * Validator for RedeemVoucherForm
  */
 public class RedeemVoucherFormValidator implements Validator {
 
-    private final VoucherInventory voucherInventory;
-    private final Cart cart;
+    private final Optional<SoldVoucher> foundVoucher;
+    private final SessionCart cart;
 
     /**
      * Initialize a new Validator instance
      *
-     * @param voucherInventory Database ({@link VoucherInventory} of all sold vouchers (from JPA)
-     * @param cart             {@link Cart} associated to the redemption
+     * @param foundVoucher {@link SoldVoucher} found in the {@link VoucherInventory} for the submitted id, if any
+     * @param cart         {@link SessionCart} associated to the redemption
      */
-    public RedeemVoucherFormValidator(VoucherInventory voucherInventory, Cart cart) {
-        this.voucherInventory = voucherInventory;
+    public RedeemVoucherFormValidator(Optional<SoldVoucher> foundVoucher, SessionCart cart) {
+        this.foundVoucher = foundVoucher;
         this.cart = cart;
     }
 
@@ -50,22 +49,9 @@ public class RedeemVoucherFormValidator implements Validator {
         ValidationUtils.rejectIfEmpty(errors, "id", "id.empty");
         ValidationUtils.rejectIfEmpty(errors, "pwd", "pwd.empty");
         RedeemVoucherForm redeemVoucherForm = (RedeemVoucherForm) o;
-        AtomicReference<SoldVoucher> foundVoucher = new AtomicReference<>();
-        this.voucherInventory.findAll().forEach(soldVoucher -> {
-            if (soldVoucher.getIdentifier().equals(redeemVoucherForm.getId())) {
-                foundVoucher.set(soldVoucher);
-            }
-        });
-        if (foundVoucher.get() == null) {
+        if (foundVoucher.isEmpty()) {
             errors.rejectValue("id", "id.invalid");
-        } else if (cart.get().anyMatch(cartItem -> {
-            if (cartItem.getProduct() instanceof UsedVoucher) {
-                UsedVoucher uv = (UsedVoucher) cartItem.getProduct();
-                return uv.getAssignedSoldVoucher().getIdentifier().equals(foundVoucher.get().getIdentifier());
-            } else {
-                return false;
-            }
-        })) {
+        } else if (cart.isRedeemed(foundVoucher.get().getSerial())) {
             errors.rejectValue("id", "id.used");
         } else if (!foundVoucher.get().matchPass(redeemVoucherForm.getPwd())) {
             errors.rejectValue("pwd", "pwd.invalid");
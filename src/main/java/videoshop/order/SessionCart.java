@@ -0,0 +1,92 @@
+package videoshop.order;
+
+import org.salespointframework.catalog.ProductIdentifier;
+import org.salespointframework.order.Cart;
+import org.springframework.util.Assert;
+
+import java.io.Serializable;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compact representation of a customer's {@link Cart} to be held in the session. It only stores the identifiers and
+ * quantities of the products and the serials of the redeemed vouchers; a {@link Cart} is assembled from it by the
+ * {@link CartLoader} when needed.
+ */
+public class SessionCart implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private final LinkedHashMap<ProductIdentifier, Integer> items = new LinkedHashMap<>();
+    private final LinkedHashSet<Long> redeemedVouchers = new LinkedHashSet<>();
+
+    /**
+     * Add a number of units of a product, adding to the units already in the cart
+     *
+     * @param productIdentifier must not be {@literal null}.
+     * @param quantity          number of units to add, must be positive
+     */
+    public void addOrUpdateItem(ProductIdentifier productIdentifier, int quantity) {
+        Assert.notNull(productIdentifier, "ProductIdentifier must not be null!");
+        Assert.isTrue(quantity > 0, "Quantity must be positive!");
+        items.merge(productIdentifier, quantity, Integer::sum);
+    }
+
+    /**
+     * Redeem a voucher in this cart
+     *
+     * @param serial serial of the redeemed SoldVoucher
+     * @return false if the voucher has already been redeemed in this cart
+     */
+    public boolean redeem(long serial) {
+        return redeemedVouchers.add(serial);
+    }
+
+    /**
+     * Check whether a voucher has been redeemed in this cart
+     *
+     * @param serial serial of the SoldVoucher
+     * @return true if the voucher has already been redeemed in this cart
+     */
+    public boolean isRedeemed(long serial) {
+        return redeemedVouchers.contains(serial);
+    }
+
+    /**
+     * Get the products in this cart
+     *
+     * @return quantities by product, in the order the products were added
+     */
+    public Map<ProductIdentifier, Integer> getItems() {
+        return Collections.unmodifiableMap(items);
+    }
+
+    /**
+     * Get the vouchers redeemed in this cart
+     *
+     * @return serials of the redeemed SoldVouchers, in the order they were redeemed
+     */
+    public Set<Long> getRedeemedVouchers() {
+        return Collections.unmodifiableSet(redeemedVouchers);
+    }
+
+    /**
+     * Check whether this cart is empty
+     *
+     * @return true if neither products nor redeemed vouchers are in this cart
+     */
+    public boolean isEmpty() {
+        return items.isEmpty() && redeemedVouchers.isEmpty();
+    }
+
+    /**
+     * Remove everything from this cart
+     */
+    public void clear() {
+        items.clear();
+        redeemedVouchers.clear();
+    }
+}
@@ -0,0 +1,144 @@
+package videoshop.order;
+
+import org.salespointframework.catalog.ProductIdentifier;
+import org.springframework.util.Assert;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.UUID;
+
+/**
+ * Compact binary format of a {@link SessionCart} for external session stores.
+ * Identifiers in UUID format take 16 bytes, quantities and serials are written as variable length integers, so a
+ * cart of a few items fits into some dozen bytes and is decoded without reflection.
+ * The first byte never matches the first byte of a Java serialization stream, so both formats can share a column.
+ */
+final class SessionCartCodec {
+
+    static final byte MAGIC = 0x5C;
+    static final byte VERSION = 1;
+    private static final byte UUID_IDENTIFIER = 0;
+    private static final byte TEXT_IDENTIFIER = 1;
+
+    private SessionCartCodec() { }
+
+    /**
+     * Check whether the given bytes are an encoded {@link SessionCart}
+     *
+     * @param bytes must not be {@literal null}.
+     * @return true if the bytes start with the header of this format
+     */
+    static boolean isEncoded(byte[] bytes) {
+        return bytes.length >= 2 && bytes[0] == MAGIC && bytes[1] == VERSION;
+    }
+
+    /**
+     * Encode a {@link SessionCart}
+     *
+     * @param cart must not be {@literal null}.
+     * @return the encoded cart
+     */
+    static byte[] encode(SessionCart cart) {
+        Assert.notNull(cart, "SessionCart must not be null!");
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeByte(MAGIC);
+            out.writeByte(VERSION);
+            writeVarLong(out, cart.getItems().size());
+            for (var item : cart.getItems().entrySet()) {
+                writeIdentifier(out, item.getKey().toString());
+                writeVarLong(out, item.getValue());
+            }
+            writeVarLong(out, cart.getRedeemedVouchers().size());
+            for (long serial : cart.getRedeemedVouchers()) {
+                writeVarLong(out, serial);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Decode a {@link SessionCart}
+     *
+     * @param bytes an encoded SessionCart, must not be {@literal null}.
+     * @return the decoded cart
+     * @throws IllegalArgumentException if the bytes are not an encoded SessionCart
+     */
+    static SessionCart decode(byte[] bytes) {
+        Assert.isTrue(isEncoded(bytes), "Bytes are not an encoded SessionCart!");
+        SessionCart cart = new SessionCart();
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes, 2, bytes.length - 2))) {
+            for (long items = readVarLong(in); items > 0; items--) {
+                ProductIdentifier productIdentifier = ProductIdentifier.of(readIdentifier(in));
+                cart.addOrUpdateItem(productIdentifier, Math.toIntExact(readVarLong(in)));
+            }
+            for (long vouchers = readVarLong(in); vouchers > 0; vouchers--) {
+                cart.redeem(readVarLong(in));
+            }
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Malformed SessionCart!", e);
+        }
+        return cart;
+    }
+
+    private static void writeIdentifier(DataOutputStream out, String identifier) throws IOException {
+        UUID uuid = parseUuid(identifier);
+        if (uuid != null) {
+            out.writeByte(UUID_IDENTIFIER);
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        } else {
+            out.writeByte(TEXT_IDENTIFIER);
+            out.writeUTF(identifier);
+        }
+    }
+
+    private static String readIdentifier(DataInputStream in) throws IOException {
+        byte kind = in.readByte();
+        if (kind == UUID_IDENTIFIER) {
+            return new UUID(in.readLong(), in.readLong()).toString();
+        } else if (kind == TEXT_IDENTIFIER) {
+            return in.readUTF();
+        }
+        throw new IOException("Unknown identifier kind " + kind);
+    }
+
+    /**
+     * Parse identifiers in canonical UUID format only, so decoding restores them exactly
+     */
+    private static UUID parseUuid(String identifier) {
+        try {
+            UUID uuid = UUID.fromString(identifier);
+            return uuid.toString().equals(identifier) ? uuid : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        Assert.isTrue(value >= 0, "Only non-negative numbers are supported!");
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    private static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            byte b = in.readByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed variable length number");
+    }
+}
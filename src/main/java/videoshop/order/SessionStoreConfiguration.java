@@ -0,0 +1,81 @@
+package videoshop.order;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.ConversionService;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.convert.converter.GenericConverter;
+import org.springframework.core.convert.support.GenericConversionService;
+import org.springframework.core.serializer.support.DeserializingConverter;
+import org.springframework.core.serializer.support.SerializingConverter;
+
+import java.util.Set;
+
+/**
+ * Configuration of the external session store. Sessions are kept in the store selected by
+ * {@code spring.session.store-type} (see {@code application.properties}), so carts survive restarts and a session can
+ * move between instances. {@link SessionCart}s are written in the compact {@link SessionCartCodec} format, all other
+ * session attributes by Java serialization.
+ * <p>
+ * Sharing the sessions doesn't make the shop ready for several instances by itself, as some state is still kept per
+ * instance:
+ * <ul>
+ * <li>the stock reservations of the carts ({@link videoshop.catalog.StockReservations}), which only count the carts
+ * served by the instance,</li>
+ * <li>the catalog versions ({@code videoshop.catalog.CatalogVersions}) and with them the ETags of the catalog pages,
+ * the cached listings, rendered cards and stock levels, which only follow changes made on the instance and pick up
+ * the others once their entries expire,</li>
+ * <li>the search index ({@link videoshop.catalog.CatalogSearch}) and the genre facets
+ * ({@code videoshop.catalog.GenreFacets}), which only follow catalog changes made on the instance.</li>
+ * </ul>
+ * Voucher serials are allocated from a database sequence and the voucher lookup only trusts its filter for serials
+ * issued a while ago (see {@link videoshop.inventory.VoucherLookup}), so those are safe to share.
+ */
+@Configuration
+class SessionStoreConfiguration {
+
+    /**
+     * Conversion of session attributes from and to bytes, picked up by Spring Session by its name
+     *
+     * @return the ConversionService
+     */
+    @Bean
+    ConversionService springSessionConversionService() {
+        GenericConversionService conversionService = new GenericConversionService();
+        conversionService.addConverter(new SessionAttributeConverter(getClass().getClassLoader()));
+        return conversionService;
+    }
+
+    /**
+     * Converts session attributes, using the {@link SessionCartCodec} for {@link SessionCart}s
+     */
+    static class SessionAttributeConverter implements GenericConverter {
+
+        private final SerializingConverter serializer = new SerializingConverter();
+        private final DeserializingConverter deserializer;
+
+        SessionAttributeConverter(ClassLoader classLoader) {
+            this.deserializer = new DeserializingConverter(classLoader);
+        }
+
+        @Override
+        public Set<ConvertiblePair> getConvertibleTypes() {
+            return Set.of(new ConvertiblePair(Object.class, byte[].class),
+                    new ConvertiblePair(byte[].class, Object.class));
+        }
+
+        @Override
+        public Object convert(Object source, TypeDescriptor sourceType, TypeDescriptor targetType) {
+            if (source == null) {
+                return null;
+            }
+            if (byte[].class.equals(targetType.getType())) {
+                return source instanceof SessionCart
+                        ? SessionCartCodec.encode((SessionCart) source)
+                        : serializer.convert(source);
+            }
+            byte[] bytes = (byte[]) source;
+            return SessionCartCodec.isEncoded(bytes) ? SessionCartCodec.decode(bytes) : deserializer.convert(bytes);
+        }
+    }
+}
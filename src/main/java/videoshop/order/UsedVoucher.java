@@ -6,7 +6,6 @@ import org.salespointframework.catalog.Product;
 import org.springframework.util.Assert;
 import videoshop.inventory.SoldVoucher;
 
-import javax.money.CurrencyUnit;
 import javax.money.MonetaryAmount;
 import javax.persistence.Entity;
 import javax.persistence.OneToOne;
@@ -46,10 +45,8 @@ public class UsedVoucher extends Product {
      */
     public void renewAvailableValue() {
         Assert.notNull(this.assignedSoldVoucher, "No assigned SoldVoucher. Find first!");
-        // Copy data from assigned voucher by value, not by reference
-        double value = this.assignedSoldVoucher.getValue().getNumber().doubleValueExact();
-        CurrencyUnit currencyUnit = this.assignedSoldVoucher.getValue().getCurrency();
-        this.availableValue = Money.of(value, currencyUnit);
+        // Convert to Money without going through double, so the value is copied exactly
+        this.availableValue = Money.from(this.assignedSoldVoucher.getValue());
         this.setPrice(this.availableValue.negate());
     }
 
@@ -65,10 +62,8 @@ public class UsedVoucher extends Product {
         // Set data in this structure
         this.setPrice(this.getAvailableValue().subtract(updatedAvailableValue).negate());
         this.availableValue = updatedAvailableValue;
-        // Copy data to assigned voucher by value, not by reference
-        double value = this.availableValue.getNumber().doubleValueExact();
-        CurrencyUnit currencyUnit = this.availableValue.getCurrency();
-        this.assignedSoldVoucher.setValue(Money.of(value, currencyUnit));
+        // Copy data to assigned voucher, amounts are immutable
+        this.assignedSoldVoucher.setValue(this.availableValue);
     }
 
 
@@ -1,9 +1,21 @@
 package videoshop.order;
 
 import org.springframework.data.repository.CrudRepository;
+import videoshop.inventory.SoldVoucher;
+
+import java.util.Collection;
+import java.util.List;
 
 /**
  * Interface for JPA to store our UsedVouchers
  */
 public interface UsedVoucherInventory extends CrudRepository<UsedVoucher, Long> {
-}
\ No newline at end of file
+
+    /**
+     * Find the {@link UsedVoucher}s redeeming any of the given {@link SoldVoucher}s in a single query
+     *
+     * @param soldVouchers redeemed SoldVouchers
+     * @return the matching UsedVouchers, in no particular order
+     */
+    List<UsedVoucher> findByAssignedSoldVoucherIn(Collection<SoldVoucher> soldVouchers);
+}
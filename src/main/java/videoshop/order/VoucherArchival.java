@@ -0,0 +1,199 @@
+package videoshop.order;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.salespointframework.time.BusinessTime;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import videoshop.inventory.ArchivedVoucher;
+import videoshop.inventory.ArchivedVoucherRepository;
+import videoshop.inventory.SoldVoucher;
+import videoshop.inventory.VoucherInventory;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Moves {@link SoldVoucher}s spent entirely and the {@link UsedVoucher}s that redeemed them out of the live tables
+ * into the {@link ArchivedVoucher} table, so the live tables only grow with vouchers still worth something.
+ * <p>
+ * Archival is driven by the {@link BusinessTime}: a run first marks the spent vouchers it finds with the current
+ * business time, and archives those marked at least {@link #GRACE_PERIOD} before, so a voucher lying in a cart when it
+ * was spent elsewhere is gone from the cart (see {@link CartLoader}) long before it's gone from the database.
+ * <p>
+ * Every batch runs in a short transaction of its own and the run pauses between batches. The batch size adapts to
+ * the time a batch takes: it is halved when a batch is slow, as the database is busy with checkouts then, and grows
+ * back slowly while batches are fast. A failed batch ends the run, the next run picks up where it stopped.
+ */
+@Component
+class VoucherArchival {
+
+    static final Duration GRACE_PERIOD = Duration.ofDays(1);
+    static final int MIN_BATCH_SIZE = 10;
+    static final int MAX_BATCH_SIZE = 200;
+    static final int MAX_BATCHES = 50;
+    static final Duration SLOW_BATCH = Duration.ofMillis(200);
+    static final Duration PAUSE = Duration.ofMillis(50);
+    private static final Logger LOG = LoggerFactory.getLogger(VoucherArchival.class);
+    private static final String ARCHIVED = "videoshop.vouchers.archived";
+
+    private final VoucherInventory voucherInventory;
+    private final UsedVoucherInventory usedVoucherInventory;
+    private final ArchivedVoucherRepository archivedVoucherRepository;
+    private final BusinessTime businessTime;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final Counter archivedSold;
+    private final Counter archivedUsed;
+    private final AtomicLong liveVouchers = new AtomicLong();
+    private final AtomicLong archivedVouchers = new AtomicLong();
+    private volatile int batchSize = MAX_BATCH_SIZE;
+
+    /**
+     * Creates a new {@link VoucherArchival}
+     *
+     * @param voucherInventory          must not be {@literal null}.
+     * @param usedVoucherInventory      must not be {@literal null}.
+     * @param archivedVoucherRepository must not be {@literal null}.
+     * @param businessTime              must not be {@literal null}.
+     * @param transactionManager        must not be {@literal null}.
+     * @param meterRegistry             must not be {@literal null}.
+     * @param enabled                   whether the scheduled runs archive anything
+     */
+    VoucherArchival(VoucherInventory voucherInventory, UsedVoucherInventory usedVoucherInventory,
+                    ArchivedVoucherRepository archivedVoucherRepository, BusinessTime businessTime,
+                    PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                    @Value("${videoshop.vouchers.archival.enabled:true}") boolean enabled) {
+        Assert.notNull(voucherInventory, "VoucherInventory must not be null");
+        Assert.notNull(usedVoucherInventory, "UsedVoucherInventory must not be null");
+        Assert.notNull(archivedVoucherRepository, "ArchivedVoucherRepository must not be null");
+        Assert.notNull(businessTime, "BusinessTime must not be null");
+        Assert.notNull(transactionManager, "PlatformTransactionManager must not be null");
+        Assert.notNull(meterRegistry, "MeterRegistry must not be null");
+        this.voucherInventory = voucherInventory;
+        this.usedVoucherInventory = usedVoucherInventory;
+        this.archivedVoucherRepository = archivedVoucherRepository;
+        this.businessTime = businessTime;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.archivedSold = meterRegistry.counter(ARCHIVED, "kind", "sold");
+        this.archivedUsed = meterRegistry.counter(ARCHIVED, "kind", "used");
+        Gauge.builder("videoshop.vouchers.live", liveVouchers, AtomicLong::get)
+                .description("SoldVouchers in the live table as of the last archival run").register(meterRegistry);
+        Gauge.builder("videoshop.vouchers.archive", archivedVouchers, AtomicLong::get)
+                .description("Vouchers in the archive as of the last archival run").register(meterRegistry);
+    }
+
+    /**
+     * Archive on a fixed delay, so runs never overlap
+     */
+    @Scheduled(initialDelayString = "${videoshop.vouchers.archival.interval:60000}",
+            fixedDelayString = "${videoshop.vouchers.archival.interval:60000}")
+    void scheduled() {
+        if (enabled) {
+            archive();
+        }
+    }
+
+    /**
+     * Mark and archive spent vouchers in batches until none are left or {@link #MAX_BATCHES} have been processed
+     *
+     * @return number of SoldVouchers archived
+     */
+    int archive() {
+        LocalDateTime now = businessTime.getTime();
+        LocalDateTime cutoff = now.minus(GRACE_PERIOD);
+        int archived = 0;
+        try {
+            for (int batch = 0; batch < MAX_BATCHES; batch++) {
+                int size = batchSize;
+                long start = System.nanoTime();
+                int marked = transactionTemplate.execute(status -> mark(now, size));
+                List<ArchivedVoucher> moved = transactionTemplate.execute(status -> archiveBatch(cutoff, now, size));
+                archivedSold.increment(moved.size());
+                archivedUsed.increment(moved.stream().mapToInt(it -> it.getRedemptions().size()).sum());
+                archived += moved.size();
+                adapt(Duration.ofNanos(System.nanoTime() - start));
+                if (marked < size && moved.size() < size) {
+                    break;
+                }
+                Thread.sleep(PAUSE.toMillis());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (RuntimeException e) {
+            LOG.warn("Stopped archiving vouchers after {} vouchers", archived, e);
+        }
+        liveVouchers.set(voucherInventory.count());
+        archivedVouchers.set(archivedVoucherRepository.count());
+        return archived;
+    }
+
+    /**
+     * Mark a batch of spent vouchers as exhausted. Must be called within a transaction.
+     *
+     * @param now  current business time
+     * @param size size of the batch
+     * @return number of vouchers found
+     */
+    private int mark(LocalDateTime now, int size) {
+        List<Long> serials = voucherInventory.findUnmarkedExhaustedSerials(PageRequest.of(0, size));
+        if (!serials.isEmpty()) {
+            voucherInventory.markExhausted(serials, now);
+        }
+        return serials.size();
+    }
+
+    /**
+     * Move a batch of vouchers exhausted before the cutoff to the archive. Must be called within a transaction.
+     *
+     * @param cutoff business time the vouchers must have been exhausted before
+     * @param now    current business time
+     * @param size   size of the batch
+     * @return the archive entries of the vouchers
+     */
+    private List<ArchivedVoucher> archiveBatch(LocalDateTime cutoff, LocalDateTime now, int size) {
+        List<SoldVoucher> soldVouchers = voucherInventory.findExhaustedBefore(cutoff, PageRequest.of(0, size));
+        if (soldVouchers.isEmpty()) {
+            return List.of();
+        }
+        List<UsedVoucher> usedVouchers = usedVoucherInventory.findByAssignedSoldVoucherIn(soldVouchers);
+        Map<Long, List<String>> redemptions = usedVouchers.stream()
+                .collect(Collectors.groupingBy(usedVoucher -> usedVoucher.getAssignedSoldVoucher().getSerial(),
+                        Collectors.mapping(usedVoucher -> usedVoucher.getId().toString(), Collectors.toList())));
+        List<ArchivedVoucher> entries = soldVouchers.stream()
+                .map(soldVoucher -> new ArchivedVoucher(soldVoucher,
+                        redemptions.getOrDefault(soldVoucher.getSerial(), List.of()), now))
+                .collect(Collectors.toList());
+        archivedVoucherRepository.saveAll(entries);
+        // UsedVouchers refer to their SoldVoucher, so they have to go first
+        usedVoucherInventory.deleteAll(usedVouchers);
+        voucherInventory.deleteAll(soldVouchers);
+        return entries;
+    }
+
+    /**
+     * Helper method to adapt the batch size to the time the last batch took
+     *
+     * @param took duration of the last batch
+     */
+    private void adapt(Duration took) {
+        if (took.compareTo(SLOW_BATCH) > 0) {
+            batchSize = Math.max(MIN_BATCH_SIZE, batchSize / 2);
+        } else {
+            batchSize = Math.min(MAX_BATCH_SIZE, batchSize + MIN_BATCH_SIZE);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package videoshop.order;
+
+import org.javamoney.moneta.Money;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+import videoshop.inventory.SoldVoucher;
+import videoshop.inventory.VoucherInventory;
+import videoshop.inventory.VoucherInventory.Balance;
+
+import javax.money.CurrencyUnit;
+import javax.money.MonetaryAmount;
+import java.util.List;
+
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * Settles the value of redeemed {@link UsedVoucher}s against the {@link SoldVoucher}s in the database.
+ * Every {@link SoldVoucher} is updated by a compare-and-set on its revision, so two checkouts redeeming the same
+ * voucher concurrently can never both spend its balance. The checkout losing the race has to be rolled back and
+ * retried with fresh balances (see {@link Checkout}).
+ * The values are settled on integer minor units (see {@link MinorUnits}), so no rounding can occur.
+ */
+@Component
+class VoucherSettlement {
+
+    private final VoucherInventory voucherInventory;
+
+    /**
+     * Creates a new {@link VoucherSettlement}
+     *
+     * @param voucherInventory must not be {@literal null}.
+     */
+    VoucherSettlement(VoucherInventory voucherInventory) {
+        Assert.notNull(voucherInventory, "VoucherInventory must not be null");
+        this.voucherInventory = voucherInventory;
+    }
+
+    /**
+     * Spend the usedVouchers on the given order total and make the usage persistent.
+     * Must be called within a transaction.
+     *
+     * @param total        total of the order, already including the credited value of all usedVouchers
+     * @param credited     value credited to the order by the usedVouchers when they were put into the cart
+     * @param usedVouchers vouchers redeemed in the order
+     * @return value to be charged back to the order, i.e. the part of the credited voucher value that was not spent
+     * @throws OptimisticLockingFailureException if a voucher has been changed concurrently
+     */
+    MonetaryAmount settle(MonetaryAmount total, MonetaryAmount credited, List<UsedVoucher> usedVouchers) {
+        Assert.notNull(total, "Total must not be null!");
+        Assert.notNull(credited, "Credited value must not be null!");
+        Assert.notNull(usedVouchers, "UsedVouchers must not be null!");
+        if (usedVouchers.isEmpty()) {
+            return Money.of(0, EURO);
+        }
+        CurrencyUnit currency = total.getCurrency();
+        long[] revisions = new long[usedVouchers.size()];
+        long[] available = new long[usedVouchers.size()];
+        long availableSum = 0;
+        int index = 0;
+        for (UsedVoucher usedVoucher : usedVouchers) {
+            SoldVoucher soldVoucher = usedVoucher.getAssignedSoldVoucher();
+            Balance balance = voucherInventory.findBalanceBySerial(soldVoucher.getSerial())
+                    .orElseThrow(() -> new IllegalStateException("SoldVoucher " + soldVoucher.getIdentifier()
+                            + " does not exist!"));
+            soldVoucher.setValue(balance.getValue());
+            usedVoucher.renewAvailableValue();
+            revisions[index] = balance.getRevision();
+            available[index] = MinorUnits.of(balance.getValue());
+            availableSum += available[index++];
+        }
+        // Work on minor units from here on and only create amounts for the results
+        long itemsTotal = MinorUnits.of(total) + MinorUnits.of(credited);
+        long[] remaining = recalculateVoucherValues(itemsTotal - availableSum, available);
+        long remainder = MinorUnits.of(credited) - availableSum;
+        index = 0;
+        for (UsedVoucher usedVoucher : usedVouchers) {
+            SoldVoucher soldVoucher = usedVoucher.getAssignedSoldVoucher();
+            usedVoucher.renewAvailableValue(MinorUnits.toAmount(remaining[index], currency));
+            if (voucherInventory.compareAndSetValue(soldVoucher.getSerial(), revisions[index],
+                    soldVoucher.getValue()) == 0) {
+                throw new OptimisticLockingFailureException("SoldVoucher " + soldVoucher.getIdentifier()
+                        + " has been changed concurrently");
+            }
+            remainder += remaining[index++];
+        }
+        return MinorUnits.toAmount(remainder, currency);
+    }
+
+    /**
+     * Helper method to calculate the remaining value of the usedVouchers in this order.
+     * The vouchers are spent in order, i.e. only the first voucher not needed entirely keeps a part of its value.
+     *
+     * @param dueSum    sum to be paid in minor units, negative if the vouchers exceed the order total
+     * @param available available value of each voucher in minor units
+     * @return remaining value of each voucher in minor units
+     */
+    static long[] recalculateVoucherValues(long dueSum, long[] available) {
+        long[] remaining = new long[available.length];
+        for (int i = 0; i < available.length; i++) {
+            if (dueSum < 0) {
+                if (dueSum + available[i] >= 0) {
+                    // This voucher is partly needed to pay the bill
+                    remaining[i] = -dueSum;
+                    dueSum = 0;
+                } else {
+                    // This voucher is not needed to pay the bill
+                    dueSum += available[i];
+                    remaining[i] = available[i];
+                }
+            }
+            // Otherwise this voucher is needed to pay the bill and nothing remains
+        }
+        return remaining;
+    }
+}
@@ -0,0 +1,43 @@
+package videoshop.reporting;
+
+import org.salespointframework.order.Order;
+import org.salespointframework.order.OrderIdentifier;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Keyset paginated access to all completed {@link Order}s, oldest first, to rebuild the {@link SalesReport} from.
+ * A page continues strictly after the (creation date, identifier) of the last order on the previous page, so the
+ * database walks the {@code ORDERS_DATE_CREATED_IDX} index (see {@code data.sql}) instead of skipping an offset.
+ */
+interface CompletedOrderHistory extends Repository<Order, OrderIdentifier> {
+
+    /**
+     * Find the oldest completed orders
+     *
+     * @param pageable size of the page, must request the first page
+     * @return completed orders, oldest first
+     */
+    @Query("select o from Order o where o.orderStatus = org.salespointframework.order.OrderStatus.COMPLETED "
+            + "order by o.dateCreated asc, o.id.id asc")
+    List<Order> findFirstPage(Pageable pageable);
+
+    /**
+     * Find the completed orders following the last order on the previous page
+     *
+     * @param afterDate creation date of the last order on the previous page
+     * @param afterId   identifier of the last order on the previous page
+     * @param pageable  size of the page, must request the first page
+     * @return completed orders, oldest first
+     */
+    @Query("select o from Order o where o.orderStatus = org.salespointframework.order.OrderStatus.COMPLETED "
+            + "and (o.dateCreated > :afterDate or (o.dateCreated = :afterDate and o.id.id > :afterId)) "
+            + "order by o.dateCreated asc, o.id.id asc")
+    List<Order> findPageAfter(@Param("afterDate") LocalDateTime afterDate, @Param("afterId") String afterId,
+                              Pageable pageable);
+}
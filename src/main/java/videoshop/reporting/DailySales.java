@@ -0,0 +1,96 @@
+package videoshop.reporting;
+
+import org.javamoney.moneta.Money;
+import org.springframework.util.Assert;
+
+import javax.money.MonetaryAmount;
+import javax.persistence.Entity;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.Table;
+import javax.persistence.Version;
+import java.time.LocalDate;
+
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * Pre-aggregated sales of a {@link SalesCategory} on a single day.
+ * For sold items, the value is the revenue; for redeemed vouchers, it is the voucher value spent.
+ */
+@Entity
+@Table(indexes = @Index(name = "DAILY_SALES_DATE_IDX", columnList = "salesDate"))
+public class DailySales {
+
+    @Id
+    private String id;
+    private LocalDate salesDate;
+    @Enumerated(EnumType.STRING)
+    private SalesCategory category;
+    private long units;
+    private MonetaryAmount value;
+    @Version
+    private Long version;
+
+    /**
+     * Create empty sales of a category on a day
+     *
+     * @param salesDate must not be {@literal null}.
+     * @param category  must not be {@literal null}.
+     */
+    DailySales(LocalDate salesDate, SalesCategory category) {
+        Assert.notNull(salesDate, "Date must not be null!");
+        Assert.notNull(category, "Category must not be null!");
+        this.id = key(salesDate, category);
+        this.salesDate = salesDate;
+        this.category = category;
+        this.value = Money.of(0, EURO);
+    }
+
+    @SuppressWarnings("unused")
+    private DailySales() { }
+
+    /**
+     * Build the identifier of the sales of a category on a day
+     *
+     * @param salesDate day of the sales
+     * @param category  category of the sales
+     * @return identifier of the DailySales
+     */
+    static String key(LocalDate salesDate, SalesCategory category) {
+        return salesDate + ":" + category;
+    }
+
+    /**
+     * Add sales
+     *
+     * @param units number of units sold
+     * @param value value of the units
+     */
+    void add(long units, MonetaryAmount value) {
+        Assert.notNull(value, "Value must not be null!");
+        this.units += units;
+        this.value = this.value.add(value);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public LocalDate getSalesDate() {
+        return salesDate;
+    }
+
+    public SalesCategory getCategory() {
+        return category;
+    }
+
+    public long getUnits() {
+        return units;
+    }
+
+    public MonetaryAmount getValue() {
+        return value;
+    }
+}
@@ -0,0 +1,31 @@
+package videoshop.reporting;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Interface for JPA to store the {@link DailySales}
+ */
+interface DailySalesRepository extends CrudRepository<DailySales, String> {
+
+    /**
+     * Find the sales of all categories on the days in the given range
+     *
+     * @param from first day, inclusive
+     * @param to   last day, inclusive
+     * @return DailySales ordered by day and category
+     */
+    List<DailySales> findBySalesDateBetweenOrderBySalesDateAscCategoryAsc(LocalDate from, LocalDate to);
+
+    /**
+     * Delete all DailySales right away instead of on flush, so they can be inserted again in the same transaction.
+     * Must be called within a transaction.
+     */
+    @Modifying
+    @Query("delete from DailySales")
+    void clear();
+}
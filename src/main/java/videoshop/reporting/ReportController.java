@@ -0,0 +1,75 @@
+package videoshop.reporting;
+
+import org.salespointframework.time.BusinessTime;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.format.annotation.DateTimeFormat.ISO;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.util.Assert;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.time.LocalDate;
+
+/**
+ * A Spring MVC controller showing the {@link SalesReport} to the boss
+ */
+@Controller
+@PreAuthorize("hasRole('BOSS')")
+class ReportController {
+
+    static final int DEFAULT_DAYS = 30;
+    static final int MAX_DAYS = 366;
+
+    private final SalesReport salesReport;
+    private final BusinessTime businessTime;
+
+    /**
+     * Creates a new {@link ReportController}
+     *
+     * @param salesReport  must not be {@literal null}.
+     * @param businessTime must not be {@literal null}.
+     */
+    ReportController(SalesReport salesReport, BusinessTime businessTime) {
+        Assert.notNull(salesReport, "SalesReport must not be null");
+        Assert.notNull(businessTime, "BusinessTime must not be null");
+        this.salesReport = salesReport;
+        this.businessTime = businessTime;
+    }
+
+    /**
+     * Show the sales per day and category. The range is limited to {@value MAX_DAYS} days before its end.
+     *
+     * @param from  first day (optional, defaults to {@value DEFAULT_DAYS} days before the end)
+     * @param to    last day (optional, defaults to today)
+     * @param model data structure for next view
+     * @return the view name.
+     */
+    @GetMapping("/reports")
+    String reports(@RequestParam(value = "from", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate from,
+                   @RequestParam(value = "to", required = false) @DateTimeFormat(iso = ISO.DATE) LocalDate to,
+                   Model model) {
+        LocalDate end = to == null ? businessTime.getTime().toLocalDate() : to;
+        LocalDate start = from == null ? end.minusDays(DEFAULT_DAYS - 1) : from;
+        if (start.isBefore(end.minusDays(MAX_DAYS - 1))) {
+            start = end.minusDays(MAX_DAYS - 1);
+        }
+        model.addAttribute("from", start);
+        model.addAttribute("to", end);
+        model.addAttribute("sales", salesReport.findSales(start, end));
+        return "reports";
+    }
+
+    /**
+     * Recompute the sales from all completed orders
+     *
+     * @return the view name.
+     */
+    @PostMapping("/reports/rebuild")
+    String rebuild() {
+        salesReport.rebuild();
+        return "redirect:/reports";
+    }
+}
@@ -0,0 +1,39 @@
+package videoshop.reporting;
+
+import org.salespointframework.order.OrderIdentifier;
+import org.springframework.util.Assert;
+
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Version;
+
+/**
+ * Marks a completed {@link org.salespointframework.order.Order} as counted in the {@link DailySales}, so it is never
+ * counted twice, no matter whether it was added on completion or by a rebuild.
+ */
+@Entity
+class ReportedOrder {
+
+    @Id
+    private String id;
+    // Tells a new mark from a stored one, so saving one inserts it right away
+    @Version
+    private Long version;
+
+    /**
+     * Mark an order as counted
+     *
+     * @param order identifier of the order, must not be {@literal null}.
+     */
+    ReportedOrder(OrderIdentifier order) {
+        Assert.notNull(order, "OrderIdentifier must not be null!");
+        this.id = order.toString();
+    }
+
+    @SuppressWarnings("unused")
+    private ReportedOrder() { }
+
+    public String getId() {
+        return id;
+    }
+}
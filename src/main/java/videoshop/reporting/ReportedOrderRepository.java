@@ -0,0 +1,19 @@
+package videoshop.reporting;
+
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+
+/**
+ * Interface for JPA to store the {@link ReportedOrder}s
+ */
+interface ReportedOrderRepository extends CrudRepository<ReportedOrder, String> {
+
+    /**
+     * Delete all ReportedOrders right away instead of on flush, so they can be inserted again in the same transaction.
+     * Must be called within a transaction.
+     */
+    @Modifying
+    @Query("delete from ReportedOrder")
+    void clear();
+}
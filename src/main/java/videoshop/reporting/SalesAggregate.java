@@ -0,0 +1,75 @@
+package videoshop.reporting;
+
+import org.salespointframework.catalog.ProductIdentifier;
+import org.salespointframework.order.Order;
+import videoshop.catalog.Buyable.BuyableType;
+
+import javax.money.MonetaryAmount;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * Sales of a number of {@link Order}s, aggregated by day and {@link SalesCategory}.
+ * Not thread-safe, aggregates built in parallel have to be merged.
+ */
+class SalesAggregate {
+
+    private final Map<String, DailySales> sales = new HashMap<>();
+
+    /**
+     * Add the sales of a completed order.
+     * Order lines of products not in the catalog are vouchers redeemed in the order. The value spent from them is
+     * their credited value minus the remaining value charged back to the order.
+     *
+     * @param order values of a completed order
+     * @param types lookup of the {@link BuyableType} of catalog products
+     */
+    void add(SoldOrder order, Function<ProductIdentifier, Optional<BuyableType>> types) {
+        LocalDate date = order.getDate();
+        long redeemedUnits = 0;
+        MonetaryAmount redeemed = order.getCharged();
+        for (SoldOrder.Line line : order.getLines()) {
+            long units = line.getUnits();
+            Optional<BuyableType> type = types.apply(line.getProduct());
+            if (type.isPresent()) {
+                get(date, SalesCategory.of(type.get())).add(units, line.getPrice());
+            } else {
+                redeemedUnits += units;
+                redeemed = redeemed.add(line.getPrice());
+            }
+        }
+        if (redeemedUnits > 0) {
+            get(date, SalesCategory.REDEEMED_VOUCHER).add(redeemedUnits, redeemed.negate());
+        }
+    }
+
+    /**
+     * Add the sales of another aggregate to this one
+     *
+     * @param other aggregate to merge, not to be used afterwards
+     * @return this aggregate
+     */
+    SalesAggregate merge(SalesAggregate other) {
+        other.sales.values().forEach(dailySales ->
+                get(dailySales.getSalesDate(), dailySales.getCategory())
+                        .add(dailySales.getUnits(), dailySales.getValue()));
+        return this;
+    }
+
+    /**
+     * Get the aggregated sales
+     *
+     * @return DailySales per day and category with sales
+     */
+    Collection<DailySales> getSales() {
+        return sales.values();
+    }
+
+    private DailySales get(LocalDate date, SalesCategory category) {
+        return sales.computeIfAbsent(DailySales.key(date, category), key -> new DailySales(date, category));
+    }
+}
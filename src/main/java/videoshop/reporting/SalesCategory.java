@@ -0,0 +1,21 @@
+package videoshop.reporting;
+
+import videoshop.catalog.Buyable.BuyableType;
+
+/**
+ * Categories sales are reported in. Sold {@link videoshop.catalog.Buyable}s are reported by their type, redeemed
+ * vouchers separately.
+ */
+public enum SalesCategory {
+    BLURAY, DVD, VOUCHER, REDEEMED_VOUCHER;
+
+    /**
+     * Get the category sales of the given type are reported in
+     *
+     * @param type must not be {@literal null}.
+     * @return matching SalesCategory
+     */
+    static SalesCategory of(BuyableType type) {
+        return valueOf(type.name());
+    }
+}
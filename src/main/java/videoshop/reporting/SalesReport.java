@@ -0,0 +1,209 @@
+package videoshop.reporting;
+
+import org.salespointframework.catalog.ProductIdentifier;
+import org.salespointframework.order.Order;
+import org.salespointframework.order.OrderEvents.OrderCompleted;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.util.Streamable;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.Assert;
+import videoshop.catalog.Buyable;
+import videoshop.catalog.Buyable.BuyableType;
+import videoshop.catalog.ShopCatalog;
+
+import javax.persistence.EntityManager;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Read model of the sales per day and {@link SalesCategory}.
+ * It is updated incrementally whenever an {@link Order} has been completed and can be rebuilt from all completed
+ * orders. Every order counted is marked as a {@link ReportedOrder} in the same transaction, so an order is counted
+ * exactly once, whether on completion or by a rebuild running concurrently. Concurrent updates, from this or other
+ * instances, collide on the version of the {@link DailySales} (or on its insertion for the first sales of a day) and
+ * on the mark of the order, and are retried. An order whose sales could not be added after all retries is left out
+ * until the next rebuild.
+ */
+@Component
+public class SalesReport {
+
+    static final int SEQUENTIAL_THRESHOLD = 1000;
+    static final int PAGE_SIZE = 8 * SEQUENTIAL_THRESHOLD;
+    static final int MAX_ATTEMPTS = 10;
+    private static final Logger LOG = LoggerFactory.getLogger(SalesReport.class);
+
+    private final DailySalesRepository dailySales;
+    private final ReportedOrderRepository reportedOrders;
+    private final CompletedOrderHistory history;
+    private final ShopCatalog shopCatalog;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Creates a new {@link SalesReport}
+     *
+     * @param dailySales         must not be {@literal null}.
+     * @param reportedOrders     must not be {@literal null}.
+     * @param history            must not be {@literal null}.
+     * @param shopCatalog        must not be {@literal null}.
+     * @param entityManager      must not be {@literal null}.
+     * @param transactionManager must not be {@literal null}.
+     */
+    SalesReport(DailySalesRepository dailySales, ReportedOrderRepository reportedOrders,
+                CompletedOrderHistory history, ShopCatalog shopCatalog, EntityManager entityManager,
+                PlatformTransactionManager transactionManager) {
+        Assert.notNull(dailySales, "DailySalesRepository must not be null");
+        Assert.notNull(reportedOrders, "ReportedOrderRepository must not be null");
+        Assert.notNull(history, "CompletedOrderHistory must not be null");
+        Assert.notNull(shopCatalog, "ShopCatalog must not be null");
+        Assert.notNull(entityManager, "EntityManager must not be null");
+        Assert.notNull(transactionManager, "PlatformTransactionManager must not be null");
+        this.dailySales = dailySales;
+        this.reportedOrders = reportedOrders;
+        this.history = history;
+        this.shopCatalog = shopCatalog;
+        this.entityManager = entityManager;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionTemplate.PROPAGATION_REQUIRES_NEW);
+    }
+
+    /**
+     * Add the sales of a completed order once it has been committed, unless a rebuild has counted it already.
+     * The order has been committed by then, so a failure is only logged instead of being handed to the checkout; the
+     * order is counted by the next {@link #rebuild()}.
+     *
+     * @param event published by Salespoint
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    void on(OrderCompleted event) {
+        SoldOrder order = SoldOrder.of(event.getOrder());
+        SalesAggregate aggregate = new SalesAggregate();
+        aggregate.add(order, id -> shopCatalog.findById(id).map(Buyable::getType));
+        for (int attempt = 1; ; attempt++) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> addOnce(order, aggregate));
+                return;
+            } catch (OptimisticLockingFailureException | DataIntegrityViolationException e) {
+                if (attempt >= MAX_ATTEMPTS) {
+                    LOG.warn("Sales of order {} not reported, left for the next rebuild", order.getId(), e);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Single attempt to add the sales of an order, to be run within a transaction
+     *
+     * @param order     values of the completed order
+     * @param aggregate sales of the order
+     */
+    private void addOnce(SoldOrder order, SalesAggregate aggregate) {
+        if (reportedOrders.existsById(order.getId().toString())) {
+            return;
+        }
+        reportedOrders.save(new ReportedOrder(order.getId()));
+        aggregate.getSales().forEach(sales -> {
+            DailySales stored = dailySales.findById(sales.getId())
+                    .orElseGet(() -> new DailySales(sales.getSalesDate(), sales.getCategory()));
+            stored.add(sales.getUnits(), sales.getValue());
+            dailySales.save(stored);
+        });
+    }
+
+    /**
+     * Find the sales on the days in the given range
+     *
+     * @param from first day, inclusive
+     * @param to   last day, inclusive
+     * @return DailySales ordered by day and category, days without sales are left out
+     */
+    public List<DailySales> findSales(LocalDate from, LocalDate to) {
+        Assert.notNull(from, "From must not be null!");
+        Assert.notNull(to, "To must not be null!");
+        return dailySales.findBySalesDateBetweenOrderBySalesDateAscCategoryAsc(from, to);
+    }
+
+    /**
+     * Recompute the read model from all completed orders, aggregating them in parallel.
+     * The history is read after the sales and marks have been cleared in the same transaction: an order completed
+     * before is counted here and marked, so its completion skips it, while the completion of an order missing from
+     * the history collides with the rebuilt sales and is retried on top of them.
+     * <p>
+     * The history is read in pages of {@link #PAGE_SIZE} orders. Each page is copied into {@link SoldOrder}s on the
+     * transaction's thread, as the session and the lazy order lines must not be touched from the worker threads,
+     * and detached from the session once its orders are marked, so only the aggregate grows with the history.
+     */
+    public void rebuild() {
+        Map<ProductIdentifier, BuyableType> types = Streamable.of(shopCatalog.findAll()).stream()
+                .collect(Collectors.toMap(Buyable::getId, Buyable::getType));
+        Function<ProductIdentifier, Optional<BuyableType>> lookup = id -> Optional.ofNullable(types.get(id));
+        PageRequest pageable = PageRequest.of(0, PAGE_SIZE);
+        transactionTemplate.executeWithoutResult(status -> {
+            dailySales.clear();
+            reportedOrders.clear();
+            SalesAggregate aggregate = new SalesAggregate();
+            List<Order> page = history.findFirstPage(pageable);
+            while (!page.isEmpty()) {
+                Order last = page.get(page.size() - 1);
+                List<SoldOrder> orders = page.stream().map(SoldOrder::of).collect(Collectors.toList());
+                reportedOrders.saveAll(orders.stream()
+                        .map(order -> new ReportedOrder(order.getId()))
+                        .collect(Collectors.toList()));
+                aggregate.merge(ForkJoinPool.commonPool().invoke(
+                        new AggregationTask(orders, 0, orders.size(), lookup)));
+                entityManager.flush();
+                entityManager.clear();
+                page = page.size() < PAGE_SIZE ? List.of()
+                        : history.findPageAfter(last.getDateCreated(), last.getId().toString(), pageable);
+            }
+            dailySales.saveAll(aggregate.getSales());
+        });
+    }
+
+    /**
+     * Aggregates a range of orders, splitting it in halves until it is small enough to be aggregated sequentially
+     */
+    static class AggregationTask extends RecursiveTask<SalesAggregate> {
+
+        private final List<SoldOrder> orders;
+        private final int from;
+        private final int to;
+        private final Function<ProductIdentifier, Optional<BuyableType>> types;
+
+        AggregationTask(List<SoldOrder> orders, int from, int to,
+                        Function<ProductIdentifier, Optional<BuyableType>> types) {
+            this.orders = orders;
+            this.from = from;
+            this.to = to;
+            this.types = types;
+        }
+
+        @Override
+        protected SalesAggregate compute() {
+            if (to - from <= SEQUENTIAL_THRESHOLD) {
+                SalesAggregate aggregate = new SalesAggregate();
+                orders.subList(from, to).forEach(order -> aggregate.add(order, types));
+                return aggregate;
+            }
+            int middle = (from + to) >>> 1;
+            AggregationTask left = new AggregationTask(orders, from, middle, types);
+            left.fork();
+            SalesAggregate right = new AggregationTask(orders, middle, to, types).compute();
+            return left.join().merge(right);
+        }
+    }
+}
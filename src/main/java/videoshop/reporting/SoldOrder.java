@@ -0,0 +1,94 @@
+package videoshop.reporting;
+
+import org.salespointframework.catalog.ProductIdentifier;
+import org.salespointframework.order.Order;
+import org.salespointframework.order.OrderIdentifier;
+import org.springframework.util.Assert;
+
+import javax.money.MonetaryAmount;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Detached copy of the values of a completed {@link Order} the {@link SalesAggregate} needs.
+ * Unlike the order, it is immutable and holds no lazy associations, so it can be aggregated on any thread.
+ */
+class SoldOrder {
+
+    private final OrderIdentifier id;
+    private final LocalDate date;
+    private final MonetaryAmount charged;
+    private final List<Line> lines;
+
+    private SoldOrder(OrderIdentifier id, LocalDate date, MonetaryAmount charged, List<Line> lines) {
+        this.id = id;
+        this.date = date;
+        this.charged = charged;
+        this.lines = lines;
+    }
+
+    /**
+     * Copy the values of an order, to be called within the transaction the order was loaded in
+     *
+     * @param order must not be {@literal null}.
+     * @return values of the order
+     */
+    static SoldOrder of(Order order) {
+        Assert.notNull(order, "Order must not be null!");
+        return new SoldOrder(order.getId(), order.getDateCreated().toLocalDate(), order.getChargeLines().getTotal(),
+                order.getOrderLines().stream()
+                        .map(line -> new Line(line.getProductIdentifier(), line.getQuantity().getAmount().longValue(),
+                                line.getPrice()))
+                        .collect(Collectors.toUnmodifiableList()));
+    }
+
+    public OrderIdentifier getId() {
+        return id;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    /**
+     * Get the total of the charge lines
+     *
+     * @return sum of all charge lines of the order
+     */
+    public MonetaryAmount getCharged() {
+        return charged;
+    }
+
+    public List<Line> getLines() {
+        return lines;
+    }
+
+    /**
+     * Values of an order line
+     */
+    static class Line {
+
+        private final ProductIdentifier product;
+        private final long units;
+        private final MonetaryAmount price;
+
+        private Line(ProductIdentifier product, long units, MonetaryAmount price) {
+            this.product = product;
+            this.units = units;
+            this.price = price;
+        }
+
+        public ProductIdentifier getProduct() {
+            return product;
+        }
+
+        public long getUnits() {
+            return units;
+        }
+
+        public MonetaryAmount getPrice() {
+            return price;
+        }
+    }
+}
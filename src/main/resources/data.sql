@@ -0,0 +1,14 @@
+-- Backs the keyset pagination of completed orders on the orders dashboard, see videoshop.order.CompletedOrders,
+-- and of the order history the sales report is rebuilt from, see videoshop.reporting.CompletedOrderHistory.
+-- Filtering by customer uses the index H2 creates for the foreign key to the user account.
+CREATE INDEX IF NOT EXISTS ORDERS_DATE_CREATED_IDX ON ORDERS (DATE_CREATED, ORDER_ID);
+
+-- Back the keyset pagination of the catalog listings, see videoshop.catalog.ShopCatalog.
+CREATE INDEX IF NOT EXISTS PRODUCT_TYPE_ID_IDX ON PRODUCT (TYPE, PRODUCT_ID);
+CREATE INDEX IF NOT EXISTS PRODUCT_TYPE_PRICE_IDX ON PRODUCT (TYPE, PRICE, PRODUCT_ID);
+
+-- Hands out blocks of voucher serials, shared by all instances, see videoshop.inventory.SoldVoucherFactory.
+-- The increment has to match SoldVoucherFactory.SERIAL_BLOCK.
+CREATE SEQUENCE IF NOT EXISTS VOUCHER_SERIAL_SEQ START WITH 1 INCREMENT BY 50;
+-- When each block was taken, so videoshop.inventory.VoucherLookup knows which blocks have expired.
+CREATE TABLE IF NOT EXISTS VOUCHER_SERIAL_BLOCK (FIRST_SERIAL BIGINT PRIMARY KEY, TAKEN_AT TIMESTAMP NOT NULL);
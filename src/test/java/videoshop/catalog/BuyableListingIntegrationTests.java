@@ -0,0 +1,78 @@
+package videoshop.catalog;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.util.Streamable;
+import org.springframework.transaction.annotation.Transactional;
+import videoshop.catalog.Buyable.BuyableType;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Compares the listing projections of {@link ShopCatalog} to the entity based listings.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class BuyableListingIntegrationTests {
+
+	private static final Sort BY_PRICE = Sort.by("price").ascending();
+
+	@Autowired
+	ShopCatalog catalog;
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+	}
+
+	@Test
+	void listsDiscsWithoutLoadingEntities() {
+		List<BuyableListing> listings = catalog.findListingsByType(BuyableType.BLURAY, ShopCatalog.DEFAULT_SORT);
+
+		assertThat(listings).hasSize(9).allMatch(BuyableListing::isDisc);
+		assertThat(listings).extracting(BuyableListing::getImage).doesNotContainNull();
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void listsVouchersWithoutLoadingEntities() {
+		List<BuyableListing> listings = catalog.findListingsByType(BuyableType.VOUCHER, BY_PRICE);
+
+		assertThat(listings).isNotEmpty().noneMatch(BuyableListing::isDisc);
+		assertThat(listings).extracting(listing -> listing.getPrice().getNumber().doubleValue()).isSorted();
+		assertThat(statistics.getEntityLoadCount()).isZero();
+	}
+
+	@Test
+	void listsTheSameAsTheEntities() {
+		// findAll() bypasses the listing cache, so the entities are actually loaded
+		List<Buyable> dvds = Streamable.of(catalog.findAll())
+				.filter(buyable -> buyable.getType() == BuyableType.DVD).toList();
+		long entities = statistics.getEntityLoadCount();
+		statistics.clear();
+
+		List<BuyableListing> listings = catalog.findListingsByType(BuyableType.DVD, ShopCatalog.DEFAULT_SORT);
+
+		assertThat(entities).isGreaterThanOrEqualTo(dvds.size());
+		assertThat(statistics.getEntityLoadCount()).isZero();
+		assertThat(listings).extracting(BuyableListing::getId)
+				.containsExactlyInAnyOrderElementsOf(dvds.stream().map(Buyable::getId).collect(Collectors.toList()));
+		assertThat(listings).extracting(BuyableListing::getName)
+				.containsExactlyInAnyOrderElementsOf(dvds.stream().map(Buyable::getName).collect(Collectors.toList()));
+	}
+}
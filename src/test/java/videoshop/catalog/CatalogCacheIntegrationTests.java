@@ -0,0 +1,79 @@
+package videoshop.catalog;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import videoshop.catalog.Buyable.BuyableType;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * Integration tests for the cache of the catalog listings. Not transactional as evictions only happen on commit.
+ */
+@SpringBootTest
+class CatalogCacheIntegrationTests {
+
+	private static final Pageable ALL = PageRequest.of(0, 1000);
+
+	@Autowired
+	ShopCatalog catalog;
+	@Autowired
+	MeterRegistry meterRegistry;
+	@Autowired
+	PlatformTransactionManager transactionManager;
+
+	@Test
+	void servesRepeatedListingsFromCache() {
+		catalog.findFirstDiscListings(BuyableType.BLURAY, ALL);
+		double hits = gets("hit");
+		double misses = gets("miss");
+
+		List<BuyableListing> result = catalog.findFirstDiscListings(BuyableType.BLURAY, ALL);
+
+		assertThat(result).hasSize(9);
+		assertThat(gets("hit")).isEqualTo(hits + 1);
+		assertThat(gets("miss")).isEqualTo(misses);
+	}
+
+	@Test
+	void evictsListingsOnSave() {
+		int dvds = catalog.findFirstDiscListings(BuyableType.DVD, ALL).size();
+		Disc disc = catalog.save(new Disc("Cached", "cached", Money.of(1, EURO), "Drama", BuyableType.DVD));
+		try {
+			assertThat(catalog.findFirstDiscListings(BuyableType.DVD, ALL)).hasSize(dvds + 1);
+		} finally {
+			catalog.delete(disc);
+		}
+		assertThat(catalog.findFirstDiscListings(BuyableType.DVD, ALL)).hasSize(dvds);
+	}
+
+	@Test
+	void defersEvictionUntilCommit() {
+		int dvds = catalog.findFirstDiscListings(BuyableType.DVD, ALL).size();
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+		transaction.execute(status -> {
+			catalog.save(new Disc("Rolled back", "rb", Money.of(1, EURO), "Drama", BuyableType.DVD));
+			status.setRollbackOnly();
+			return null;
+		});
+
+		double hits = gets("hit");
+		assertThat(catalog.findFirstDiscListings(BuyableType.DVD, ALL)).hasSize(dvds);
+		assertThat(gets("hit")).isEqualTo(hits + 1);
+	}
+
+	private double gets(String result) {
+		return meterRegistry.get("cache.gets").tag("cache", ShopCatalog.LISTINGS).tag("result", result)
+				.functionCounter().count();
+	}
+}
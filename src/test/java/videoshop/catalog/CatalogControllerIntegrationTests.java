@@ -21,8 +21,13 @@ import videoshop.AbstractIntegrationTests;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.ui.ExtendedModelMap;
 import org.springframework.ui.Model;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.util.Locale;
 
 /**
  * Integration tests interacting with the {@link CatalogController} directly.
@@ -37,17 +42,18 @@ class CatalogControllerIntegrationTests extends AbstractIntegrationTests {
 	 * Integration test for an individual controller.
 	 */
 	@Test
-	@SuppressWarnings("unchecked")
 	public void sampleControllerIntegrationTest() {
 
 		Model model = new ExtendedModelMap();
+		ServletWebRequest request = new ServletWebRequest(new MockHttpServletRequest(), new MockHttpServletResponse());
 
-		String returnedView = controller.blurayCatalog(model);
+		String returnedView = controller.blurayCatalog(null, null, model, Locale.GERMANY, request);
 
 		assertThat(returnedView).isEqualTo("catalog");
 
-		Iterable<Object> object = (Iterable<Object>) model.asMap().get("catalog");
+		String cards = (String) model.asMap().get("cards");
 
-		assertThat(object).hasSize(9);
+		assertThat(cards).contains("Secretary", "The Godfather", "Oldboy");
+		assertThat(cards.split("class=\"ui card\"", -1)).hasSize(10);
 	}
 }
@@ -15,16 +15,20 @@
  */
 package videoshop.catalog;
 
+import org.javamoney.moneta.Money;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.test.web.servlet.MockMvc;
 
-import static org.hamcrest.Matchers.emptyIterable;
-import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.not;
+import static org.salespointframework.core.Currencies.EURO;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
@@ -39,6 +43,7 @@ class CatalogControllerWebIntegrationTests {
 
 	@Autowired MockMvc mvc;
 	@Autowired CatalogController controller;
+	@Autowired ShopCatalog catalog;
 
 	/**
 	 * Sample integration test using fake HTTP requests to the system and using the expectations API to define
@@ -49,9 +54,52 @@ class CatalogControllerWebIntegrationTests {
 
 		mvc.perform(get("/blurays")). //
 				andExpect(status().isOk()).//
-				andExpect(model().attribute("catalog", is(not(emptyIterable()))));
+				andExpect(model().attribute("cards", containsString("Secretary")));
 		mvc.perform(get("/vouchers"))
 				.andExpect(status().isOk())
-				.andExpect(model().attributeExists("catalog"));
+				.andExpect(model().attributeExists("cards"));
+	}
+
+	@Test
+	void answersNotModifiedForCurrentEtag() throws Exception {
+
+		String etag = mvc.perform(get("/dvds")) //
+				.andExpect(status().isOk()) //
+				.andExpect(header().exists(HttpHeaders.ETAG)) //
+				.andExpect(content().string(containsString("Last Action Hero"))) //
+				.andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		mvc.perform(get("/dvds").header(HttpHeaders.IF_NONE_MATCH, etag)) //
+				.andExpect(status().isNotModified()) //
+				.andExpect(content().string(""));
+		mvc.perform(get("/blurays").header(HttpHeaders.IF_NONE_MATCH, etag)) //
+				.andExpect(status().isOk());
+		mvc.perform(get("/dvds").param("genre", "Action").header(HttpHeaders.IF_NONE_MATCH, etag)) //
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	void changesEtagWithCatalog() throws Exception {
+
+		String etag = mvc.perform(get("/vouchers")).andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+		Voucher voucher = catalog.save(new Voucher(Money.of(42, EURO)));
+
+		try {
+			mvc.perform(get("/vouchers").header(HttpHeaders.IF_NONE_MATCH, etag)) //
+					.andExpect(status().isOk()) //
+					.andExpect(content().string(containsString("42")));
+		} finally {
+			catalog.delete(voucher);
+		}
+	}
+
+	@Test
+	void filtersByGenres() throws Exception {
+
+		mvc.perform(get("/dvds").param("genre", "Action").param("genre", "Comedy")) //
+				.andExpect(status().isOk()) //
+				.andExpect(content().string(containsString("Hot Shots! Part Deux"))) //
+				.andExpect(content().string(not(containsString("Persepolis"))));
 	}
 }
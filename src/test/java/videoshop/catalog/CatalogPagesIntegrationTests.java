@@ -0,0 +1,73 @@
+package videoshop.catalog;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import videoshop.AbstractIntegrationTests;
+import videoshop.catalog.Buyable.BuyableType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * Integration tests for {@link CatalogPages}.
+ */
+class CatalogPagesIntegrationTests extends AbstractIntegrationTests {
+
+	@Autowired
+	CatalogPages pages;
+	@Autowired
+	ShopCatalog catalog;
+
+	@Test
+	void walksAllDiscsPageByPage() {
+		catalog.saveAll(IntStream.range(0, 2 * CatalogPages.PAGE_SIZE)
+				.mapToObj(i -> new Disc("Disc " + i, "disc", Money.of(1, EURO), "Drama", BuyableType.DVD))
+				.collect(Collectors.toList()));
+		List<String> expected = catalog.findListingsByType(BuyableType.DVD, ShopCatalog.DEFAULT_SORT).stream()
+				.map(listing -> listing.getId().toString())
+				.collect(Collectors.toList());
+
+		List<String> walked = new ArrayList<>();
+		Slice<BuyableListing> page = pages.findDiscs(BuyableType.DVD, null);
+		walked.addAll(ids(page));
+		while (page.hasNext()) {
+			assertThat(page.getNumberOfElements()).isEqualTo(CatalogPages.PAGE_SIZE);
+			page = pages.findDiscs(BuyableType.DVD, walked.get(walked.size() - 1));
+			walked.addAll(ids(page));
+		}
+
+		assertThat(walked).containsExactlyElementsOf(expected);
+		assertThat(walked).hasSizeGreaterThan(2 * CatalogPages.PAGE_SIZE);
+	}
+
+	@Test
+	void walksVouchersOfEqualPriceWithoutGaps() {
+		catalog.saveAll(IntStream.range(0, CatalogPages.PAGE_SIZE + 5)
+				.mapToObj(i -> new Voucher(Money.of(10, EURO)))
+				.collect(Collectors.toList()));
+		int total = catalog.findListingsByType(BuyableType.VOUCHER, ShopCatalog.DEFAULT_SORT).size();
+
+		List<BuyableListing> walked = new ArrayList<>();
+		Slice<BuyableListing> page = pages.findVouchers(null, null);
+		walked.addAll(page.getContent());
+		while (page.hasNext()) {
+			BuyableListing last = walked.get(walked.size() - 1);
+			page = pages.findVouchers(last.getPrice(), last.getId().toString());
+			walked.addAll(page.getContent());
+		}
+
+		assertThat(walked).hasSize(total);
+		assertThat(walked.stream().map(listing -> listing.getId().toString()).distinct()).hasSize(total);
+	}
+
+	private static List<String> ids(Slice<BuyableListing> page) {
+		return page.stream().map(listing -> listing.getId().toString()).collect(Collectors.toList());
+	}
+}
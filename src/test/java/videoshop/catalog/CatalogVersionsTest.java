@@ -0,0 +1,60 @@
+package videoshop.catalog;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import videoshop.catalog.Buyable.BuyableType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TestCases for CatalogVersions
+ */
+public class CatalogVersionsTest {
+
+	private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager(ShopCatalog.LISTINGS);
+	private final CatalogVersions versions = new CatalogVersions(cacheManager);
+
+	@AfterEach
+	void clearSynchronization() {
+		if (TransactionSynchronizationManager.isSynchronizationActive()) {
+			TransactionSynchronizationManager.clearSynchronization();
+		}
+	}
+
+	@Test
+	void incrementsOnlyTheChangedType() {
+		String dvd = versions.getVersion(BuyableType.DVD);
+		String voucher = versions.getVersion(BuyableType.VOUCHER);
+
+		versions.changed(BuyableType.DVD);
+
+		assertThat(versions.getVersion(BuyableType.DVD)).isNotEqualTo(dvd);
+		assertThat(versions.getVersion(BuyableType.VOUCHER)).isEqualTo(voucher);
+	}
+
+	@Test
+	void dropsListingsOnChange() {
+		Cache listings = cacheManager.getCache(ShopCatalog.LISTINGS);
+		listings.put("listing", "stale");
+
+		versions.changed(BuyableType.BLURAY);
+
+		assertThat(listings.get("listing")).isNull();
+	}
+
+	@Test
+	void defersChangeUntilCommit() {
+		String version = versions.getVersion(BuyableType.DVD);
+		TransactionSynchronizationManager.initSynchronization();
+
+		versions.changed(BuyableType.DVD);
+
+		assertThat(versions.getVersion(BuyableType.DVD)).isEqualTo(version);
+		TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+		assertThat(versions.getVersion(BuyableType.DVD)).isNotEqualTo(version);
+	}
+}
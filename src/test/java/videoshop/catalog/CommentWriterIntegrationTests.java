@@ -0,0 +1,93 @@
+package videoshop.catalog;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+import org.salespointframework.catalog.ProductIdentifier;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import videoshop.catalog.Buyable.BuyableType;
+
+import javax.persistence.EntityManagerFactory;
+import java.time.LocalDateTime;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * Integration tests for writing comments through the {@link CommentWriter}, with write-behind enabled. Not
+ * transactional as queued comments are written by a thread of their own. Stands in for a latency benchmark by
+ * counting the statements of a comment insert, which must not depend on the number of existing comments.
+ */
+@SpringBootTest(properties = {"videoshop.comments.write-behind=true",
+		"spring.jpa.properties.hibernate.generate_statistics=true"})
+class CommentWriterIntegrationTests {
+
+	@Autowired
+	CommentWriter writer;
+	@Autowired
+	DiscReviews reviews;
+	@Autowired
+	ShopCatalog catalog;
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+
+	private Statistics statistics;
+	private Disc disc;
+
+	@BeforeEach
+	void setUp() {
+		statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		disc = (Disc) catalog.findByType(BuyableType.BLURAY).iterator().next();
+	}
+
+	@Test
+	void insertsCommentsWithoutLoadingTheDisc() {
+		reviews.addComment(disc.getId(), "first", 5, LocalDateTime.now());
+		long few = statementsForOneComment();
+
+		IntStream.range(0, 200).forEach(i -> reviews.addComment(disc.getId(), "more " + i, 4, LocalDateTime.now()));
+		long many = statementsForOneComment();
+
+		assertThat(many).isEqualTo(few);
+		assertThat(statistics.getCollectionLoadCount()).isZero();
+		assertThat(statistics.getEntityStatistics(Disc.class.getName()).getLoadCount()).isZero();
+		assertThat(statistics.getEntityStatistics(Disc.class.getName()).getUpdateCount()).isZero();
+	}
+
+	@Test
+	void writesQueuedCommentsInBatches() {
+		long ratings = reviews.findRating(disc.getId()).getCount();
+		int count = CommentWriter.BATCH_SIZE + 5;
+
+		IntStream.range(0, count).forEach(i -> writer.write(disc.getId(), "queued " + i, 3, LocalDateTime.now()));
+		writer.flush();
+
+		assertThat(reviews.findRating(disc.getId()).getCount()).isEqualTo(ratings + count);
+		assertThat(reviews.findComments(disc.getId(), null).getContent().get(0).getText())
+				.isEqualTo("queued " + (count - 1));
+	}
+
+	@Test
+	void writesTheRestOfAFailingBatch() {
+		long ratings = reviews.findRating(disc.getId()).getCount();
+		ProductIdentifier missing = new Disc("Missing", null, Money.of(1, EURO), null, BuyableType.DVD).getId();
+
+		writer.write(disc.getId(), "before", 3, LocalDateTime.now());
+		writer.write(missing, "dropped", 3, LocalDateTime.now());
+		writer.write(disc.getId(), "after", 3, LocalDateTime.now());
+		writer.flush();
+
+		assertThat(reviews.findRating(disc.getId()).getCount()).isEqualTo(ratings + 2);
+		assertThat(reviews.findRating(missing).getCount()).isZero();
+	}
+
+	private long statementsForOneComment() {
+		statistics.clear();
+		reviews.addComment(disc.getId(), "measured", 5, LocalDateTime.now());
+		return statistics.getPrepareStatementCount();
+	}
+}
@@ -0,0 +1,50 @@
+package videoshop.catalog;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+import org.salespointframework.catalog.ProductIdentifier;
+import videoshop.catalog.Buyable.BuyableType;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * Unit tests for {@link DiscRating}.
+ */
+class DiscRatingTest {
+
+	private static ProductIdentifier newDiscIdentifier() {
+		return new Disc("Rated", "disc", Money.of(1, EURO), "Drama", BuyableType.DVD).getId();
+	}
+
+	@Test
+	void computesAverageAndShares() {
+		DiscRating rating = new DiscRating(newDiscIdentifier());
+		rating.add(5);
+		rating.add(4);
+		rating.add(5);
+		rating.add(2);
+
+		assertThat(rating.getAverage()).isEqualTo(4.0);
+		assertThat(rating.getShare(5)).isEqualTo(50);
+		assertThat(rating.getShare(4)).isEqualTo(25);
+		assertThat(rating.getShare(3)).isZero();
+	}
+
+	@Test
+	void hasNoAverageWithoutRatings() {
+		DiscRating rating = new DiscRating(newDiscIdentifier());
+
+		assertThat(rating.getAverage()).isZero();
+		assertThat(rating.getShare(5)).isZero();
+	}
+
+	@Test
+	void rejectsRatingsOutOfRange() {
+		DiscRating rating = new DiscRating(newDiscIdentifier());
+
+		assertThatIllegalArgumentException().isThrownBy(() -> rating.add(6));
+		assertThat(rating.getCount()).isZero();
+	}
+}
@@ -0,0 +1,76 @@
+package videoshop.catalog;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import videoshop.AbstractIntegrationTests;
+import videoshop.catalog.Buyable.BuyableType;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * Integration tests for {@link DiscReviews}.
+ */
+class DiscReviewsIntegrationTests extends AbstractIntegrationTests {
+
+	@Autowired
+	DiscReviews reviews;
+	@Autowired
+	ShopCatalog catalog;
+
+	@Test
+	void aggregatesRatingsOfAddedComments() {
+		Disc disc = catalog.save(new Disc("Rated", "disc", Money.of(1, EURO), "Drama", BuyableType.DVD));
+
+		reviews.addComment(disc.getId(), "great", 5, LocalDateTime.now());
+		reviews.addComment(disc.getId(), "fine", 4, LocalDateTime.now());
+		reviews.addComment(disc.getId(), "great again", 5, LocalDateTime.now());
+
+		DiscRating rating = reviews.findRating(disc.getId());
+		assertThat(rating.getCount()).isEqualTo(3);
+		assertThat(rating.getSum()).isEqualTo(14);
+		assertThat(rating.getCount(5)).isEqualTo(2);
+		assertThat(rating.getCount(4)).isEqualTo(1);
+		assertThat(rating.getCount(1)).isZero();
+	}
+
+	@Test
+	void hasEmptyRatingWithoutComments() {
+		Disc disc = catalog.save(new Disc("Unrated", "disc", Money.of(1, EURO), "Drama", BuyableType.DVD));
+
+		assertThat(reviews.findRating(disc.getId()).getCount()).isZero();
+		assertThat(reviews.findComments(disc.getId(), null)).isEmpty();
+	}
+
+	@Test
+	void walksCommentsNewestFirst() {
+		Disc disc = catalog.save(new Disc("Discussed", "disc", Money.of(1, EURO), "Drama", BuyableType.DVD));
+		for (int i = 0; i < 2 * DiscReviews.PAGE_SIZE + 3; i++) {
+			reviews.addComment(disc.getId(), "comment " + i, 3, LocalDateTime.now());
+		}
+
+		List<String> walked = new ArrayList<>();
+		Slice<Comment> page = reviews.findComments(disc.getId(), null);
+		walked.addAll(texts(page));
+		while (page.hasNext()) {
+			assertThat(page.getNumberOfElements()).isEqualTo(DiscReviews.PAGE_SIZE);
+			page = reviews.findComments(disc.getId(), page.getContent().get(page.getNumberOfElements() - 1).getId());
+			walked.addAll(texts(page));
+		}
+
+		assertThat(walked).hasSize(2 * DiscReviews.PAGE_SIZE + 3);
+		assertThat(walked.get(0)).isEqualTo("comment " + (2 * DiscReviews.PAGE_SIZE + 2));
+		assertThat(walked.get(walked.size() - 1)).isEqualTo("comment 0");
+	}
+
+	private static List<String> texts(Slice<Comment> page) {
+		return page.getContent().stream().map(Comment::getText).collect(Collectors.toList());
+	}
+}
@@ -0,0 +1,110 @@
+package videoshop.catalog;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Slice;
+import videoshop.catalog.Buyable.BuyableType;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * TestCases for GenreFacets
+ */
+@ExtendWith(MockitoExtension.class)
+public class GenreFacetsTest {
+
+	@Mock
+	ShopCatalog catalog;
+
+	private GenreFacets facets;
+	private final Disc oldboy = disc("Oldboy", "Action/Drama/Thriller", BuyableType.BLURAY);
+	private final Disc superFuzz = disc("Super Fuzz", "Action/Sci-Fi/Comedy", BuyableType.DVD);
+	private final Disc hotShots = disc("Hot Shots! Part Deux", "Action/Comedy/War", BuyableType.DVD);
+	private final Disc fido = disc("Fido", "Comedy/Drama/Horror", BuyableType.DVD);
+
+	private static Disc disc(String name, String genre, BuyableType type) {
+		return new Disc(name, "image", Money.of(9.99, EURO), genre, type);
+	}
+
+	@BeforeEach
+	void setUp() {
+		when(catalog.findListingsByType(BuyableType.DVD, ShopCatalog.DEFAULT_SORT)).thenReturn(List.of(
+				BuyableListing.of(superFuzz), BuyableListing.of(hotShots), BuyableListing.of(fido)));
+		when(catalog.findListingsByType(BuyableType.BLURAY, ShopCatalog.DEFAULT_SORT))
+				.thenReturn(List.of(BuyableListing.of(oldboy)));
+		facets = new GenreFacets(catalog);
+		facets.load();
+	}
+
+	private List<String> names(BuyableType type, String... genres) {
+		return facets.findDiscs(type, GenreFacets.keys(List.of(genres)), null).stream()
+				.map(BuyableListing::getName).sorted().collect(Collectors.toList());
+	}
+
+	@Test
+	void normalisesGenres() {
+		assertThat(GenreFacets.keys(List.of(" Comedy", "action/COMEDY", ""))).containsExactly("action", "comedy");
+		assertThat(GenreFacets.keys(null)).isEmpty();
+	}
+
+	@Test
+	void filtersByAllGenresWithinType() {
+		assertThat(names(BuyableType.DVD, "Action")).containsExactly("Hot Shots! Part Deux", "Super Fuzz");
+		assertThat(names(BuyableType.DVD, "Comedy", "War")).containsExactly("Hot Shots! Part Deux");
+		assertThat(names(BuyableType.BLURAY, "Action")).containsExactly("Oldboy");
+		assertThat(names(BuyableType.DVD, "Western")).isEmpty();
+	}
+
+	@Test
+	void pagesThroughSelectionInDefaultOrder() {
+		List<String> westerns = IntStream.range(0, CatalogPages.PAGE_SIZE + 2)
+				.mapToObj(i -> disc("Western " + i, "Western", BuyableType.DVD))
+				.peek(facets::saved)
+				.map(western -> western.getId().toString())
+				.sorted(Comparator.reverseOrder())
+				.collect(Collectors.toList());
+
+		Slice<BuyableListing> first = facets.findDiscs(BuyableType.DVD, List.of("western"), null);
+		String last = first.getContent().get(first.getNumberOfElements() - 1).getId().toString();
+		Slice<BuyableListing> second = facets.findDiscs(BuyableType.DVD, List.of("western"), last);
+
+		assertThat(first.hasNext()).isTrue();
+		assertThat(second.hasNext()).isFalse();
+		assertThat(Stream.concat(first.stream(), second.stream()).map(listing -> listing.getId().toString()))
+				.containsExactlyElementsOf(westerns);
+	}
+
+	@Test
+	void countsFacetsOfSelection() {
+		List<GenreFacet> counts = facets.count(BuyableType.DVD, List.of("comedy"));
+
+		assertThat(counts).extracting(GenreFacet::getLabel)
+				.containsExactly("Action", "Comedy", "Drama", "Horror", "Sci-Fi", "War");
+		assertThat(counts).extracting(GenreFacet::getCount).containsExactly(2, 3, 1, 1, 1, 1);
+		assertThat(counts.get(1).isSelected()).isTrue();
+		assertThat(counts.get(1).getToggled()).isEmpty();
+		assertThat(counts.get(0).getToggled()).containsExactly("action", "comedy");
+	}
+
+	@Test
+	void followsChangesOutsideTransactions() {
+		facets.removed(fido);
+		facets.saved(new Disc("Shaun of the Dead", "image", Money.of(5, EURO), "Comedy/Horror", BuyableType.DVD));
+
+		assertThat(names(BuyableType.DVD, "Horror")).containsExactly("Shaun of the Dead");
+		assertThat(names(BuyableType.DVD, "Drama")).isEmpty();
+		assertThat(facets.count(BuyableType.DVD, List.of())).extracting(GenreFacet::getKey).doesNotContain("drama");
+	}
+}
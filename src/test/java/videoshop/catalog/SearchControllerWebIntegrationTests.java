@@ -0,0 +1,59 @@
+package videoshop.catalog;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import videoshop.catalog.Buyable.BuyableType;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.salespointframework.core.Currencies.EURO;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the {@link SearchController} on the web layer.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class SearchControllerWebIntegrationTests {
+
+	@Autowired
+	MockMvc mvc;
+	@Autowired
+	ShopCatalog catalog;
+
+	@Test
+	void rendersSearchPage() throws Exception {
+		mvc.perform(get("/search").param("q", "godfather"))
+				.andExpect(status().isOk())
+				.andExpect(content().string(containsString("The Godfather")));
+	}
+
+	@Test
+	void answersJson() throws Exception {
+		mvc.perform(get("/api/search").param("q", "bakc to the futur"))
+				.andExpect(status().isOk())
+				.andExpect(jsonPath("$[0].name").value("Back to the Future"))
+				.andExpect(jsonPath("$[0].type").value("DVD"))
+				.andExpect(jsonPath("$[0].currency").value("EUR"));
+	}
+
+	@Test
+	void indexesCommittedChanges() throws Exception {
+		Disc disc = catalog.save(new Disc("Zardoz", "zardoz", Money.of(5, EURO), "Sci-Fi", BuyableType.DVD));
+		try {
+			mvc.perform(get("/api/search").param("q", "zardoz"))
+					.andExpect(jsonPath("$[*].id", hasItem(disc.getId().toString())));
+		} finally {
+			catalog.delete(disc);
+		}
+		mvc.perform(get("/api/search").param("q", "zardoz"))
+				.andExpect(content().json("[]"));
+	}
+}
@@ -0,0 +1,103 @@
+package videoshop.catalog;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+import videoshop.catalog.Buyable.BuyableType;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * TestCases for SearchIndex
+ */
+public class SearchIndexTest {
+
+	private final SearchIndex index = new SearchIndex();
+
+	private static BuyableListing disc(String name, String genre) {
+		Disc disc = new Disc(name, "image", Money.of(9.99, EURO), genre, BuyableType.DVD);
+		return BuyableListing.of(disc);
+	}
+
+	private List<String> names(String query) {
+		return index.search(query, 10).stream().map(BuyableListing::getName).collect(Collectors.toList());
+	}
+
+	@Test
+	void tokenizesWithoutCaseAndDiacritics() {
+		assertThat(SearchIndex.tokenize("Äktschn/Sci-Fi Comedy")).containsExactly("aktschn", "sci", "fi", "comedy");
+		assertThat(SearchIndex.tokenize(null)).isEmpty();
+	}
+
+	@Test
+	void findsExactPrefixAndTypoMatches() {
+		index.add(disc("The Godfather", "Crime/Drama"));
+		index.add(disc("Oldboy", "Action/Drama/Thriller"));
+
+		assertThat(names("godfather")).containsExactly("The Godfather");
+		assertThat(names("godf")).containsExactly("The Godfather");
+		assertThat(names("godfahter")).containsExactly("The Godfather");
+		assertThat(names("thriler")).containsExactly("Oldboy");
+		assertThat(names("western")).isEmpty();
+	}
+
+	@Test
+	void requiresEveryTerm() {
+		index.add(disc("Battle Royale", "Action/Drama/Thriller"));
+		index.add(disc("Oldboy", "Action/Drama/Thriller"));
+
+		assertThat(names("battle drama")).containsExactly("Battle Royale");
+		assertThat(names("drama action")).hasSize(2);
+	}
+
+	@Test
+	void ranksExactMatchesInNamesFirst() {
+		index.add(disc("Drama Queen", "Comedy"));
+		index.add(disc("Secretary", "Political Drama"));
+		index.add(disc("Dramatic Night", "Horror"));
+
+		// An exact match in the genre weighs as much as a prefix in the name, the shorter name wins
+		assertThat(names("drama")).containsExactly("Drama Queen", "Secretary", "Dramatic Night");
+	}
+
+	@Test
+	void replacesAndRemovesListings() {
+		BuyableListing fido = disc("Fido", "Comedy");
+		index.add(fido);
+		index.add(new BuyableListing(fido.getId(), "Fido Returns", fido.getPrice(), fido.getType(), "image",
+				"Horror"));
+
+		assertThat(index.size()).isEqualTo(1);
+		assertThat(names("comedy")).isEmpty();
+		assertThat(names("returns")).containsExactly("Fido Returns");
+
+		index.remove(fido.getId());
+
+		assertThat(index.size()).isZero();
+		assertThat(names("fido")).isEmpty();
+	}
+
+	@Test
+	void limitsResults() {
+		for (int i = 0; i < 20; i++) {
+			index.add(disc("Persepolis " + i, "Animation"));
+		}
+
+		assertThat(index.search("persepolis", 5)).hasSize(5);
+		assertThat(index.search("", 5)).isEmpty();
+	}
+
+	@Test
+	void detectsSingleEdits() {
+		assertThat(SearchIndex.withinOneEdit("matrix", "matrix")).isTrue();
+		assertThat(SearchIndex.withinOneEdit("matrix", "matirx")).isTrue();
+		assertThat(SearchIndex.withinOneEdit("matrix", "matix")).isTrue();
+		assertThat(SearchIndex.withinOneEdit("matrix", "matrixx")).isTrue();
+		assertThat(SearchIndex.withinOneEdit("matrix", "metrix")).isTrue();
+		assertThat(SearchIndex.withinOneEdit("matrix", "mtarxi")).isFalse();
+		assertThat(SearchIndex.withinOneEdit("matrix", "max")).isFalse();
+	}
+}
@@ -0,0 +1,78 @@
+package videoshop.catalog;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+import org.salespointframework.catalog.ProductIdentifier;
+import org.salespointframework.inventory.UniqueInventory;
+import org.salespointframework.inventory.UniqueInventoryItem;
+import org.salespointframework.quantity.Quantity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import videoshop.catalog.Buyable.BuyableType;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * Integration tests for {@link StockLevels}.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class StockLevelsIntegrationTests {
+
+	@Autowired
+	StockLevels stockLevels;
+	@Autowired
+	ShopCatalog catalog;
+	@Autowired
+	UniqueInventory<UniqueInventoryItem> inventory;
+	@Autowired
+	EntityManagerFactory entityManagerFactory;
+	@Autowired
+	EntityManager entityManager;
+
+	@Test
+	void resolvesAWholePageInOneQuery() {
+		List<ProductIdentifier> discs = IntStream.of(0, 2, 3, 4, 10)
+				.mapToObj(this::discInStock)
+				.collect(Collectors.toList());
+		// Write the new discs first, so only the lookup is counted
+		entityManager.flush();
+		Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+		statistics.clear();
+
+		Map<ProductIdentifier, StockLevel> levels = stockLevels.findLevels(discs);
+
+		assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+		assertThat(discs.stream().map(levels::get)).containsExactly(StockLevel.SOLD_OUT, StockLevel.LOW_STOCK,
+				StockLevel.LOW_STOCK, StockLevel.IN_STOCK, StockLevel.IN_STOCK);
+
+		statistics.clear();
+		stockLevels.findLevels(discs);
+
+		assertThat(statistics.getPrepareStatementCount()).isZero();
+	}
+
+	@Test
+	void considersProductsWithoutInventorySoldOut() {
+		Disc disc = catalog.save(new Disc("Unstocked", "disc", Money.of(1, EURO), "Drama", BuyableType.DVD));
+
+		assertThat(stockLevels.findLevels(List.of(disc.getId()))).containsEntry(disc.getId(), StockLevel.SOLD_OUT);
+	}
+
+	private ProductIdentifier discInStock(int quantity) {
+		Disc disc = catalog.save(new Disc("Stocked " + quantity, "disc", Money.of(1, EURO), "Drama", BuyableType.DVD));
+		inventory.save(new UniqueInventoryItem(disc, Quantity.of(quantity)));
+		return disc.getId();
+	}
+}
@@ -0,0 +1,196 @@
+package videoshop.catalog;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.salespointframework.catalog.ProductIdentifier;
+import org.salespointframework.inventory.UniqueInventory;
+import org.salespointframework.inventory.UniqueInventoryItem;
+import org.salespointframework.quantity.Quantity;
+import videoshop.catalog.Buyable.BuyableType;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * TestCases for StockReservations
+ */
+@ExtendWith(MockitoExtension.class)
+public class StockReservationsTest {
+
+	@Mock
+	UniqueInventory<UniqueInventoryItem> inventory;
+
+	private static ProductIdentifier newProductIdentifier() {
+		return new Disc("Test", null, Money.of(1, EURO), null, BuyableType.DVD).getId();
+	}
+
+	private static void advance(StockReservations reservations, long ticks) {
+		for (long tick = 0; tick < ticks; tick++) {
+			reservations.advance();
+		}
+	}
+
+	@Test
+	void reservesUpToTheStock() {
+		StockReservations reservations = new StockReservations(inventory);
+		ProductIdentifier product = newProductIdentifier();
+
+		assertThat(reservations.reserve("a", product, 3, 5)).isTrue();
+		assertThat(reservations.reserve("b", product, 3, 5)).isFalse();
+		assertThat(reservations.reserve("b", product, 2, 5)).isTrue();
+
+		assertThat(reservations.getReserved(product)).isEqualTo(5);
+		assertThat(reservations.getAvailable(product, Quantity.of(5))).isZero();
+		assertThat(reservations.getAvailable(product, Quantity.of(4))).isZero();
+	}
+
+	@Test
+	void replacesTheReservationOfAnOwner() {
+		StockReservations reservations = new StockReservations(inventory);
+		ProductIdentifier product = newProductIdentifier();
+
+		assertThat(reservations.reserve("a", product, 2, 5)).isTrue();
+		assertThat(reservations.reserve("a", product, 5, 5)).isTrue();
+		assertThat(reservations.getReserved(product)).isEqualTo(5);
+
+		assertThat(reservations.reserve("a", product, 6, 5)).isFalse();
+		assertThat(reservations.getReserved(product)).isEqualTo(5);
+	}
+
+	@Test
+	void releasesOnCheckout() {
+		StockReservations reservations = new StockReservations(inventory);
+		ProductIdentifier product = newProductIdentifier();
+		ProductIdentifier other = newProductIdentifier();
+
+		reservations.reserve("a", product, 2, 5);
+		reservations.reserve("a", other, 1, 5);
+		reservations.reserve("b", product, 1, 5);
+		reservations.release("a");
+
+		assertThat(reservations.getReserved(product)).isEqualTo(1);
+		assertThat(reservations.getReserved(other)).isZero();
+
+		// The wheel must not release them a second time
+		advance(reservations, StockReservations.TTL_TICKS);
+		assertThat(reservations.getReserved(product)).isZero();
+		assertThat(reservations.getReserved(other)).isZero();
+	}
+
+	@Test
+	void expiresAbandonedReservations() {
+		StockReservations reservations = new StockReservations(inventory);
+		ProductIdentifier product = newProductIdentifier();
+
+		reservations.reserve("a", product, 2, 5);
+		advance(reservations, StockReservations.TTL_TICKS - 1);
+		assertThat(reservations.getReserved(product)).isEqualTo(2);
+
+		reservations.advance();
+		assertThat(reservations.getReserved(product)).isZero();
+		assertThat(reservations.reserve("b", product, 5, 5)).isTrue();
+	}
+
+	@Test
+	void renewsOnChange() {
+		StockReservations reservations = new StockReservations(inventory);
+		ProductIdentifier product = newProductIdentifier();
+
+		reservations.reserve("a", product, 1, 5);
+		advance(reservations, StockReservations.TTL_TICKS - 1);
+		reservations.reserve("a", product, 2, 5);
+
+		// The replaced reservation expires without giving back the units of the renewed one
+		advance(reservations, 1);
+		assertThat(reservations.getReserved(product)).isEqualTo(2);
+
+		advance(reservations, StockReservations.TTL_TICKS - 1);
+		assertThat(reservations.getReserved(product)).isZero();
+	}
+
+	@Test
+	void reservesTheWholeCartAgain() {
+		StockReservations reservations = new StockReservations(inventory);
+		Disc disc = new Disc("Test", null, Money.of(1, EURO), null, BuyableType.DVD);
+		Disc other = new Disc("Other", null, Money.of(1, EURO), null, BuyableType.BLURAY);
+		when(inventory.findByProduct(disc)).thenReturn(Optional.of(new UniqueInventoryItem(disc, Quantity.of(2))));
+
+		reservations.reserve("a", disc.getId(), 2, 2);
+		reservations.reserve("a", other.getId(), 1, 5);
+		advance(reservations, StockReservations.TTL_TICKS);
+		reservations.reserve("b", other.getId(), 4, 5);
+
+		// The expired reservation is taken again, the one of the product left out of the cart is released
+		assertThat(reservations.reserveAll("a", Map.of(disc, 2L))).isTrue();
+		assertThat(reservations.getReserved(disc.getId())).isEqualTo(2);
+		assertThat(reservations.getReserved(other.getId())).isEqualTo(4);
+		assertThat(reservations.reserveAll("b", Map.of(disc, 1L))).isFalse();
+		assertThat(reservations.getReserved(other.getId())).isZero();
+	}
+
+	@Test
+	void failsToHoldOnToStockSoldInTheMeantime() {
+		StockReservations reservations = new StockReservations(inventory);
+		ProductIdentifier product = newProductIdentifier();
+
+		assertThat(reservations.reserve("a", product, 3, 5)).isTrue();
+		assertThat(reservations.reserve("a", product, 3, 2)).isFalse();
+		assertThat(reservations.getReserved(product)).isEqualTo(3);
+	}
+
+	@Test
+	void neverReservesUnlimitedStock() {
+		StockReservations reservations = new StockReservations(inventory);
+		Voucher voucher = new Voucher(Money.of(10, EURO));
+
+		assertThat(reservations.reserve("a", voucher, 1000, 0)).isTrue();
+		assertThat(reservations.reserve("a", voucher, 1000)).isTrue();
+		verifyNoInteractions(inventory);
+	}
+
+	@Test
+	void reservesAgainstTheInventory() {
+		StockReservations reservations = new StockReservations(inventory);
+		Disc disc = new Disc("Test", null, Money.of(1, EURO), null, BuyableType.DVD);
+		when(inventory.findByProduct(disc)).thenReturn(Optional.of(new UniqueInventoryItem(disc, Quantity.of(2))));
+
+		assertThat(reservations.reserve("a", disc, 2)).isTrue();
+		assertThat(reservations.reserve("b", disc, 1)).isFalse();
+	}
+
+	@Test
+	void neverOversellsConcurrently() throws Exception {
+		StockReservations reservations = new StockReservations(inventory);
+		ProductIdentifier product = newProductIdentifier();
+		ExecutorService executor = Executors.newFixedThreadPool(8);
+		List<Callable<Boolean>> tasks = new ArrayList<>();
+		for (int owner = 0; owner < 100; owner++) {
+			String name = "owner-" + owner;
+			tasks.add(() -> reservations.reserve(name, product, 1, 10));
+		}
+		try {
+			long reserved = 0;
+			for (Future<Boolean> result : executor.invokeAll(tasks)) {
+				reserved += result.get() ? 1 : 0;
+			}
+			assertThat(reserved).isEqualTo(10);
+			assertThat(reservations.getReserved(product)).isEqualTo(10);
+		} finally {
+			executor.shutdownNow();
+		}
+	}
+}
@@ -0,0 +1,43 @@
+package videoshop.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * TestCases for PassPool
+ */
+public class PassPoolTest {
+
+    @Test
+    void handsOutDistinctPassesBeyondCapacity() throws Exception {
+        PassPool passPool = new PassPool(8);
+        try {
+            Set<String> passes = new HashSet<>();
+            for (int i = 0; i < 100; i++) {
+                String pass = passPool.take();
+                assertThat(pass).hasSize(PassPool.PASS_LENGTH);
+                passes.add(pass);
+            }
+            assertThat(passes).hasSize(100);
+        } finally {
+            passPool.destroy();
+        }
+    }
+
+    @Test
+    void isFilledInBackground() throws Exception {
+        PassPool passPool = new PassPool(8);
+        try {
+            for (int i = 0; i < 100 && passPool.available() < 8; i++) {
+                Thread.sleep(10);
+            }
+            assertThat(passPool.available()).isEqualTo(8);
+        } finally {
+            passPool.destroy();
+        }
+    }
+}
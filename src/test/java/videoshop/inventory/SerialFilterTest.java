@@ -0,0 +1,54 @@
+package videoshop.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * TestCases for SerialFilter
+ */
+public class SerialFilterTest {
+
+    @Test
+    void containsEveryAddedSerial() {
+        SerialFilter filter = new SerialFilter(10_000, 0.01);
+        for (long serial = 1; serial <= 10_000; serial++) {
+            filter.add(serial);
+        }
+        for (long serial = 1; serial <= 10_000; serial++) {
+            assertThat(filter.mightContain(serial)).isTrue();
+        }
+        assertThat(filter.entries()).isEqualTo(10_000);
+    }
+
+    @Test
+    void keepsFalsePositiveRateNearTarget() {
+        SerialFilter filter = new SerialFilter(10_000, 0.01);
+        for (long serial = 1; serial <= 10_000; serial++) {
+            filter.add(serial);
+        }
+        int falsePositives = 0;
+        for (long serial = 10_001; serial <= 110_000; serial++) {
+            if (filter.mightContain(serial)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives / 100_000.0).isLessThan(0.02);
+        assertThat(filter.expectedFalsePositiveRate()).isBetween(0.005, 0.015);
+    }
+
+    @Test
+    void isEmptyInitially() {
+        SerialFilter filter = new SerialFilter(100, 0.01);
+        assertThat(filter.mightContain(1)).isFalse();
+        assertThat(filter.expectedFalsePositiveRate()).isZero();
+        assertThat(filter.bits()).isGreaterThanOrEqualTo(959);
+    }
+
+    @Test
+    void rejectsInvalidSizing() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new SerialFilter(0, 0.01));
+        assertThatIllegalArgumentException().isThrownBy(() -> new SerialFilter(100, 1));
+    }
+}
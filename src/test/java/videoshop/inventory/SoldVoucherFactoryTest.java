@@ -0,0 +1,58 @@
+package videoshop.inventory;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * TestCases for SoldVoucherFactory
+ */
+@ExtendWith(MockitoExtension.class)
+public class SoldVoucherFactoryTest {
+    @Mock
+    VoucherInventory voucherInventory;
+    @Mock
+    VoucherLookup voucherLookup;
+
+    private final AtomicLong sequence = new AtomicLong(1 - SoldVoucherFactory.SERIAL_BLOCK);
+
+    private void stubSequence() {
+        when(voucherInventory.nextSerialBlock()).thenAnswer(invocation ->
+                sequence.addAndGet(SoldVoucherFactory.SERIAL_BLOCK));
+    }
+
+    @Test
+    void instancesSharingTheSequenceNeverShareSerials() {
+        stubSequence();
+        SoldVoucherFactory first = new SoldVoucherFactory(voucherInventory, new PassPool(16), voucherLookup);
+        SoldVoucherFactory second = new SoldVoucherFactory(voucherInventory, new PassPool(16), voucherLookup);
+        Set<Long> serials = new HashSet<>();
+        for (int i = 0; i < 3 * SoldVoucherFactory.SERIAL_BLOCK; i++) {
+            assertThat(serials.add(first.create(Money.of(10, EURO)).getSerial())).isTrue();
+            assertThat(serials.add(second.create(Money.of(10, EURO)).getSerial())).isTrue();
+        }
+    }
+
+    @Test
+    void skipsSerialsAllocatedBeforeTheSequence() {
+        stubSequence();
+        when(voucherInventory.findHighestSerial()).thenReturn(120L);
+        SoldVoucherFactory factory = new SoldVoucherFactory(voucherInventory, new PassPool(16), voucherLookup);
+        // The blocks starting at 1 and 51 are skipped, the one starting at 101 is used from 121 on
+        assertThat(factory.create(Money.of(10, EURO)).getSerial()).isEqualTo(121);
+        for (long serial = 122; serial <= 150; serial++) {
+            assertThat(factory.create(Money.of(10, EURO)).getSerial()).isEqualTo(serial);
+        }
+        assertThat(factory.create(Money.of(10, EURO)).getSerial()).isEqualTo(151);
+    }
+}
@@ -16,33 +16,43 @@ public class SoldVoucherTest {
     @Test
     void create() {
         MonetaryAmount value = Money.of(1, EURO);
-        SoldVoucher soldVoucher = new SoldVoucher(value);
+        SoldVoucher soldVoucher = new SoldVoucher(value, 42, "pass");
         assertThat(soldVoucher).isNotNull();
         assertThat(soldVoucher.getValue()).isEqualTo(value);
+        assertThat(soldVoucher.getSerial()).isEqualTo(42);
         assertThat(soldVoucher.getIdentifier()).isNotNull();
-        assertThat(soldVoucher.getIdentifier()).isNotEmpty();
-        assertThat(soldVoucher.getPass()).isNotNull();
-        assertThat(soldVoucher.getPass()).isNotEmpty();
+        assertThat(soldVoucher.getIdentifier()).hasSize(VoucherCode.LENGTH);
+        assertThat(VoucherCode.decode(soldVoucher.getIdentifier())).contains(42L);
+        assertThat(soldVoucher.getPass()).isEqualTo("pass");
     }
 
     @Test
     void rejectValue() {
-        assertThatIllegalArgumentException().isThrownBy(() -> new SoldVoucher(null));
-        assertThatIllegalArgumentException().isThrownBy(() -> new SoldVoucher(Money.of(-1, EURO)));
-        assertThatIllegalArgumentException().isThrownBy(() -> new SoldVoucher(Money.of(0, EURO)));
+        assertThatIllegalArgumentException().isThrownBy(() -> new SoldVoucher(null, 1, "pass"));
+        assertThatIllegalArgumentException().isThrownBy(() -> new SoldVoucher(Money.of(-1, EURO), 1, "pass"));
+        assertThatIllegalArgumentException().isThrownBy(() -> new SoldVoucher(Money.of(0, EURO), 1, "pass"));
         assertThatIllegalArgumentException().isThrownBy(() -> {
-            SoldVoucher soldVoucher = new SoldVoucher(Money.of(10, EURO));
+            SoldVoucher soldVoucher = new SoldVoucher(Money.of(10, EURO), 1, "pass");
             soldVoucher.setValue(Money.of(-1, EURO));
         });
-        SoldVoucher soldVoucher = new SoldVoucher(Money.of(10, EURO));
+        SoldVoucher soldVoucher = new SoldVoucher(Money.of(10, EURO), 1, "pass");
         soldVoucher.setValue(Money.of(12, EURO));
         assertThat(soldVoucher.getValue()).isEqualTo(Money.of(12, EURO));
     }
 
+    @Test
+    void rejectSerialAndPass() {
+        assertThatIllegalArgumentException().isThrownBy(() -> new SoldVoucher(Money.of(10, EURO), 0, "pass"));
+        assertThatIllegalArgumentException()
+                .isThrownBy(() -> new SoldVoucher(Money.of(10, EURO), VoucherCode.MAX_SERIAL + 1, "pass"));
+        assertThatIllegalArgumentException().isThrownBy(() -> new SoldVoucher(Money.of(10, EURO), 1, ""));
+    }
+
     @Test
     void testMatchPass() {
         MonetaryAmount value = Money.of(1, EURO);
-        SoldVoucher soldVoucher = new SoldVoucher(value);
+        SoldVoucher soldVoucher = new SoldVoucher(value, 1, "pass");
         assertThat(soldVoucher.matchPass(soldVoucher.getPass())).isTrue();
+        assertThat(soldVoucher.matchPass("wrong")).isFalse();
     }
 }
@@ -0,0 +1,71 @@
+package videoshop.inventory;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+import org.salespointframework.catalog.ProductIdentifier;
+import org.salespointframework.inventory.UniqueInventory;
+import org.salespointframework.inventory.UniqueInventoryItem;
+import org.salespointframework.quantity.Quantity;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.util.Streamable;
+import org.springframework.transaction.annotation.Transactional;
+import videoshop.catalog.Buyable;
+import videoshop.catalog.Buyable.BuyableType;
+import videoshop.catalog.ShopCatalog;
+import videoshop.order.UsedVoucher;
+import videoshop.order.UsedVoucherInventory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * Integration tests for {@link StockOverview} and {@link StockItems}
+ */
+@SpringBootTest
+@Transactional
+class StockOverviewIntegrationTests {
+
+    @Autowired StockOverview stockOverview;
+    @Autowired StockItems stockItems;
+    @Autowired UniqueInventory<UniqueInventoryItem> inventory;
+    @Autowired UsedVoucherInventory usedVoucherInventory;
+    @Autowired VoucherInventory voucherInventory;
+    @Autowired SoldVoucherFactory soldVoucherFactory;
+    @Autowired ShopCatalog catalog;
+
+    @Test
+    void pagesThroughEveryDiscOnce() {
+        List<ProductIdentifier> shown = new ArrayList<>();
+        String after = null;
+        StockPage page;
+        do {
+            page = stockOverview.findStock(after);
+            assertThat(page.getItems()).hasSizeLessThanOrEqualTo(StockOverview.PAGE_SIZE);
+            page.getItems().forEach(item -> shown.add(item.getProduct().getId()));
+            after = page.getNext();
+        } while (page.hasNext());
+
+        List<ProductIdentifier> discs = Stream.of(BuyableType.DVD, BuyableType.BLURAY)
+                .flatMap(type -> Streamable.of(catalog.findByType(type)).stream())
+                .map(Buyable::getId)
+                .collect(Collectors.toList());
+        assertThat(shown).doesNotHaveDuplicates().containsExactlyInAnyOrderElementsOf(discs);
+    }
+
+    @Test
+    void dropsItemsOfRedeemedVouchers() {
+        SoldVoucher soldVoucher = voucherInventory.save(soldVoucherFactory.create(Money.of(10, EURO)));
+        UsedVoucher usedVoucher = usedVoucherInventory.save(new UsedVoucher(soldVoucher));
+        inventory.save(new UniqueInventoryItem(usedVoucher, Quantity.of(1)));
+
+        assertThat(stockItems.deleteUsedVoucherItems()).isEqualTo(1);
+        assertThat(inventory.findByProductIdentifier(usedVoucher.getId())).isEmpty();
+        assertThat(usedVoucherInventory.findAll()).contains(usedVoucher);
+    }
+}
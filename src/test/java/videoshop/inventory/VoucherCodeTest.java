@@ -0,0 +1,70 @@
+package videoshop.inventory;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+
+/**
+ * TestCases for VoucherCode
+ */
+public class VoucherCodeTest {
+
+    private static final String SYMBOLS = "0123456789ABCDEFGHJKMNPQRSTVWXYZ";
+
+    @Test
+    void roundTrip() {
+        Random random = new Random(42);
+        for (int i = 0; i < 10_000; i++) {
+            long serial = (random.nextLong() & Long.MAX_VALUE) % (VoucherCode.MAX_SERIAL + 1);
+            String code = VoucherCode.encode(serial);
+            assertThat(code).hasSize(VoucherCode.LENGTH);
+            assertThat(VoucherCode.decode(code)).contains(serial);
+        }
+        assertThat(VoucherCode.decode(VoucherCode.encode(VoucherCode.MAX_SERIAL))).contains(VoucherCode.MAX_SERIAL);
+    }
+
+    @Test
+    void acceptsSloppyInput() {
+        String code = VoucherCode.encode(1234567);
+        String sloppy = code.substring(0, 4).toLowerCase() + "-" + code.substring(4);
+        assertThat(VoucherCode.decode(sloppy)).contains(1234567L);
+        assertThat(VoucherCode.decode(" " + code.replace('0', 'O').replace('1', 'I') + " ")).contains(1234567L);
+    }
+
+    @Test
+    void rejectsSingleTypos() {
+        String code = VoucherCode.encode(987654321);
+        for (int i = 0; i < VoucherCode.WIDTH; i++) {
+            for (char symbol : SYMBOLS.toCharArray()) {
+                if (symbol != code.charAt(i)) {
+                    String typo = code.substring(0, i) + symbol + code.substring(i + 1);
+                    assertThat(VoucherCode.decode(typo)).isEmpty();
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectsSwappedNeighbours() {
+        String code = VoucherCode.encode(987654321);
+        for (int i = 0; i < VoucherCode.LENGTH - 1; i++) {
+            if (code.charAt(i) != code.charAt(i + 1)) {
+                String swapped = code.substring(0, i) + code.charAt(i + 1) + code.charAt(i) + code.substring(i + 2);
+                assertThat(VoucherCode.decode(swapped)).isEmpty();
+            }
+        }
+    }
+
+    @Test
+    void rejectsMalformedCodes() {
+        assertThat(VoucherCode.decode(null)).isEmpty();
+        assertThat(VoucherCode.decode("")).isEmpty();
+        assertThat(VoucherCode.decode("12345")).isEmpty();
+        assertThat(VoucherCode.decode("0000000U!")).isEmpty();
+        assertThat(VoucherCode.decode("6f1c8a8e-4f3a-4f6e-9a3b-2f1d7c0b9e11")).isEmpty();
+        assertThatIllegalArgumentException().isThrownBy(() -> VoucherCode.encode(-1));
+    }
+}
@@ -0,0 +1,61 @@
+package videoshop.inventory;
+
+import static org.hamcrest.CoreMatchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Integration tests for {@link VoucherIssuanceController}.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class VoucherIssuanceControllerIntegrationTests {
+
+	@Autowired MockMvc mvc;
+
+	@Test
+	void preventsPublicAccessForVoucherIssuance() throws Exception {
+
+		mvc.perform(post("/vouchers/issue").param("value", "10").param("count", "3")) //
+				.andExpect(status().isFound()) //
+				.andExpect(header().string(HttpHeaders.LOCATION, endsWith("/login")));
+	}
+
+	@Test
+	@WithMockUser(username = "boss", roles = "BOSS")
+	void streamsIssuedVouchersAsCsv() throws Exception {
+
+		MvcResult result = mvc.perform(post("/vouchers/issue").param("value", "10").param("count", "3")) //
+				.andExpect(request().asyncStarted()) //
+				.andReturn();
+
+		mvc.perform(asyncDispatch(result)) //
+				.andExpect(status().isOk()) //
+				.andExpect(content().string(startsWith("identifier,pass,value\n")));
+	}
+
+	@Test
+	@WithMockUser(username = "boss", roles = "BOSS")
+	void rejectsInvalidCount() throws Exception {
+
+		mvc.perform(post("/vouchers/issue").param("value", "10").param("count", "0")) //
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	@WithMockUser(username = "boss", roles = "BOSS")
+	void rejectsFractionsOfCents() throws Exception {
+
+		mvc.perform(post("/vouchers/issue").param("value", "10.005").param("count", "1")) //
+				.andExpect(status().isBadRequest());
+	}
+}
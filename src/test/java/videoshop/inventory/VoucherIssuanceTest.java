@@ -0,0 +1,64 @@
+package videoshop.inventory;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * TestCases for VoucherIssuance
+ */
+@ExtendWith(MockitoExtension.class)
+public class VoucherIssuanceTest {
+    @Mock
+    VoucherInventory voucherInventory;
+    @Mock
+    VoucherLookup voucherLookup;
+    @Mock
+    EntityManager entityManager;
+    @Mock
+    PlatformTransactionManager transactionManager;
+
+    @Test
+    void issuesInChunks() {
+        AtomicLong sequence = new AtomicLong(1 - SoldVoucherFactory.SERIAL_BLOCK);
+        when(voucherInventory.nextSerialBlock()).thenAnswer(invocation ->
+                sequence.addAndGet(SoldVoucherFactory.SERIAL_BLOCK));
+        VoucherIssuance issuance = new VoucherIssuance(voucherInventory,
+                new SoldVoucherFactory(voucherInventory, new PassPool(16), voucherLookup), entityManager,
+                transactionManager);
+        List<SoldVoucher> issued = new ArrayList<>();
+        int count = 2 * VoucherIssuance.CHUNK_SIZE + 1;
+        issuance.issue(Money.of(50, EURO), count, issued::add);
+        assertThat(issued).hasSize(count);
+        assertThat(issued).allMatch(soldVoucher -> soldVoucher.getValue().isEqualTo(Money.of(50, EURO)));
+        assertThat(issued.stream().map(SoldVoucher::getIdentifier).distinct()).hasSize(count);
+        // One batch and one cleared persistence context per chunk
+        verify(voucherInventory, times(3)).saveAll(anyIterable());
+        verify(entityManager, times(3)).clear();
+    }
+
+    @Test
+    void rejectsInvalidArguments() {
+        VoucherIssuance issuance = new VoucherIssuance(voucherInventory,
+                new SoldVoucherFactory(voucherInventory, new PassPool(16), voucherLookup), entityManager,
+                transactionManager);
+        assertThatIllegalArgumentException().isThrownBy(() -> issuance.issue(Money.of(0, EURO), 1, it -> {}));
+        assertThatIllegalArgumentException().isThrownBy(() -> issuance.issue(Money.of(10, EURO), 0, it -> {}));
+    }
+}
@@ -0,0 +1,133 @@
+package videoshop.inventory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * TestCases for VoucherLookup
+ */
+@ExtendWith(MockitoExtension.class)
+public class VoucherLookupTest {
+    @Mock
+    VoucherInventory voucherInventory;
+    private final MeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private static final long SETTLE_SECONDS = VoucherLookup.SETTLE_TIME.toSeconds();
+
+    /**
+     * Create a lookup trusting its filter for the first block of serials, which holds the given ones
+     */
+    private VoucherLookup loadedLookup(Long... serials) {
+        when(voucherInventory.findLastSerialBlockTakenBefore(SETTLE_SECONDS)).thenReturn(1L);
+        when(voucherInventory.findSerialsBetween(eq(0L), eq((long) SoldVoucherFactory.SERIAL_BLOCK), any()))
+                .thenReturn(List.of(serials));
+        VoucherLookup lookup = new VoucherLookup(voucherInventory, meterRegistry, new SerialFilter(1000, 0.01));
+        lookup.reload();
+        return lookup;
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.counter("videoshop.vouchers.lookups", "result", result).count();
+    }
+
+    @Test
+    void findsLoadedVoucher() {
+        SoldVoucher soldVoucher = new SoldVoucher(Money.of(10, EURO), 42, "pass");
+        when(voucherInventory.findBySerial(42)).thenReturn(Optional.of(soldVoucher));
+        VoucherLookup lookup = loadedLookup(42L);
+        assertThat(lookup.findByIdentifier(soldVoucher.getIdentifier())).contains(soldVoucher);
+        assertThat(lookups("found")).isEqualTo(1);
+    }
+
+    @Test
+    void rejectsUnknownVoucherWithoutQuery() {
+        VoucherLookup lookup = loadedLookup(1L, 2L, 3L);
+        assertThat(lookup.findByIdentifier(VoucherCode.encode(47))).isEmpty();
+        verify(voucherInventory, never()).findBySerial(anyLong());
+        assertThat(lookups("filtered")).isEqualTo(1);
+    }
+
+    @Test
+    void queriesSerialsBeyondTheTrustedBound() {
+        // Issued on another instance after the filter was loaded
+        SoldVoucher soldVoucher = new SoldVoucher(Money.of(10, EURO), 4711, "pass");
+        when(voucherInventory.findBySerial(4711)).thenReturn(Optional.of(soldVoucher));
+        VoucherLookup lookup = loadedLookup(1L, 2L, 3L);
+        assertThat(lookup.findByIdentifier(soldVoucher.getIdentifier())).contains(soldVoucher);
+        assertThat(lookups("filtered")).isZero();
+    }
+
+    @Test
+    void rejectsMalformedIdentifierWithoutQuery() {
+        VoucherLookup lookup = loadedLookup();
+        assertThat(lookup.findByIdentifier("not a voucher")).isEmpty();
+        verify(voucherInventory, never()).findBySerial(anyLong());
+        assertThat(lookups("malformed")).isEqualTo(1);
+    }
+
+    @Test
+    void findsRegisteredVoucher() {
+        VoucherLookup lookup = loadedLookup();
+        SoldVoucher soldVoucher = new SoldVoucher(Money.of(10, EURO), 7, "pass");
+        lookup.register(soldVoucher);
+        when(voucherInventory.findBySerial(7)).thenReturn(Optional.of(soldVoucher));
+        assertThat(lookup.findByIdentifier(soldVoucher.getIdentifier())).contains(soldVoucher);
+    }
+
+    @Test
+    void loadsSerialsPageByPage() {
+        long bound = VoucherLookup.LOAD_PAGE_SIZE + SoldVoucherFactory.SERIAL_BLOCK;
+        when(voucherInventory.findLastSerialBlockTakenBefore(SETTLE_SECONDS))
+                .thenReturn(bound - SoldVoucherFactory.SERIAL_BLOCK + 1);
+        when(voucherInventory.findSerialsBetween(eq(0L), eq(bound), any()))
+                .thenReturn(LongStream.rangeClosed(1, VoucherLookup.LOAD_PAGE_SIZE).boxed()
+                        .collect(Collectors.toList()));
+        when(voucherInventory.findSerialsBetween(eq((long) VoucherLookup.LOAD_PAGE_SIZE), eq(bound), any()))
+                .thenReturn(List.of(bound));
+        VoucherLookup lookup = new VoucherLookup(voucherInventory, meterRegistry, new SerialFilter(20_000, 0.01));
+        lookup.reload();
+        assertThat(meterRegistry.get("videoshop.vouchers.filter.entries").gauge().value())
+                .isEqualTo(VoucherLookup.LOAD_PAGE_SIZE + 1);
+    }
+
+    @Test
+    void queriesDatabaseWhileNoBlockHasSettled() {
+        VoucherLookup lookup = new VoucherLookup(voucherInventory, meterRegistry, new SerialFilter(1000, 0.01));
+        // Blocks taken by other instances may still be in use, so none of their serials are trusted yet
+        when(voucherInventory.findLastSerialBlockTakenBefore(SETTLE_SECONDS)).thenReturn(0L);
+        lookup.reload();
+        when(voucherInventory.findBySerial(5)).thenReturn(Optional.empty());
+        assertThat(lookup.findByIdentifier(VoucherCode.encode(5))).isEmpty();
+        verify(voucherInventory).findBySerial(5);
+        assertThat(lookups("filtered")).isZero();
+        assertThat(lookups("false_positive")).isZero();
+    }
+
+    @Test
+    void exposesFilterMetrics() {
+        loadedLookup(1L, 2L);
+        assertThat(meterRegistry.get("videoshop.vouchers.filter.entries").gauge().value()).isEqualTo(2);
+        assertThat(meterRegistry.get("videoshop.vouchers.filter.bits").gauge().value()).isPositive();
+        assertThat(meterRegistry.get("videoshop.vouchers.filter.false.positive.rate").gauge().value())
+                .isBetween(0.0, 0.01);
+    }
+}
@@ -0,0 +1,73 @@
+package videoshop.order;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.salespointframework.order.Cart;
+import org.salespointframework.order.CartItem;
+import videoshop.catalog.Buyable;
+import videoshop.catalog.Disc;
+import videoshop.catalog.ShopCatalog;
+import videoshop.catalog.Voucher;
+import videoshop.inventory.SoldVoucher;
+import videoshop.inventory.VoucherInventory;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * TestCases for CartLoader
+ */
+@ExtendWith(MockitoExtension.class)
+public class CartLoaderTest {
+    @Mock
+    ShopCatalog shopCatalog;
+    @Mock
+    VoucherInventory voucherInventory;
+
+    @Test
+    void loadsProductsAndVouchersInBatches() {
+        Disc disc = new Disc("Test", null, Money.of(5, EURO), null, Buyable.BuyableType.DVD);
+        Voucher voucher = new Voucher(Money.of(20, EURO));
+        Disc removed = new Disc("Removed", null, Money.of(5, EURO), null, Buyable.BuyableType.DVD);
+        SoldVoucher first = new SoldVoucher(Money.of(10, EURO), 1, "pass");
+        SoldVoucher second = new SoldVoucher(Money.of(15, EURO), 2, "pass");
+        SessionCart sessionCart = new SessionCart();
+        sessionCart.addOrUpdateItem(disc.getId(), 2);
+        sessionCart.addOrUpdateItem(removed.getId(), 1);
+        sessionCart.addOrUpdateItem(voucher.getId(), 1);
+        sessionCart.redeem(2);
+        sessionCart.redeem(1);
+        when(shopCatalog.findAllById(sessionCart.getItems().keySet())).thenReturn(List.of(voucher, disc));
+        when(voucherInventory.findBySerialIn(sessionCart.getRedeemedVouchers())).thenReturn(List.of(first, second));
+
+        Cart cart = new CartLoader(shopCatalog, voucherInventory).load(sessionCart);
+
+        List<Object> products = cart.get().map(CartItem::getProduct).collect(Collectors.toList());
+        assertThat(products).hasSize(4);
+        assertThat(products.subList(0, 2)).containsExactly(disc, voucher);
+        assertThat(products.subList(2, 4)).extracting(product -> ((UsedVoucher) product).getAssignedSoldVoucher())
+                .containsExactly(second, first);
+        assertThat(cart.getPrice()).isEqualTo(Money.of(5, EURO));
+        verify(shopCatalog, times(1)).findAllById(any());
+        verify(voucherInventory, times(1)).findBySerialIn(any());
+    }
+
+    @Test
+    void loadsEmptyCartWithoutQueries() {
+        Cart cart = new CartLoader(shopCatalog, voucherInventory).load(new SessionCart());
+        assertThat(cart.isEmpty()).isTrue();
+        verify(shopCatalog, never()).findAllById(any());
+        verify(voucherInventory, never()).findBySerialIn(any());
+    }
+}
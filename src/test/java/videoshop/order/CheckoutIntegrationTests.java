@@ -0,0 +1,88 @@
+package videoshop.order;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+import org.salespointframework.order.Cart;
+import org.salespointframework.quantity.Quantity;
+import org.salespointframework.useraccount.UserAccount;
+import org.salespointframework.useraccount.UserAccountManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.data.util.Streamable;
+import videoshop.catalog.Buyable;
+import videoshop.catalog.Buyable.BuyableType;
+import videoshop.catalog.ShopCatalog;
+import videoshop.inventory.SoldVoucher;
+import videoshop.inventory.SoldVoucherFactory;
+import videoshop.inventory.VoucherInventory;
+
+import javax.money.MonetaryAmount;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * Stress test for {@link Checkout} redeeming the same voucher from many parallel checkouts.
+ * Not transactional on purpose, as every checkout has to run in a transaction of its own.
+ */
+@SpringBootTest
+class CheckoutIntegrationTests {
+
+    private static final int CHECKOUTS = 16;
+
+    @Autowired Checkout checkout;
+    @Autowired VoucherInventory voucherInventory;
+    @Autowired SoldVoucherFactory soldVoucherFactory;
+    @Autowired ShopCatalog catalog;
+    @Autowired UserAccountManager userAccountManager;
+
+    @Test
+    void neverSpendsBalanceTwice() throws Exception {
+        SoldVoucher soldVoucher = voucherInventory.save(soldVoucherFactory.create(Money.of(50, EURO)));
+        UserAccount boss = userAccountManager.findByUsername("boss").orElseThrow();
+        Buyable voucher = Streamable.of(catalog.findByType(BuyableType.VOUCHER)).stream()
+                .filter(it -> it.getPrice().isEqualTo(Money.of(50, EURO)))
+                .findFirst().orElseThrow();
+        ExecutorService executor = Executors.newFixedThreadPool(CHECKOUTS);
+        CountDownLatch ready = new CountDownLatch(CHECKOUTS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<MonetaryAmount>> spent = new ArrayList<>();
+        for (int i = 0; i < CHECKOUTS; i++) {
+            spent.add(executor.submit(() -> {
+                // Every session holds its own copy of the voucher, read before anyone checked out
+                UsedVoucher usedVoucher = new UsedVoucher(
+                        voucherInventory.findByIdentifier(soldVoucher.getIdentifier()).orElseThrow());
+                Cart cart = new Cart();
+                cart.addOrUpdateItem(voucher, Quantity.of(1));
+                cart.addOrUpdateItem(usedVoucher, Quantity.of(1));
+                ready.countDown();
+                start.await();
+                try {
+                    checkout.checkout(cart, boss);
+                    // The price of a UsedVoucher is the negated value spent
+                    return usedVoucher.getPrice().negate();
+                } catch (OptimisticLockingFailureException e) {
+                    return Money.of(0, EURO);
+                }
+            }));
+        }
+        ready.await();
+        start.countDown();
+        MonetaryAmount totalSpent = Money.of(0, EURO);
+        for (Future<MonetaryAmount> future : spent) {
+            totalSpent = totalSpent.add(future.get());
+        }
+        executor.shutdown();
+
+        assertThat(totalSpent).isEqualTo(Money.of(50, EURO));
+        assertThat(voucherInventory.findByIdentifier(soldVoucher.getIdentifier()).orElseThrow().getValue().isZero())
+                .isTrue();
+    }
+}
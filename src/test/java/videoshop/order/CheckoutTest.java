@@ -0,0 +1,113 @@
+package videoshop.order;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.salespointframework.order.Cart;
+import org.salespointframework.order.Order;
+import org.salespointframework.order.OrderManager;
+import org.salespointframework.quantity.Quantity;
+import org.salespointframework.useraccount.UserAccount;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import videoshop.catalog.Voucher;
+import videoshop.inventory.SoldVoucher;
+import videoshop.inventory.SoldVoucherFactory;
+import videoshop.inventory.VoucherInventory;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyIterable;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.salespointframework.core.Currencies.EURO;
+import static videoshop.order.VoucherSettlementTest.balance;
+
+/**
+ * TestCases for Checkout
+ */
+@ExtendWith(MockitoExtension.class)
+public class CheckoutTest {
+    @Mock
+    OrderManager<Order> orderManager;
+    @Mock
+    VoucherInventory voucherInventory;
+    @Mock
+    UsedVoucherInventory usedVoucherInventory;
+    @Mock
+    SoldVoucherFactory soldVoucherFactory;
+    @Mock
+    PlatformTransactionManager transactionManager;
+    @Mock
+    UserAccount userAccount;
+    private Checkout checkout;
+
+    @BeforeEach
+    void setup() {
+        checkout = new Checkout(orderManager, voucherInventory, usedVoucherInventory,
+                new VoucherSettlement(voucherInventory), soldVoucherFactory, transactionManager);
+    }
+
+    @Test
+    void savesSoldVouchersInSingleBatch() {
+        Cart cart = new Cart();
+        cart.addOrUpdateItem(new Voucher(Money.of(50, EURO)), Quantity.of(5));
+        when(soldVoucherFactory.create(any())).thenAnswer(invocation ->
+                new SoldVoucher(invocation.getArgument(0), 1, "pass"));
+        List<SoldVoucher> soldVouchers = checkout.checkout(cart, userAccount);
+        assertThat(soldVouchers).hasSize(5);
+        verify(voucherInventory, times(1)).saveAll(anyIterable());
+        verify(voucherInventory, never()).save(any());
+        verify(orderManager).completeOrder(any());
+    }
+
+    @Test
+    void retriesWithFreshBalanceOnConflict() {
+        SoldVoucher soldVoucher = new SoldVoucher(Money.of(50, EURO), 1, "pass");
+        UsedVoucher usedVoucher = new UsedVoucher(soldVoucher);
+        Cart cart = new Cart();
+        cart.addOrUpdateItem(new Voucher(Money.of(30, EURO)), Quantity.of(1));
+        cart.addOrUpdateItem(usedVoucher, Quantity.of(1));
+        when(soldVoucherFactory.create(any())).thenAnswer(invocation ->
+                new SoldVoucher(invocation.getArgument(0), 2, "pass"));
+        // Someone else spent 40 in between
+        when(voucherInventory.findBalanceBySerial(soldVoucher.getSerial()))
+                .thenReturn(Optional.of(balance(Money.of(50, EURO), 0)))
+                .thenReturn(Optional.of(balance(Money.of(10, EURO), 1)));
+        when(voucherInventory.compareAndSetValue(eq(soldVoucher.getSerial()), anyLong(), any()))
+                .thenReturn(0)
+                .thenReturn(1);
+        checkout.checkout(cart, userAccount);
+        // Only the 10 left could be spent
+        assertThat(usedVoucher.getAvailableValue()).isEqualTo(Money.of(0, EURO));
+        assertThat(usedVoucher.getPrice()).isEqualTo(Money.of(10, EURO).negate());
+        verify(voucherInventory).compareAndSetValue(soldVoucher.getSerial(), 1L, Money.of(0, EURO));
+        verify(orderManager, times(1)).completeOrder(any());
+    }
+
+    @Test
+    void givesUpAfterMaxAttempts() {
+        SoldVoucher soldVoucher = new SoldVoucher(Money.of(50, EURO), 1, "pass");
+        Cart cart = new Cart();
+        cart.addOrUpdateItem(new UsedVoucher(soldVoucher), Quantity.of(1));
+        when(voucherInventory.findBalanceBySerial(soldVoucher.getSerial()))
+                .thenReturn(Optional.of(balance(Money.of(50, EURO), 0)));
+        when(voucherInventory.compareAndSetValue(eq(soldVoucher.getSerial()), anyLong(), any())).thenReturn(0);
+        assertThatExceptionOfType(OptimisticLockingFailureException.class)
+                .isThrownBy(() -> checkout.checkout(cart, userAccount));
+        verify(voucherInventory, times(Checkout.MAX_ATTEMPTS))
+                .compareAndSetValue(eq(soldVoucher.getSerial()), anyLong(), any());
+        verify(orderManager, never()).completeOrder(any());
+    }
+}
@@ -0,0 +1,32 @@
+package videoshop.order;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * TestCases for MinorUnits
+ */
+public class MinorUnitsTest {
+
+    @Test
+    void convertsToCents() {
+        assertThat(MinorUnits.of(Money.of(12.34, EURO))).isEqualTo(1234);
+        assertThat(MinorUnits.of(Money.of(-0.1, EURO))).isEqualTo(-10);
+        assertThat(MinorUnits.of(Money.of(50, EURO))).isEqualTo(5000);
+    }
+
+    @Test
+    void convertsToAmount() {
+        assertThat(MinorUnits.toAmount(1234, EURO).isEqualTo(Money.of(12.34, EURO))).isTrue();
+        assertThat(MinorUnits.toAmount(-5, EURO).isEqualTo(Money.of(-0.05, EURO))).isTrue();
+    }
+
+    @Test
+    void rejectsFractionsOfCents() {
+        assertThatIllegalArgumentException().isThrownBy(() -> MinorUnits.of(Money.of(0.001, EURO)));
+    }
+}
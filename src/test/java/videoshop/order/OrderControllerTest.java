@@ -10,19 +10,38 @@ import org.salespointframework.inventory.UniqueInventoryItem;
 import org.salespointframework.order.Cart;
 import org.salespointframework.order.Order;
 import org.salespointframework.order.OrderManager;
+import org.salespointframework.quantity.Quantity;
 import org.salespointframework.useraccount.Role;
 import org.salespointframework.useraccount.UserAccount;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.ui.ExtendedModelMap;
 import org.springframework.ui.Model;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
 import videoshop.catalog.Buyable;
 import videoshop.catalog.Disc;
+import videoshop.catalog.ShopCatalog;
+import videoshop.catalog.StockReservations;
 import videoshop.catalog.Voucher;
+import videoshop.inventory.SoldVoucher;
+import videoshop.inventory.SoldVoucherFactory;
 import videoshop.inventory.VoucherInventory;
+import videoshop.inventory.VoucherLookup;
 
 import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.entry;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 import static org.salespointframework.core.Currencies.EURO;
 
 /**
@@ -35,55 +54,125 @@ public class OrderControllerTest {
     @Mock
     VoucherInventory voucherInventory;
     @Mock
+    OrderOverview orderOverview;
+    @Mock
+    ShopCatalog shopCatalog;
+    @Mock
+    VoucherLookup voucherLookup;
+    @Mock
     UsedVoucherInventory usedVoucherInventory;
     @Mock
     UniqueInventory<UniqueInventoryItem> inventory;
+    @Mock
+    SoldVoucherFactory soldVoucherFactory;
+    @Mock
+    PlatformTransactionManager transactionManager;
     private Model model = new ExtendedModelMap();
+    private MockHttpSession session = new MockHttpSession();
     @Mock
     UserAccount userAccount;
 
     @Test
     void addVoucherToCart() {
-        OrderController controller = new OrderController(orderManager, voucherInventory, usedVoucherInventory, inventory);
-        Cart cart = controller.initializeCart();
+        OrderController controller = new OrderController(orderOverview, voucherLookup, new CartLoader(shopCatalog, voucherInventory),
+                new Checkout(orderManager, voucherInventory, usedVoucherInventory,
+                        new VoucherSettlement(voucherInventory), soldVoucherFactory, transactionManager),
+                new StockReservations(inventory));
+        SessionCart cart = controller.initializeCart();
         Voucher voucher = new Voucher(Money.of(12, EURO));
-        controller.addItem(voucher, 1, cart);
-        assertThat(cart.iterator().next().getProduct()).isEqualTo(voucher);
+        controller.addItem(voucher, 1, cart, session);
+        controller.addItem(voucher, 2, cart, session);
+        assertThat(cart.getItems()).containsOnly(entry(voucher.getId(), 3));
     }
 
     @Test
     void buyVoucher() {
-        OrderController controller = new OrderController(orderManager, voucherInventory, usedVoucherInventory, inventory);
-        Cart cart = controller.initializeCart();
+        OrderController controller = new OrderController(orderOverview, voucherLookup, new CartLoader(shopCatalog, voucherInventory),
+                new Checkout(orderManager, voucherInventory, usedVoucherInventory,
+                        new VoucherSettlement(voucherInventory), soldVoucherFactory, transactionManager),
+                new StockReservations(inventory));
+        SessionCart cart = controller.initializeCart();
         Voucher voucher = new Voucher(Money.of(12, EURO));
         Voucher voucher2 = new Voucher(Money.of(24, EURO));
         Disc disc = new Disc("Test", null, Money.of(1, EURO), null, Buyable.BuyableType.DVD);
-        controller.addItem(voucher, 2, cart);
-        controller.addItem(disc, 3, cart);
-        controller.addItem(voucher2, 1, cart);
-        String viewName = controller.buy(cart, Optional.of(userAccount), model);
+        controller.addItem(voucher, 2, cart, session);
+        controller.addItem(disc, 3, cart, session);
+        controller.addItem(voucher2, 1, cart, session);
+        when(shopCatalog.findAllById(cart.getItems().keySet())).thenReturn(List.of(voucher, voucher2, disc));
+        when(soldVoucherFactory.create(any())).thenAnswer(invocation ->
+                new SoldVoucher(invocation.getArgument(0), 1, "pass"));
+        String viewName = controller.buy(cart, Optional.of(userAccount), model, session);
         assertThat(viewName).isEqualTo("checkout");
         assertThat(model.getAttribute("soldVouchers")).isNotNull();
         assertThat(model.getAttribute("soldVouchers")).asList().hasSize(3);
+        assertThat(cart.isEmpty()).isTrue();
+    }
+
+    @Test
+    void redeemVoucherLooksUpSingleVoucher() {
+        OrderController controller = new OrderController(orderOverview, voucherLookup, new CartLoader(shopCatalog, voucherInventory),
+                new Checkout(orderManager, voucherInventory, usedVoucherInventory,
+                        new VoucherSettlement(voucherInventory), soldVoucherFactory, transactionManager),
+                new StockReservations(inventory));
+        SessionCart cart = controller.initializeCart();
+        SoldVoucher soldVoucher = new SoldVoucher(Money.of(10, EURO), 1, "pass");
+        when(voucherLookup.findByIdentifier(soldVoucher.getIdentifier())).thenReturn(Optional.of(soldVoucher));
+        RedeemVoucherForm form = new RedeemVoucherForm(soldVoucher.getIdentifier(), soldVoucher.getPass());
+        Errors errors = new BeanPropertyBindingResult(form, "redeemVoucherForm");
+        String viewName = controller.redeemVoucher(form, errors, cart, model, session);
+        assertThat(viewName).isEqualTo("redirect:/cart");
+        assertThat(cart.isRedeemed(soldVoucher.getSerial())).isTrue();
+        // Exactly one indexed lookup, no matter how many vouchers have been sold
+        verify(voucherLookup, times(1)).findByIdentifier(any());
+        verify(voucherInventory, never()).findAll();
     }
 
     @Test
     void getBasket() {
-        OrderController controller = new OrderController(orderManager, voucherInventory, usedVoucherInventory, inventory);
-        assertThat(controller.basket(new RedeemVoucherForm("test", "test"))).isEqualTo("cart");
+        OrderController controller = new OrderController(orderOverview, voucherLookup, new CartLoader(shopCatalog, voucherInventory),
+                new Checkout(orderManager, voucherInventory, usedVoucherInventory,
+                        new VoucherSettlement(voucherInventory), soldVoucherFactory, transactionManager),
+                new StockReservations(inventory));
+        assertThat(controller.basket(new RedeemVoucherForm("test", "test"), new SessionCart(), model, session))
+                .isEqualTo("cart");
+        assertThat(model.getAttribute("cart")).isInstanceOf(Cart.class);
+        assertThat(model.getAttribute("unavailable")).isEqualTo(false);
+    }
+
+    @Test
+    void checkoutReservesTheCartAgain() {
+        OrderController controller = new OrderController(orderOverview, voucherLookup, new CartLoader(shopCatalog, voucherInventory),
+                new Checkout(orderManager, voucherInventory, usedVoucherInventory,
+                        new VoucherSettlement(voucherInventory), soldVoucherFactory, transactionManager),
+                new StockReservations(inventory));
+        SessionCart cart = controller.initializeCart();
+        Disc disc = new Disc("Test", null, Money.of(1, EURO), null, Buyable.BuyableType.DVD);
+        // Sold on another instance after it has been put into the cart
+        when(inventory.findByProduct(disc)).thenReturn(Optional.of(new UniqueInventoryItem(disc, Quantity.of(3))),
+                Optional.of(new UniqueInventoryItem(disc, Quantity.of(1))));
+        assertThat(controller.addItem(disc, 3, cart, session)).isEqualTo("redirect:dvds");
+        when(shopCatalog.findAllById(cart.getItems().keySet())).thenReturn(List.of(disc));
+        String viewName = controller.buy(cart, Optional.of(userAccount), model, session);
+        assertThat(viewName).isEqualTo("redirect:/cart");
+        assertThat(cart.getItems()).containsOnly(entry(disc.getId(), 3));
+        verifyNoInteractions(orderManager);
     }
 
     @Test
     void buyDisc() {
-        OrderController controller = new OrderController(orderManager, voucherInventory, usedVoucherInventory, inventory);
-        Cart cart = controller.initializeCart();
+        OrderController controller = new OrderController(orderOverview, voucherLookup, new CartLoader(shopCatalog, voucherInventory),
+                new Checkout(orderManager, voucherInventory, usedVoucherInventory,
+                        new VoucherSettlement(voucherInventory), soldVoucherFactory, transactionManager),
+                new StockReservations(inventory));
+        SessionCart cart = controller.initializeCart();
         Disc disc = new Disc("Test", null, Money.of(1, EURO), null, Buyable.BuyableType.DVD);
-        String viewName = controller.addItem(disc, 3, cart);
+        String viewName = controller.addItem(disc, 3, cart, session);
         assertThat(viewName).isEqualTo("redirect:dvds");
         Disc disc2 = new Disc("Test2", null, Money.of(1, EURO), null, Buyable.BuyableType.BLURAY);
-        viewName = controller.addItem(disc2, 3, cart);
+        viewName = controller.addItem(disc2, 3, cart, session);
         assertThat(viewName).isEqualTo("redirect:blurays");
-        viewName = controller.buy(cart, Optional.of(userAccount), model);
+        when(shopCatalog.findAllById(cart.getItems().keySet())).thenReturn(List.of(disc, disc2));
+        viewName = controller.buy(cart, Optional.of(userAccount), model, session);
         assertThat(viewName).isEqualTo("redirect:/");
         assertThat(model.getAttribute("soldVouchers")).isNull();
     }
@@ -93,11 +182,17 @@ public class OrderControllerTest {
     void voucherIsShown() {
         // Make our user the a Boss
         userAccount.add(Role.of("BOSS"));
-        OrderController controller = new OrderController(orderManager, voucherInventory, usedVoucherInventory, inventory);
-        String viewName = controller.orders(model);
+        OrderController controller = new OrderController(orderOverview, voucherLookup, new CartLoader(shopCatalog, voucherInventory),
+                new Checkout(orderManager, voucherInventory, usedVoucherInventory,
+                        new VoucherSettlement(voucherInventory), soldVoucherFactory, transactionManager),
+                new StockReservations(inventory));
+        when(orderOverview.findValidVouchers(0)).thenReturn(new SliceImpl<>(List.of()));
+        when(orderOverview.findCompletedOrders(null, null, null, null, null)).thenReturn(new SliceImpl<>(List.of()));
+        String viewName = controller.orders(null, null, null, null, null, 0, model);
         assertThat(viewName).isEqualTo("orders");
         assertThat(model.getAttribute("validVouchers")).isNotNull();
-        assertThat(model.getAttribute("validVouchers")).isInstanceOfAny(List.class);
+        assertThat(model.getAttribute("validVouchers")).isInstanceOfAny(Slice.class);
+        assertThat(model.getAttribute("ordersCompleted")).isInstanceOfAny(Slice.class);
         // We won't test JPA here
     }
 
@@ -0,0 +1,53 @@
+package videoshop.order;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Slice;
+import videoshop.AbstractIntegrationTests;
+import videoshop.inventory.SoldVoucher;
+import videoshop.inventory.SoldVoucherFactory;
+import videoshop.inventory.VoucherInventory;
+
+import java.time.LocalDate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * Integration tests for the keyset queries of {@link OrderOverview}
+ */
+class OrderOverviewIntegrationTests extends AbstractIntegrationTests {
+
+    @Autowired OrderOverview orderOverview;
+    @Autowired VoucherInventory voucherInventory;
+    @Autowired SoldVoucherFactory soldVoucherFactory;
+
+    @Test
+    void pagesValidVouchersOnly() {
+        SoldVoucher spent = soldVoucherFactory.create(Money.of(10, EURO));
+        spent.setValue(Money.of(0, EURO));
+        voucherInventory.save(spent);
+        for (int i = 0; i <= OrderOverview.PAGE_SIZE; i++) {
+            voucherInventory.save(soldVoucherFactory.create(Money.of(10, EURO)));
+        }
+        long after = spent.getSerial() - 1;
+        Slice<SoldVoucher> first = orderOverview.findValidVouchers(after);
+        assertThat(first.getContent()).hasSize(OrderOverview.PAGE_SIZE);
+        assertThat(first.getContent()).allMatch(soldVoucher -> soldVoucher.getValue().isPositive());
+        assertThat(first.hasNext()).isTrue();
+        long last = first.getContent().get(OrderOverview.PAGE_SIZE - 1).getSerial();
+        Slice<SoldVoucher> second = orderOverview.findValidVouchers(last);
+        assertThat(second.getContent()).hasSize(1);
+        assertThat(second.hasNext()).isFalse();
+    }
+
+    @Test
+    void filtersCompletedOrders() {
+        assertThat(orderOverview.findCompletedOrders(LocalDate.of(2000, 1, 1), LocalDate.of(2000, 1, 31), null,
+                null, null).hasContent()).isFalse();
+        assertThat(orderOverview.findCompletedOrders(null, null, "nobody", null, null).hasContent()).isFalse();
+        assertThat(orderOverview.findCompletedOrders(null, null, "boss", null, null).getContent())
+                .allMatch(order -> order.getUserAccount().getUsername().equals("boss"));
+    }
+}
@@ -0,0 +1,105 @@
+package videoshop.order;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.salespointframework.order.Order;
+import org.salespointframework.useraccount.UserAccount;
+import org.salespointframework.useraccount.UserAccountManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import videoshop.inventory.SoldVoucher;
+import videoshop.inventory.VoucherInventory;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * TestCases for OrderOverview
+ */
+@ExtendWith(MockitoExtension.class)
+public class OrderOverviewTest {
+    @Mock
+    CompletedOrders completedOrders;
+    @Mock
+    VoucherInventory voucherInventory;
+    @Mock
+    UserAccountManager userAccountManager;
+
+    private OrderOverview overview() {
+        return new OrderOverview(completedOrders, voucherInventory, userAccountManager);
+    }
+
+    private static List<Order> orders(int count) {
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            orders.add(mock(Order.class));
+        }
+        return orders;
+    }
+
+    @Test
+    void startsBeforeUpperBoundOfDateRange() {
+        PageRequest pageable = PageRequest.of(0, OrderOverview.PAGE_SIZE + 1);
+        when(completedOrders.findPage(LocalDate.of(2020, 1, 1).atStartOfDay(),
+                LocalDate.of(2020, 2, 1).atStartOfDay(), "", pageable)).thenReturn(orders(3));
+        Slice<Order> page = overview().findCompletedOrders(LocalDate.of(2020, 1, 1), LocalDate.of(2020, 1, 31),
+                null, null, null);
+        assertThat(page.getContent()).hasSize(3);
+        assertThat(page.hasNext()).isFalse();
+    }
+
+    @Test
+    void continuesAfterCursor() {
+        LocalDateTime beforeDate = LocalDateTime.of(2020, 1, 15, 12, 0);
+        PageRequest pageable = PageRequest.of(0, OrderOverview.PAGE_SIZE + 1);
+        when(completedOrders.findPage(OrderOverview.EARLIEST.atStartOfDay(), beforeDate, "id", pageable))
+                .thenReturn(orders(OrderOverview.PAGE_SIZE + 1));
+        Slice<Order> page = overview().findCompletedOrders(null, null, null, beforeDate, "id");
+        assertThat(page.getContent()).hasSize(OrderOverview.PAGE_SIZE);
+        assertThat(page.hasNext()).isTrue();
+    }
+
+    @Test
+    void filtersByCustomer() {
+        UserAccount customer = mock(UserAccount.class);
+        when(userAccountManager.findByUsername("hans")).thenReturn(Optional.of(customer));
+        when(completedOrders.findPage(any(UserAccount.class), any(), any(), any(), any())).thenReturn(orders(1));
+        Slice<Order> page = overview().findCompletedOrders(null, null, "hans", null, null);
+        assertThat(page.getContent()).hasSize(1);
+        verify(completedOrders).findPage(customer, OrderOverview.EARLIEST.atStartOfDay(),
+                OrderOverview.LATEST.plusDays(1).atStartOfDay(), "", PageRequest.of(0, OrderOverview.PAGE_SIZE + 1));
+    }
+
+    @Test
+    void findsNothingForUnknownCustomer() {
+        when(userAccountManager.findByUsername("nobody")).thenReturn(Optional.empty());
+        Slice<Order> page = overview().findCompletedOrders(null, null, "nobody", null, null);
+        assertThat(page.hasContent()).isFalse();
+        verify(completedOrders, never()).findPage(any(UserAccount.class), any(), any(), any(), any());
+    }
+
+    @Test
+    void pagesValidVouchers() {
+        SoldVoucher soldVoucher = new SoldVoucher(Money.of(10, EURO), 43, "pass");
+        when(voucherInventory.findValidAfter(42, PageRequest.of(0, OrderOverview.PAGE_SIZE + 1)))
+                .thenReturn(Collections.singletonList(soldVoucher));
+        Slice<SoldVoucher> page = overview().findValidVouchers(42);
+        assertThat(page.getContent()).containsExactly(soldVoucher);
+        assertThat(page.hasNext()).isFalse();
+    }
+}
@@ -0,0 +1,61 @@
+package videoshop.order;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.validation.BeanPropertyBindingResult;
+import org.springframework.validation.Errors;
+import videoshop.inventory.SoldVoucher;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * TestCases for RedeemVoucherFormValidator
+ */
+public class RedeemVoucherFormValidatorTest {
+    private SoldVoucher soldVoucher;
+    private SessionCart cart;
+
+    @BeforeEach
+    void setup() {
+        soldVoucher = new SoldVoucher(Money.of(10, EURO), 1, "pass");
+        cart = new SessionCart();
+    }
+
+    private Errors validate(Optional<SoldVoucher> foundVoucher, RedeemVoucherForm form) {
+        Errors errors = new BeanPropertyBindingResult(form, "redeemVoucherForm");
+        new RedeemVoucherFormValidator(foundVoucher, cart).validate(form, errors);
+        return errors;
+    }
+
+    @Test
+    void acceptsValidVoucher() {
+        Errors errors = validate(Optional.of(soldVoucher),
+                new RedeemVoucherForm(soldVoucher.getIdentifier(), soldVoucher.getPass()));
+        assertThat(errors.hasErrors()).isFalse();
+    }
+
+    @Test
+    void rejectsUnknownVoucher() {
+        Errors errors = validate(Optional.empty(), new RedeemVoucherForm("unknown", "pass"));
+        assertThat(errors.getFieldError("id").getCode()).isEqualTo("id.invalid");
+    }
+
+    @Test
+    void rejectsWrongPass() {
+        Errors errors = validate(Optional.of(soldVoucher),
+                new RedeemVoucherForm(soldVoucher.getIdentifier(), "wrong"));
+        assertThat(errors.getFieldError("pwd").getCode()).isEqualTo("pwd.invalid");
+    }
+
+    @Test
+    void rejectsVoucherAlreadyInCart() {
+        cart.redeem(soldVoucher.getSerial());
+        Errors errors = validate(Optional.of(soldVoucher),
+                new RedeemVoucherForm(soldVoucher.getIdentifier(), soldVoucher.getPass()));
+        assertThat(errors.getFieldError("id").getCode()).isEqualTo("id.used");
+    }
+}
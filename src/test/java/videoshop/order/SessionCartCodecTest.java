@@ -0,0 +1,66 @@
+package videoshop.order;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.convert.TypeDescriptor;
+import org.springframework.core.serializer.support.SerializingConverter;
+import videoshop.catalog.Voucher;
+import videoshop.inventory.VoucherCode;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * TestCases for SessionCartCodec and its use for session attributes
+ */
+public class SessionCartCodecTest {
+
+    private static SessionCart cart() {
+        SessionCart cart = new SessionCart();
+        for (int i = 0; i < 10; i++) {
+            cart.addOrUpdateItem(new Voucher(Money.of(10, EURO)).getId(), i + 1);
+        }
+        cart.redeem(1);
+        cart.redeem(VoucherCode.MAX_SERIAL);
+        return cart;
+    }
+
+    @Test
+    void roundTrips() {
+        SessionCart cart = cart();
+        SessionCart decoded = SessionCartCodec.decode(SessionCartCodec.encode(cart));
+        assertThat(decoded.getItems()).containsExactlyEntriesOf(cart.getItems());
+        assertThat(decoded.getRedeemedVouchers()).containsExactly(1L, VoucherCode.MAX_SERIAL);
+    }
+
+    @Test
+    void isSmallerThanJavaSerialization() {
+        SessionCart cart = cart();
+        byte[] encoded = SessionCartCodec.encode(cart);
+        // 2 header bytes, 10 items of 18 bytes, 2 counts and the serials
+        assertThat(encoded.length).isLessThan(200);
+        assertThat(encoded.length).isLessThan(new SerializingConverter().convert(cart).length / 2);
+    }
+
+    @Test
+    void rejectsOtherBytes() {
+        assertThatIllegalArgumentException().isThrownBy(() -> SessionCartCodec.decode(new byte[]{1, 2, 3}));
+    }
+
+    @Test
+    void convertsSessionAttributes() {
+        SessionStoreConfiguration.SessionAttributeConverter converter =
+                new SessionStoreConfiguration.SessionAttributeConverter(getClass().getClassLoader());
+        TypeDescriptor object = TypeDescriptor.valueOf(Object.class);
+        TypeDescriptor bytes = TypeDescriptor.valueOf(byte[].class);
+
+        byte[] encodedCart = (byte[]) converter.convert(cart(), object, bytes);
+        assertThat(SessionCartCodec.isEncoded(encodedCart)).isTrue();
+        assertThat(converter.convert(encodedCart, bytes, object)).isInstanceOf(SessionCart.class);
+
+        byte[] serialized = (byte[]) converter.convert("some attribute", object, bytes);
+        assertThat(SessionCartCodec.isEncoded(serialized)).isFalse();
+        assertThat(converter.convert(serialized, bytes, object)).isEqualTo("some attribute");
+    }
+}
@@ -0,0 +1,66 @@
+package videoshop.order;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+import org.salespointframework.catalog.ProductIdentifier;
+import videoshop.catalog.Voucher;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatIllegalArgumentException;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * TestCases for SessionCart
+ */
+public class SessionCartTest {
+
+    private static ProductIdentifier newProductIdentifier() {
+        return new Voucher(Money.of(10, EURO)).getId();
+    }
+
+    @Test
+    void addsUpQuantities() {
+        SessionCart cart = new SessionCart();
+        ProductIdentifier productIdentifier = newProductIdentifier();
+        cart.addOrUpdateItem(productIdentifier, 2);
+        cart.addOrUpdateItem(productIdentifier, 3);
+        assertThat(cart.getItems()).containsEntry(productIdentifier, 5);
+        assertThatIllegalArgumentException().isThrownBy(() -> cart.addOrUpdateItem(productIdentifier, 0));
+    }
+
+    @Test
+    void redeemsVoucherOnce() {
+        SessionCart cart = new SessionCart();
+        assertThat(cart.redeem(42)).isTrue();
+        assertThat(cart.redeem(42)).isFalse();
+        assertThat(cart.isRedeemed(42)).isTrue();
+        cart.clear();
+        assertThat(cart.isEmpty()).isTrue();
+    }
+
+    @Test
+    void staysSmallInTheSession() throws Exception {
+        SessionCart cart = new SessionCart();
+        for (int i = 0; i < 10; i++) {
+            cart.addOrUpdateItem(newProductIdentifier(), 5);
+        }
+        cart.redeem(1);
+        cart.redeem(2);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(cart);
+        }
+        // Ten products and two vouchers in the session, independent of the size of the products themselves
+        assertThat(bytes.size()).isLessThan(2048);
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            SessionCart read = (SessionCart) in.readObject();
+            assertThat(read.getItems()).isEqualTo(cart.getItems());
+            assertThat(read.getRedeemedVouchers()).containsExactly(1L, 2L);
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package videoshop.order;
+
+import org.junit.jupiter.api.Test;
+import org.salespointframework.catalog.ProductIdentifier;
+import org.salespointframework.order.Cart;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.session.Session;
+import org.springframework.session.SessionRepository;
+import videoshop.VideoShop;
+import videoshop.catalog.ShopCatalog;
+
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration test running two instances of the application against the same database, moving a cart from one
+ * instance to the other through the session store.
+ */
+class SessionStoreIntegrationTests {
+
+    private static ConfigurableApplicationContext start(String database, boolean first) {
+        SpringApplicationBuilder builder = new SpringApplicationBuilder(VideoShop.class)
+                .properties("server.port=0", "spring.datasource.url=jdbc:h2:mem:" + database + ";DB_CLOSE_DELAY=-1");
+        if (!first) {
+            // The first instance sets up the database
+            builder.properties("spring.jpa.hibernate.ddl-auto=none", "spring.session.jdbc.initialize-schema=never",
+                    "spring.datasource.initialization-mode=never");
+        }
+        return builder.run();
+    }
+
+    @SuppressWarnings("unchecked")
+    private static SessionRepository<Session> sessions(ConfigurableApplicationContext context) {
+        return context.getBean(SessionRepository.class);
+    }
+
+    @Test
+    void movesCartBetweenInstances() {
+        String database = "session-store-" + UUID.randomUUID();
+        try (ConfigurableApplicationContext first = start(database, true);
+             ConfigurableApplicationContext second = start(database, false)) {
+
+            ProductIdentifier product = first.getBean(ShopCatalog.class).findAll().iterator().next().getId();
+            SessionRepository<Session> firstSessions = sessions(first);
+            Session session = firstSessions.createSession();
+            SessionCart cart = new SessionCart();
+            cart.addOrUpdateItem(product, 2);
+            cart.redeem(4711);
+            session.setAttribute("sessionCart", cart);
+            firstSessions.save(session);
+
+            Session moved = sessions(second).findById(session.getId());
+            assertThat(moved).isNotNull();
+            SessionCart movedCart = moved.getAttribute("sessionCart");
+            assertThat(movedCart.getItems()).containsExactlyEntriesOf(cart.getItems());
+            assertThat(movedCart.getRedeemedVouchers()).containsExactly(4711L);
+
+            Cart loaded = second.getBean(CartLoader.class).load(movedCart);
+            assertThat(loaded.get().anyMatch(item -> item.getProduct().getId().equals(product))).isTrue();
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package videoshop.order;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.salespointframework.inventory.UniqueInventory;
+import org.salespointframework.inventory.UniqueInventoryItem;
+import org.salespointframework.order.Cart;
+import org.salespointframework.quantity.Quantity;
+import org.salespointframework.useraccount.UserAccount;
+import org.salespointframework.useraccount.UserAccountManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.util.Streamable;
+import org.springframework.transaction.annotation.Transactional;
+import videoshop.catalog.Buyable;
+import videoshop.catalog.Buyable.BuyableType;
+import videoshop.catalog.ShopCatalog;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for checking out {@link Buyable}s with unlimited stock. Stands in for a benchmark by counting the
+ * inventory statements of a checkout: vouchers cause none, discs are still taken from their stock.
+ */
+@SpringBootTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@Transactional
+class UnlimitedStockIntegrationTests {
+
+    @Autowired Checkout checkout;
+    @Autowired ShopCatalog catalog;
+    @Autowired UniqueInventory<UniqueInventoryItem> inventory;
+    @Autowired UserAccountManager userAccountManager;
+    @Autowired EntityManagerFactory entityManagerFactory;
+
+    private Statistics statistics;
+    private UserAccount boss;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        boss = userAccountManager.findByUsername("boss").orElseThrow();
+    }
+
+    @Test
+    void checksOutVouchersWithoutTouchingTheInventory() {
+        Buyable voucher = first(BuyableType.VOUCHER);
+        Cart cart = new Cart();
+        cart.addOrUpdateItem(voucher, Quantity.of(3));
+        statistics.clear();
+
+        checkout.checkout(cart, boss);
+
+        assertThat(voucher.hasUnlimitedStock()).isTrue();
+        assertThat(statistics.getEntityStatistics(UniqueInventoryItem.class.getName()).getLoadCount()).isZero();
+        assertThat(inventory.findByProduct(voucher)).isEmpty();
+    }
+
+    @Test
+    void stillTakesDiscsFromStock() {
+        Buyable disc = first(BuyableType.DVD);
+        Quantity before = inventory.findByProduct(disc).orElseThrow().getQuantity();
+        Cart cart = new Cart();
+        cart.addOrUpdateItem(disc, Quantity.of(1));
+
+        checkout.checkout(cart, boss);
+
+        assertThat(disc.hasUnlimitedStock()).isFalse();
+        assertThat(inventory.findByProduct(disc).orElseThrow().getQuantity()).isEqualTo(before.subtract(Quantity.of(1)));
+    }
+
+    private Buyable first(BuyableType type) {
+        return Streamable.of(catalog.findByType(type)).stream().findFirst().orElseThrow();
+    }
+}
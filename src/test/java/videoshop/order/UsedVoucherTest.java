@@ -23,7 +23,7 @@ public class UsedVoucherTest {
 
     @BeforeEach
     void setup() {
-        sV = new SoldVoucher(Money.of(4, EURO));
+        sV = new SoldVoucher(Money.of(4, EURO), 1, "pass");
         toTest = new UsedVoucher(sV);
     }
 
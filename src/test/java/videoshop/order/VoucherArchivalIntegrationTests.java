@@ -0,0 +1,80 @@
+package videoshop.order;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+import org.salespointframework.time.BusinessTime;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import videoshop.inventory.ArchivedVoucher;
+import videoshop.inventory.ArchivedVoucherRepository;
+import videoshop.inventory.SoldVoucher;
+import videoshop.inventory.SoldVoucherFactory;
+import videoshop.inventory.VoucherInventory;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * Integration tests for {@link VoucherArchival}, driven by a {@link BusinessTime} of their own.
+ * Not transactional on purpose, as every batch has to run in a transaction of its own.
+ */
+@SpringBootTest(properties = "videoshop.vouchers.archival.enabled=false")
+class VoucherArchivalIntegrationTests {
+
+    @Autowired VoucherInventory voucherInventory;
+    @Autowired UsedVoucherInventory usedVoucherInventory;
+    @Autowired ArchivedVoucherRepository archivedVoucherRepository;
+    @Autowired SoldVoucherFactory soldVoucherFactory;
+    @Autowired PlatformTransactionManager transactionManager;
+
+    @Test
+    void archivesSpentVouchersAfterGracePeriod() {
+        SoldVoucher spent = voucherInventory.save(soldVoucherFactory.create(Money.of(10, EURO)));
+        SoldVoucher left = voucherInventory.save(soldVoucherFactory.create(Money.of(10, EURO)));
+        UsedVoucher usedVoucher = usedVoucherInventory.save(new UsedVoucher(spent));
+        new TransactionTemplate(transactionManager).execute(status ->
+                voucherInventory.compareAndSetValue(spent.getSerial(), spent.getRevision(), Money.of(0, EURO)));
+
+        BusinessTime businessTime = mock(BusinessTime.class);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        VoucherArchival archival = new VoucherArchival(voucherInventory, usedVoucherInventory,
+                archivedVoucherRepository, businessTime, transactionManager, meterRegistry, false);
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+        // Within the grace period the spent voucher is only marked
+        when(businessTime.getTime()).thenReturn(now);
+        archival.archive();
+        assertThat(voucherInventory.findBySerial(spent.getSerial()))
+                .hasValueSatisfying(it -> assertThat(it.getExhausted()).isEqualTo(now));
+        assertThat(archivedVoucherRepository.findById(spent.getSerial())).isEmpty();
+
+        when(businessTime.getTime()).thenReturn(now.plus(VoucherArchival.GRACE_PERIOD).plusMinutes(1));
+        archival.archive();
+
+        assertThat(voucherInventory.findBySerial(spent.getSerial())).isEmpty();
+        assertThat(voucherInventory.findBySerial(left.getSerial())).isPresent();
+        assertThat(usedVoucherInventory.findByAssignedSoldVoucherIn(List.of(spent))).isEmpty();
+        ArchivedVoucher archived = archivedVoucherRepository.findById(spent.getSerial()).orElseThrow();
+        assertThat(archived.getPrice().isEqualTo(Money.of(10, EURO))).isTrue();
+        assertThat(archived.getExhausted()).isEqualTo(now);
+        assertThat(archived.getRedemptions()).containsExactly(usedVoucher.getId().toString());
+
+        // Archived serials are never handed out again
+        assertThat(voucherInventory.findHighestSerial()).isGreaterThanOrEqualTo(spent.getSerial());
+        assertThat(meterRegistry.counter("videoshop.vouchers.archived", "kind", "sold").count())
+                .isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.counter("videoshop.vouchers.archived", "kind", "used").count())
+                .isGreaterThanOrEqualTo(1);
+        assertThat(meterRegistry.get("videoshop.vouchers.live").gauge().value())
+                .isEqualTo((double) voucherInventory.count());
+    }
+}
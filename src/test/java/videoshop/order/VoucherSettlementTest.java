@@ -0,0 +1,146 @@
+package videoshop.order;
+
+import org.javamoney.moneta.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import videoshop.inventory.SoldVoucher;
+import videoshop.inventory.VoucherInventory;
+import videoshop.inventory.VoucherInventory.Balance;
+
+import javax.money.MonetaryAmount;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatExceptionOfType;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.salespointframework.core.Currencies.EURO;
+
+/**
+ * TestCases for VoucherSettlement
+ */
+@ExtendWith(MockitoExtension.class)
+public class VoucherSettlementTest {
+    @Mock
+    VoucherInventory voucherInventory;
+
+    static Balance balance(MonetaryAmount value, long revision) {
+        return new Balance() {
+            @Override
+            public MonetaryAmount getValue() {
+                return value;
+            }
+
+            @Override
+            public long getRevision() {
+                return revision;
+            }
+        };
+    }
+
+    @Test
+    void settlesPartlyNeededVoucher() {
+        SoldVoucher soldVoucher = new SoldVoucher(Money.of(50, EURO), 1, "pass");
+        UsedVoucher usedVoucher = new UsedVoucher(soldVoucher);
+        when(voucherInventory.findBalanceBySerial(soldVoucher.getSerial()))
+                .thenReturn(Optional.of(balance(Money.of(50, EURO), 0)));
+        when(voucherInventory.compareAndSetValue(eq(soldVoucher.getSerial()), eq(0L), any())).thenReturn(1);
+        VoucherSettlement settlement = new VoucherSettlement(voucherInventory);
+        // Items worth 30, voucher worth 50
+        MonetaryAmount remainder = settlement.settle(Money.of(-20, EURO), Money.of(50, EURO), List.of(usedVoucher));
+        assertThat(remainder).isEqualTo(Money.of(20, EURO));
+        assertThat(soldVoucher.getValue()).isEqualTo(Money.of(20, EURO));
+        verify(voucherInventory).compareAndSetValue(soldVoucher.getSerial(), 0L, Money.of(20, EURO));
+    }
+
+    @Test
+    void rejectsConcurrentlyChangedVoucher() {
+        SoldVoucher soldVoucher = new SoldVoucher(Money.of(50, EURO), 1, "pass");
+        UsedVoucher usedVoucher = new UsedVoucher(soldVoucher);
+        when(voucherInventory.findBalanceBySerial(soldVoucher.getSerial()))
+                .thenReturn(Optional.of(balance(Money.of(50, EURO), 0)));
+        when(voucherInventory.compareAndSetValue(eq(soldVoucher.getSerial()), eq(0L), any())).thenReturn(0);
+        VoucherSettlement settlement = new VoucherSettlement(voucherInventory);
+        assertThatExceptionOfType(OptimisticLockingFailureException.class)
+                .isThrownBy(() -> settlement.settle(Money.of(-20, EURO), Money.of(50, EURO), List.of(usedVoucher)));
+    }
+
+    @Test
+    void matchesAmountBasedSettlementToTheCent() {
+        Random random = new Random(4711);
+        VoucherSettlement settlement = new VoucherSettlement(voucherInventory);
+        Map<Long, Balance> balances = new HashMap<>();
+        when(voucherInventory.findBalanceBySerial(anyLong()))
+                .thenAnswer(invocation -> Optional.of(balances.get(invocation.<Long>getArgument(0))));
+        when(voucherInventory.compareAndSetValue(anyLong(), anyLong(), any())).thenReturn(1);
+        long serial = 0;
+        for (int run = 0; run < 1000; run++) {
+            // Carts with up to 48 redeemed vouchers and items worth up to 500 EUR
+            MonetaryAmount itemsTotal = cents(random.nextInt(50_000));
+            List<UsedVoucher> usedVouchers = new ArrayList<>();
+            List<MonetaryAmount> expected = new ArrayList<>();
+            MonetaryAmount credited = Money.of(0, EURO);
+            for (int i = random.nextInt(48) + 1; i > 0; i--) {
+                MonetaryAmount value = cents(random.nextInt(10_000) + 1);
+                SoldVoucher soldVoucher = new SoldVoucher(value, ++serial, "pass");
+                balances.put(serial, balance(value, 0));
+                usedVouchers.add(new UsedVoucher(soldVoucher));
+                expected.add(value);
+                credited = credited.add(value);
+            }
+            MonetaryAmount expectedRemainder = recalculateWithAmounts(itemsTotal.subtract(credited), expected)
+                    .stream().reduce(Money.of(0, EURO), MonetaryAmount::add);
+
+            MonetaryAmount remainder = settlement.settle(itemsTotal.subtract(credited), credited, usedVouchers);
+
+            assertThat(remainder.isEqualTo(expectedRemainder)).isTrue();
+            for (int i = 0; i < usedVouchers.size(); i++) {
+                assertThat(usedVouchers.get(i).getAvailableValue().isEqualTo(expected.get(i))).isTrue();
+                assertThat(usedVouchers.get(i).getAssignedSoldVoucher().getValue().isEqualTo(expected.get(i)))
+                        .isTrue();
+            }
+        }
+    }
+
+    @Test
+    void keepsVouchersNotNeeded() {
+        long[] remaining = VoucherSettlement.recalculateVoucherValues(-1500, new long[]{1000, 1000, 1000});
+        assertThat(remaining).containsExactly(1000, 500, 0);
+    }
+
+    private static MonetaryAmount cents(long cents) {
+        return Money.of(cents, EURO).divide(100);
+    }
+
+    /**
+     * Reference implementation computing on {@link MonetaryAmount}s, as settlement did before switching to minor
+     * units. Replaces the given available values by the remaining ones and returns them.
+     */
+    private static List<MonetaryAmount> recalculateWithAmounts(MonetaryAmount dueSum, List<MonetaryAmount> values) {
+        for (int i = 0; i < values.size(); i++) {
+            MonetaryAmount available = values.get(i);
+            if (dueSum.isNegative()) {
+                if (dueSum.add(available).isPositiveOrZero()) {
+                    values.set(i, dueSum.negate());
+                    dueSum = Money.of(0, EURO);
+                } else {
+                    dueSum = dueSum.add(available);
+                }
+            } else {
+                values.set(i, Money.of(0, EURO));
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,91 @@
+package videoshop.reporting;
+
+import org.junit.jupiter.api.Test;
+import org.salespointframework.order.Order;
+import org.salespointframework.order.OrderManager;
+import org.salespointframework.payment.Cash;
+import org.salespointframework.quantity.Quantity;
+import org.salespointframework.time.BusinessTime;
+import org.salespointframework.useraccount.UserAccount;
+import org.salespointframework.useraccount.UserAccountManager;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.util.Streamable;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import videoshop.catalog.Buyable;
+import videoshop.catalog.Buyable.BuyableType;
+import videoshop.catalog.ShopCatalog;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+/**
+ * Integration tests for the {@link SalesReport}.
+ * Not transactional on purpose, as the report is updated after the order has been committed.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReportingIntegrationTests {
+
+    @Autowired SalesReport salesReport;
+    @Autowired OrderManager<Order> orderManager;
+    @Autowired ShopCatalog catalog;
+    @Autowired UserAccountManager userAccountManager;
+    @Autowired BusinessTime businessTime;
+    @Autowired MockMvc mvc;
+
+    private long dvdsSold(LocalDate today) {
+        return salesReport.findSales(today, today).stream()
+                .filter(dailySales -> dailySales.getCategory() == SalesCategory.DVD)
+                .mapToLong(DailySales::getUnits).sum();
+    }
+
+    @Test
+    void updatesReportOnCompletedOrderAndRebuildsIt() {
+        LocalDate today = businessTime.getTime().toLocalDate();
+        long before = dvdsSold(today);
+        UserAccount boss = userAccountManager.findByUsername("boss").orElseThrow();
+        Buyable dvd = Streamable.of(catalog.findByType(BuyableType.DVD)).stream().findFirst().orElseThrow();
+        Order order = new Order(boss, Cash.CASH);
+        order.addOrderLine(dvd, Quantity.of(2));
+        orderManager.payOrder(order);
+        orderManager.completeOrder(order);
+        assertThat(dvdsSold(today)).isEqualTo(before + 2);
+
+        List<DailySales> incremental = salesReport.findSales(today, today);
+        salesReport.rebuild();
+        List<DailySales> rebuilt = salesReport.findSales(today, today);
+        assertThat(rebuilt).extracting(DailySales::getId, DailySales::getUnits)
+                .containsExactlyElementsOf(incremental.stream()
+                        .map(dailySales -> tuple(dailySales.getId(), dailySales.getUnits()))
+                        .collect(Collectors.toList()));
+
+        // Orders completed after the rebuild are counted once on top of it
+        Order next = new Order(boss, Cash.CASH);
+        next.addOrderLine(dvd, Quantity.of(1));
+        orderManager.payOrder(next);
+        orderManager.completeOrder(next);
+        assertThat(dvdsSold(today)).isEqualTo(before + 3);
+        salesReport.rebuild();
+        assertThat(dvdsSold(today)).isEqualTo(before + 3);
+    }
+
+    @Test
+    @WithMockUser(username = "boss", roles = "BOSS")
+    void showsReport() throws Exception {
+        mvc.perform(get("/reports")) //
+                .andExpect(status().isOk()) //
+                .andExpect(view().name("reports")) //
+                .andExpect(model().attributeExists("sales"));
+    }
+}